@@ -0,0 +1,75 @@
+package com.felipe.trip_planner_gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// The body is kept gzipped on the heap, so the cache weigher accounts for all of it and an evicted entry is freed
+// like any other object, and it can be sent as it is to clients that accept gzip
+public record CachedResponse(HttpHeaders headers, String etag, byte[] gzippedBody, long storedAt) {
+
+  public static CachedResponse of(HttpHeaders headers, byte[] body, long storedAt) {
+    String etag = headers.getETag() != null ? headers.getETag() : generateETag(body);
+    return new CachedResponse(headers, etag, gzip(body), storedAt);
+  }
+
+  public int weight() {
+    return this.gzippedBody.length;
+  }
+
+  // Read-only, since the same array is shared by every response served from this entry
+  public ByteBuffer gzippedBodySlice() {
+    return ByteBuffer.wrap(this.gzippedBody).asReadOnlyBuffer();
+  }
+
+  public byte[] body() {
+    try(InputStream input = new GZIPInputStream(new ByteArrayInputStream(this.gzippedBody))) {
+      return input.readAllBytes();
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // If-None-Match uses the weak comparison, so the W/ prefix is ignored on both sides
+  public boolean matches(String ifNoneMatch) {
+    if(ifNoneMatch == null) {
+      return false;
+    }
+    String etag = stripWeakPrefix(this.etag);
+    for(String candidate : ifNoneMatch.split(",")) {
+      String trimmed = candidate.trim();
+      if(trimmed.equals("*") || stripWeakPrefix(trimmed).equals(etag)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static String stripWeakPrefix(String etag) {
+    return etag.startsWith("W/") ? etag.substring(2) : etag;
+  }
+
+  private static String generateETag(byte[] body) {
+    CRC32C crc = new CRC32C();
+    crc.update(body);
+    return "W/\"" + Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(body.length) + "\"";
+  }
+
+  private static byte[] gzip(byte[] body) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+    try(GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+      gzipOutput.write(body);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return output.toByteArray();
+  }
+}
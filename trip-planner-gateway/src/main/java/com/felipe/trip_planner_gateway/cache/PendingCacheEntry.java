@@ -0,0 +1,6 @@
+package com.felipe.trip_planner_gateway.cache;
+
+// Marks a request whose response should be stored once it is written. requestedAt is used as the instant the
+// entry was stored, so a response that was still in flight when its scope was invalidated is never served
+public record PendingCacheEntry(String key, long requestedAt) {
+}
@@ -0,0 +1,59 @@
+package com.felipe.trip_planner_gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+// Bounded by the size of the gzipped bodies and evicted by Caffeine's TinyLFU policy
+@Component
+public class ResponseCache {
+
+  private final Cache<String, CachedResponse> responses;
+  // Instants of the last invalidation of each route and of each scope. They only need to outlive the
+  // entries they invalidate, so they expire together with them
+  private final Cache<String, Long> invalidations;
+
+  public ResponseCache(
+    MeterRegistry meterRegistry,
+    @Value("${gateway.response-cache.maximum-size}") DataSize maximumSize,
+    @Value("${gateway.response-cache.max-ttl}") Duration maxTimeToLive
+  ) {
+    this.responses = Caffeine.newBuilder()
+      .maximumWeight(maximumSize.toBytes())
+      .weigher((String key, CachedResponse response) -> response.weight())
+      .expireAfterWrite(maxTimeToLive)
+      .recordStats()
+      .build();
+    this.invalidations = Caffeine.newBuilder()
+      .expireAfterWrite(maxTimeToLive)
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, this.responses, "gateway.response-cache");
+  }
+
+  public CachedResponse get(String key) {
+    return this.responses.getIfPresent(key);
+  }
+
+  public void put(String key, CachedResponse response) {
+    this.responses.put(key, response);
+  }
+
+  public void remove(String key) {
+    this.responses.invalidate(key);
+  }
+
+  public void invalidate(String invalidationKey) {
+    this.invalidations.put(invalidationKey, System.nanoTime());
+  }
+
+  public boolean isInvalidated(String invalidationKey, CachedResponse response) {
+    Long invalidatedAt = this.invalidations.getIfPresent(invalidationKey);
+    return invalidatedAt != null && response.storedAt() - invalidatedAt < 0;
+  }
+}
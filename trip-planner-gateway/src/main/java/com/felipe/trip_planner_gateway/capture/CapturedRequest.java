@@ -0,0 +1,51 @@
+package com.felipe.trip_planner_gateway.capture;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+// Binary layout of a captured request, read back by the trip-planner-traffic-replay module:
+// arrival (epoch nanos) | duration (nanos) | status (short) | method | uri | header count (short) | headers | body.
+// Strings and the body are prefixed by their length: a byte for the method, a short for header names and an int
+// for everything else
+public record CapturedRequest(
+  long arrivalEpochNanos,
+  long durationNanos,
+  int status,
+  String method,
+  String uri,
+  List<Map.Entry<String, String>> headers,
+  byte[] body
+) {
+
+  public byte[] encode() {
+    byte[] methodBytes = this.method.getBytes(StandardCharsets.US_ASCII);
+    byte[] uriBytes = this.uri.getBytes(StandardCharsets.UTF_8);
+    byte[][] headerBytes = new byte[this.headers.size() * 2][];
+    int size = 8 + 8 + 2 + 1 + methodBytes.length + 4 + uriBytes.length + 2 + 4 + this.body.length;
+
+    for(int i = 0; i < this.headers.size(); i++) {
+      headerBytes[i * 2] = this.headers.get(i).getKey().getBytes(StandardCharsets.US_ASCII);
+      headerBytes[i * 2 + 1] = this.headers.get(i).getValue().getBytes(StandardCharsets.UTF_8);
+      size += 2 + headerBytes[i * 2].length + 4 + headerBytes[i * 2 + 1].length;
+    }
+
+    ByteBuffer buffer = ByteBuffer.allocate(size)
+      .putLong(this.arrivalEpochNanos)
+      .putLong(this.durationNanos)
+      .putShort((short) this.status)
+      .put((byte) methodBytes.length)
+      .put(methodBytes)
+      .putInt(uriBytes.length)
+      .put(uriBytes)
+      .putShort((short) this.headers.size());
+    for(int i = 0; i < headerBytes.length; i += 2) {
+      buffer.putShort((short) headerBytes[i].length)
+        .put(headerBytes[i])
+        .putInt(headerBytes[i + 1].length)
+        .put(headerBytes[i + 1]);
+    }
+    return buffer.putInt(this.body.length).put(this.body).array();
+  }
+}
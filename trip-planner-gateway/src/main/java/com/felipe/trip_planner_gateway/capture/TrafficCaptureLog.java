@@ -0,0 +1,123 @@
+package com.felipe.trip_planner_gateway.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Append-only log of captured requests, split into memory-mapped segment files of a fixed size. Each record is
+// written before its length, so a reader stops at the first zero length and never sees a half-written record.
+// Appends are handed to a single writer thread and dropped when it falls behind, never blocking the event loop
+@Component
+@ConditionalOnProperty(name = "gateway.traffic-capture.enabled", havingValue = "true")
+@EnableConfigurationProperties(TrafficCaptureProperties.class)
+public class TrafficCaptureLog implements DisposableBean {
+
+  public static final int MAGIC = 0x54504341;
+  public static final short VERSION = 1;
+  private static final int SEGMENT_HEADER_SIZE = 6;
+
+  private final Path directory;
+  private final int segmentSize;
+  private final long startEpochNanos;
+  private final long startNanoTime;
+  private final ThreadPoolExecutor writer;
+  private final Logger logger = LoggerFactory.getLogger(TrafficCaptureLog.class);
+
+  // Only used by the writer thread
+  private FileChannel channel;
+  private MappedByteBuffer segment;
+  private int segmentSequence;
+
+  public TrafficCaptureLog(TrafficCaptureProperties properties) {
+    this.directory = properties.directory();
+    this.segmentSize = (int) properties.segmentSize().toBytes();
+    this.startEpochNanos = System.currentTimeMillis() * 1_000_000;
+    this.startNanoTime = System.nanoTime();
+    this.writer = new ThreadPoolExecutor(
+      1, 1, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(10_000),
+      runnable -> {
+        Thread thread = new Thread(runnable, "traffic-capture-writer");
+        thread.setDaemon(true);
+        return thread;
+      },
+      new ThreadPoolExecutor.DiscardPolicy()
+    );
+
+    try {
+      Files.createDirectories(this.directory);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    logger.info("Captura de tráfego habilitada. Gravando em: {}", this.directory.toAbsolutePath());
+  }
+
+  // Wall-clock based, but monotonic within a capture, so inter-arrival times are kept exactly
+  public long currentEpochNanos() {
+    return this.startEpochNanos + (System.nanoTime() - this.startNanoTime);
+  }
+
+  public void append(CapturedRequest capturedRequest) {
+    this.writer.execute(() -> this.write(capturedRequest.encode()));
+  }
+
+  private void write(byte[] record) {
+    if(record.length + 4 > this.segmentSize - SEGMENT_HEADER_SIZE) {
+      logger.warn("Requisição capturada maior que o segmento ({} bytes) descartada", record.length);
+      return;
+    }
+
+    try {
+      if(this.segment == null || this.segment.remaining() < record.length + 4) {
+        this.openNextSegment();
+      }
+      int position = this.segment.position();
+      this.segment.position(position + 4);
+      this.segment.put(record);
+      this.segment.putInt(position, record.length);
+    } catch(IOException e) {
+      logger.error("Erro ao gravar requisição capturada. Message: {}", e.getMessage());
+    }
+  }
+
+  // Segment files are created with their full size, but pages that are never written stay sparse on disk
+  private void openNextSegment() throws IOException {
+    this.closeSegment();
+    Path file = this.directory.resolve(
+      "capture-" + System.currentTimeMillis() + "-" + String.format("%05d", this.segmentSequence++) + ".bin"
+    );
+    this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    this.segment = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.segmentSize);
+    this.segment.putInt(MAGIC).putShort(VERSION);
+  }
+
+  private void closeSegment() throws IOException {
+    if(this.segment != null) {
+      this.segment.force();
+      this.channel.close();
+      this.segment = null;
+    }
+  }
+
+  @Override
+  public void destroy() throws Exception {
+    this.writer.shutdown();
+    if(this.writer.awaitTermination(5, TimeUnit.SECONDS)) {
+      this.closeSegment();
+    }
+  }
+}
@@ -0,0 +1,25 @@
+package com.felipe.trip_planner_gateway.capture;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.util.List;
+
+// Each excluded path is written as "<METHOD> <path pattern>", or only "<path pattern>" for every method. Requests
+// whose body carries a password are excluded by default
+@ConfigurationProperties("gateway.traffic-capture")
+public record TrafficCaptureProperties(
+  boolean enabled,
+  double sampleRate,
+  Path directory,
+  DataSize segmentSize,
+  DataSize maxBodySize,
+  List<String> excludedHeaders,
+  List<String> excludedPaths
+) {
+  public TrafficCaptureProperties {
+    excludedHeaders = excludedHeaders == null ? List.of() : List.copyOf(excludedHeaders);
+    excludedPaths = excludedPaths == null ? List.of("/auth/**", "PUT /users/**") : List.copyOf(excludedPaths);
+  }
+}
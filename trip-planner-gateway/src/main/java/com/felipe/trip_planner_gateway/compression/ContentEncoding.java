@@ -0,0 +1,97 @@
+package com.felipe.trip_planner_gateway.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+public enum ContentEncoding {
+  GZIP("gzip"),
+  DEFLATE("deflate");
+
+  private final String token;
+
+  ContentEncoding(String token) {
+    this.token = token;
+  }
+
+  public String token() {
+    return this.token;
+  }
+
+  public byte[] compress(byte[] body, int level) {
+    ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+    try(OutputStream compressedOutput = this.open(output, level)) {
+      compressedOutput.write(body);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return output.toByteArray();
+  }
+
+  private OutputStream open(ByteArrayOutputStream output, int level) throws IOException {
+    if(this == GZIP) {
+      return new GZIPOutputStream(output) {
+        {
+          this.def.setLevel(level);
+        }
+      };
+    }
+    Deflater deflater = new Deflater(level);
+    return new DeflaterOutputStream(output, deflater) {
+      @Override
+      public void close() throws IOException {
+        super.close();
+        deflater.end();
+      }
+    };
+  }
+
+  // Picks the accepted encoding with the highest quality value, gzip winning ties. Returns null when the client
+  // accepts neither (q=0 refuses an encoding and "*" stands for every encoding not listed)
+  public static ContentEncoding negotiate(String acceptEncoding) {
+    if(acceptEncoding == null || acceptEncoding.isBlank()) {
+      return null;
+    }
+
+    double gzipQuality = -1;
+    double deflateQuality = -1;
+    double wildcardQuality = -1;
+    for(String entry : acceptEncoding.split(",")) {
+      String[] parts = entry.split(";");
+      String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+      double quality = parseQuality(parts);
+      switch(coding) {
+        case "gzip", "x-gzip" -> gzipQuality = Math.max(gzipQuality, quality);
+        case "deflate" -> deflateQuality = deflateQuality < 0 ? quality : Math.max(deflateQuality, quality);
+        case "*" -> wildcardQuality = quality;
+        default -> {}
+      }
+    }
+    gzipQuality = gzipQuality < 0 ? wildcardQuality : gzipQuality;
+    deflateQuality = deflateQuality < 0 ? wildcardQuality : deflateQuality;
+
+    if(gzipQuality <= 0 && deflateQuality <= 0) {
+      return null;
+    }
+    return gzipQuality >= deflateQuality ? GZIP : DEFLATE;
+  }
+
+  private static double parseQuality(String[] parts) {
+    for(int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if(parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2));
+        } catch(NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
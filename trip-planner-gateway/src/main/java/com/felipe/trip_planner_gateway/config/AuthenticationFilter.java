@@ -1,46 +1,90 @@
 package com.felipe.trip_planner_gateway.config;
 
-import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
 import com.felipe.trip_planner_gateway.exceptions.MissingAuthException;
+import com.felipe.trip_planner_gateway.metrics.GatewayMetrics;
 import com.felipe.trip_planner_gateway.services.AuthService;
+import com.felipe.trip_planner_gateway.services.IdentityHeaderSigner;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
 
 @Component
 public class AuthenticationFilter extends AbstractGatewayFilterFactory<AuthenticationFilter.Config> {
 
+  public static final String VALIDATED_USER_ATTRIBUTE = "validatedUser";
+
   private final RouteValidator routeValidator;
   private final AuthService authService;
+  private final GatewayMetrics gatewayMetrics;
+  private final IdentityHeaderSigner identityHeaderSigner;
 
-  public AuthenticationFilter(RouteValidator routeValidator, AuthService authService) {
+  public AuthenticationFilter(
+    RouteValidator routeValidator,
+    AuthService authService,
+    GatewayMetrics gatewayMetrics,
+    IdentityHeaderSigner identityHeaderSigner
+  ) {
     super(Config.class);
     this.routeValidator = routeValidator;
     this.authService = authService;
+    this.gatewayMetrics = gatewayMetrics;
+    this.identityHeaderSigner = identityHeaderSigner;
   }
 
   @Override
   public GatewayFilter apply(AuthenticationFilter.Config config) {
     return ((exchange, chain) -> {
-      ServerHttpRequest request = exchange.getRequest();
-
-      if(this.routeValidator.isSecured.test(request)) {
-        String authorizationHeader = this.extractAuthorizationHeader(request);
-        String token = this.extractToken(authorizationHeader);
-        ValidatedUserDTO validatedUser = this.authService.validateToken(token);
-
-        request = request.mutate()
-          .header("userId", validatedUser.id())
-          .header("username", validatedUser.name())
-          .header("userEmail", validatedUser.email())
-          .build();
+      ServerHttpRequest request = exchange.getRequest()
+        .mutate()
+        .headers(this.identityHeaderSigner::removeIdentityHeaders)
+        .build();
+
+      if(!this.routeValidator.isSecured(request)) {
+        return chain.filter(exchange.mutate().request(request).build());
       }
-      return chain.filter(exchange.mutate().request(request).build());
+
+      Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
+      long start = System.nanoTime();
+      return Mono.defer(() -> this.authService.validateToken(this.extractToken(this.extractAuthorizationHeader(request))))
+        .doOnSuccess(validatedUser -> this.recordValidationTime(exchange, route, HttpStatus.OK, start))
+        .doOnError(e -> this.recordValidationTime(
+          exchange,
+          route,
+          e instanceof MissingAuthException || e instanceof AuthValidationException
+            ? HttpStatus.UNAUTHORIZED
+            : HttpStatus.INTERNAL_SERVER_ERROR,
+          start
+        ))
+        .flatMap(validatedUser -> {
+          exchange.getAttributes().put(VALIDATED_USER_ATTRIBUTE, validatedUser);
+          ServerHttpRequest authenticatedRequest = request.mutate()
+            .headers(headers -> this.identityHeaderSigner.sign(
+              headers,
+              validatedUser.id(),
+              validatedUser.name(),
+              validatedUser.email()
+            ))
+            .build();
+          return chain.filter(exchange.mutate().request(authenticatedRequest).build());
+        });
     });
   }
 
+  private void recordValidationTime(ServerWebExchange exchange, Route route, HttpStatus status, long start) {
+    long durationNanos = System.nanoTime() - start;
+    exchange.getAttributes().put(ServerTimingFilter.AUTH_TIME_ATTRIBUTE, durationNanos);
+    this.gatewayMetrics.recordAuthValidation(route.getId(), status, durationNanos);
+  }
+
   private String extractAuthorizationHeader(ServerHttpRequest request) {
     String authorizationHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
     if(authorizationHeader == null || !authorizationHeader.startsWith("Bearer ")) {
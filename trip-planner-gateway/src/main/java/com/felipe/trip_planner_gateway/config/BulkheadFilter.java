@@ -0,0 +1,65 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.exceptions.BulkheadFullException;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Limits how many requests of a route can be in flight at the same time, so a slow backend holds at most
+// its own share of the gateway connections. Requests over the limit are rejected right away.
+// The permits live in this bean instead of the GatewayFilter, because the route filters are rebuilt
+// on every RefreshRoutesEvent while requests started before it are still holding permits
+@Component
+public class BulkheadFilter extends AbstractGatewayFilterFactory<BulkheadFilter.Config> {
+
+  private final Map<RouteLimit, Semaphore> permitsByRoute = new ConcurrentHashMap<>();
+
+  public BulkheadFilter() {
+    super(Config.class);
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("maxConcurrentRequests");
+  }
+
+  @Override
+  public GatewayFilter apply(BulkheadFilter.Config config) {
+    return ((exchange, chain) -> {
+      Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
+      Semaphore permits = this.permitsByRoute.computeIfAbsent(
+        new RouteLimit(route.getId(), config.getMaxConcurrentRequests()),
+        routeLimit -> new Semaphore(routeLimit.maxConcurrentRequests())
+      );
+
+      if(!permits.tryAcquire()) {
+        return Mono.error(new BulkheadFullException());
+      }
+      return Mono.defer(() -> chain.filter(exchange)).doFinally(signalType -> permits.release());
+    });
+  }
+
+  // A new limit after a refresh gets its own semaphore, the old one is only released by the requests holding it
+  private record RouteLimit(String routeId, int maxConcurrentRequests) {}
+
+  public static class Config {
+    private int maxConcurrentRequests;
+
+    public int getMaxConcurrentRequests() {
+      return this.maxConcurrentRequests;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+      this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+  }
+}
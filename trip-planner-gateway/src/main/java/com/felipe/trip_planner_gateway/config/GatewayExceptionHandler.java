@@ -0,0 +1,67 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
+import com.felipe.trip_planner_gateway.exceptions.BulkheadFullException;
+import com.felipe.trip_planner_gateway.exceptions.MissingAuthException;
+import com.felipe.trip_planner_gateway.exceptions.RateLimitExceededException;
+import com.felipe.trip_planner_gateway.utils.CustomResponseBody;
+import com.felipe.trip_planner_gateway.utils.ResponseConditionStatus;
+import org.springframework.boot.web.reactive.error.ErrorWebExceptionHandler;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Errors raised inside gateway filters never reach the @RestControllerAdvice, so they are rendered here
+@Component
+@Order(-2)
+public class GatewayExceptionHandler implements ErrorWebExceptionHandler {
+
+  private final ObjectMapper objectMapper;
+
+  public GatewayExceptionHandler(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+    if(exchange.getResponse().isCommitted()) {
+      return Mono.error(ex);
+    }
+    if(ex instanceof MissingAuthException || ex instanceof AuthValidationException) {
+      return this.writeResponse(exchange.getResponse(), HttpStatus.UNAUTHORIZED, ex.getMessage());
+    }
+    if(ex instanceof RateLimitExceededException rateLimitExceededException) {
+      exchange.getResponse().getHeaders()
+        .set(HttpHeaders.RETRY_AFTER, String.valueOf(rateLimitExceededException.getRetryAfterSeconds()));
+      return this.writeResponse(exchange.getResponse(), HttpStatus.TOO_MANY_REQUESTS, ex.getMessage());
+    }
+    if(ex instanceof BulkheadFullException bulkheadFullException) {
+      exchange.getResponse().getHeaders()
+        .set(HttpHeaders.RETRY_AFTER, String.valueOf(bulkheadFullException.getRetryAfterSeconds()));
+      return this.writeResponse(exchange.getResponse(), HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+    }
+    return Mono.error(ex);
+  }
+
+  private Mono<Void> writeResponse(ServerHttpResponse response, HttpStatus status, String message) {
+    CustomResponseBody<Void> responseBody = new CustomResponseBody<>(ResponseConditionStatus.ERROR, status, message, null);
+    byte[] bytes;
+    try {
+      bytes = this.objectMapper.writeValueAsBytes(responseBody);
+    } catch(JsonProcessingException e) {
+      return Mono.error(e);
+    }
+    DataBuffer buffer = response.bufferFactory().wrap(bytes);
+    response.setStatusCode(status);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    return response.writeWith(Mono.just(buffer));
+  }
+}
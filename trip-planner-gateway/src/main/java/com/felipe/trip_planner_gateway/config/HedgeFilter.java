@@ -0,0 +1,227 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.hedging.HedgeBudget;
+import com.felipe.trip_planner_gateway.hedging.LatencyTracker;
+import com.felipe.trip_planner_gateway.loadbalancer.ConsistentHashLoadBalancer;
+import com.felipe.trip_planner_gateway.services.IdentityHeaderSigner;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Opt-in for idempotent routes. GET requests are sent by this filter through the load balancer instead of the
+// routing filters: if no response arrives within the route's p95 latency (bounded by minDelay and maxDelay),
+// a duplicate is sent to another instance, the first response wins and the other request is cancelled.
+// The filters ordered after this one never run for those requests: the route's filters declared after it,
+// RouteToRequestUrlFilter, ReactiveLoadBalancerClientFilter, UpstreamTimingFilter and the Netty routing filter.
+// The response-timeout of the route metadata (or of spring.cloud.gateway.httpclient) is applied here instead, and
+// the load balancer lifecycle still runs, through the load-balanced WebClient. The filters ordered before this one
+// (metrics, caching, compression) wrap it as usual. The winning body is streamed to the client as it arrives, so the
+// backend is never called again after the race, whatever the size of the response.
+// Must be declared last, after PrefixPath, since the request is sent with the path it has at this point
+@Component
+public class HedgeFilter extends AbstractGatewayFilterFactory<HedgeFilter.Config> {
+
+  private static final Set<String> NOT_FORWARDED_HEADERS = Set.of(
+    HttpHeaders.HOST.toLowerCase(),
+    HttpHeaders.CONNECTION.toLowerCase(),
+    HttpHeaders.CONTENT_LENGTH.toLowerCase(),
+    HttpHeaders.TRANSFER_ENCODING.toLowerCase(),
+    ConsistentHashLoadBalancer.HEDGED_REQUEST_HEADER.toLowerCase()
+  );
+
+  private final WebClient webClient;
+  private final HedgeBudget hedgeBudget;
+  private final IdentityHeaderSigner identityHeaderSigner;
+  private final Duration defaultResponseTimeout;
+  // Kept in this bean instead of the GatewayFilter, so the percentile survives the route filters being rebuilt
+  // on every RefreshRoutesEvent
+  private final Map<String, LatencyTracker> latencyTrackers = new ConcurrentHashMap<>();
+
+  public HedgeFilter(
+    WebClient.Builder webClientBuilder,
+    ReactorLoadBalancerExchangeFilterFunction loadBalancerFilter,
+    HedgeBudget hedgeBudget,
+    IdentityHeaderSigner identityHeaderSigner,
+    HttpClientProperties httpClientProperties
+  ) {
+    super(Config.class);
+    this.webClient = webClientBuilder
+      .filter(loadBalancerFilter)
+      .build();
+    this.hedgeBudget = hedgeBudget;
+    this.identityHeaderSigner = identityHeaderSigner;
+    this.defaultResponseTimeout = httpClientProperties.getResponseTimeout();
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("minDelay", "maxDelay");
+  }
+
+  @Override
+  public GatewayFilter apply(HedgeFilter.Config config) {
+    return ((exchange, chain) -> {
+      if(exchange.getRequest().getMethod() != HttpMethod.GET) {
+        return chain.filter(exchange);
+      }
+
+      this.hedgeBudget.deposit();
+      long start = System.nanoTime();
+      Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
+      LatencyTracker latencyTracker = this.latencyTrackers.computeIfAbsent(route.getId(), routeId -> new LatencyTracker());
+      URI uri = this.resolveUri(exchange.getRequest(), route);
+      Duration responseTimeout = this.responseTimeout(route);
+      Mono<ResponseEntity<Flux<DataBuffer>>> primary =
+        this.send(exchange.getRequest(), route, uri, responseTimeout, latencyTracker, false);
+      Mono<ResponseEntity<Flux<DataBuffer>>> hedge = Mono.delay(this.hedgeDelay(config, latencyTracker))
+        .filter(tick -> this.hedgeBudget.tryWithdraw())
+        .flatMap(tick -> this.send(exchange.getRequest(), route, uri, responseTimeout, latencyTracker, true));
+
+      return Mono.firstWithValue(primary, hedge)
+        .onErrorMap(NoSuchElementException.class, this::firstError)
+        .onErrorMap(TimeoutException.class, e -> new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, e.getMessage(), e))
+        .flatMap(winner -> {
+          exchange.getAttributes().put(ServerTimingFilter.UPSTREAM_TIME_ATTRIBUTE, System.nanoTime() - start);
+          return this.writeResponse(exchange.getResponse(), winner);
+        })
+        .doOnDiscard(ResponseEntity.class, this::cancelBody);
+    });
+  }
+
+  private Duration hedgeDelay(Config config, LatencyTracker latencyTracker) {
+    long p95Nanos = latencyTracker.getP95Nanos();
+    if(p95Nanos < 0) {
+      return config.getMaxDelay();
+    }
+    long delayNanos = Math.max(config.getMinDelay().toNanos(), Math.min(p95Nanos, config.getMaxDelay().toNanos()));
+    return Duration.ofNanos(delayNanos);
+  }
+
+  // firstWithValue reports the failure of every request together, the primary one is reported instead
+  private Throwable firstError(NoSuchElementException e) {
+    List<Throwable> errors = Exceptions.unwrapMultiple(e.getCause());
+    return errors.isEmpty() || errors.get(0) == null ? e : errors.get(0);
+  }
+
+  // Same precedence as the Netty routing filter: the route metadata in milliseconds, then the global setting
+  private Duration responseTimeout(Route route) {
+    Object routeTimeout = route.getMetadata().get(RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR);
+    if(routeTimeout != null) {
+      long millis = Long.parseLong(String.valueOf(routeTimeout));
+      return millis >= 0 ? Duration.ofMillis(millis) : null;
+    }
+    return this.defaultResponseTimeout;
+  }
+
+  private URI resolveUri(ServerHttpRequest request, Route route) {
+    return UriComponentsBuilder.fromUri(request.getURI())
+      .scheme("http")
+      .host(route.getUri().getHost())
+      .port(-1)
+      .build(true)
+      .toUri();
+  }
+
+  // A cancelled request still records how long it had been waiting, otherwise the slowest requests,
+  // which are exactly the ones that lose the race, would never be part of the percentile.
+  // Emits once the response headers arrive, with a body that is only read when the winner is written
+  private Mono<ResponseEntity<Flux<DataBuffer>>> send(
+    ServerHttpRequest request,
+    Route route,
+    URI uri,
+    Duration responseTimeout,
+    LatencyTracker latencyTracker,
+    boolean hedged
+  ) {
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      Mono<ResponseEntity<Flux<DataBuffer>>> response = this.webClient.get()
+        .uri(uri)
+        .attribute(GATEWAY_ROUTE_ATTR, route)
+        .headers(headers -> {
+          request.getHeaders().forEach((name, values) -> {
+            if(!NOT_FORWARDED_HEADERS.contains(name.toLowerCase())) {
+              headers.addAll(name, values);
+            }
+          });
+          if(hedged) {
+            headers.set(ConsistentHashLoadBalancer.HEDGED_REQUEST_HEADER, "true");
+            this.identityHeaderSigner.resign(headers);
+          }
+        })
+        .retrieve()
+        .onStatus(status -> true, clientResponse -> Mono.empty())
+        .toEntityFlux(DataBuffer.class);
+      return (responseTimeout != null ? response.timeout(responseTimeout) : response)
+        .doOnSuccess(entity -> latencyTracker.record(System.nanoTime() - start))
+        .doOnCancel(() -> latencyTracker.record(System.nanoTime() - start));
+    });
+  }
+
+  // Content-Length is kept, since the body is written exactly as it was received
+  private Mono<Void> writeResponse(ServerHttpResponse response, ResponseEntity<Flux<DataBuffer>> entity) {
+    response.setStatusCode(entity.getStatusCode());
+    entity.getHeaders().forEach((name, values) -> {
+      if(!NOT_FORWARDED_HEADERS.contains(name.toLowerCase()) || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)) {
+        response.getHeaders().addAll(name, values);
+      }
+    });
+    return response.writeWith(entity.getBody() != null ? entity.getBody() : Flux.empty());
+  }
+
+  // A response that arrived right after the winner was picked is never written, so its connection is released
+  private void cancelBody(ResponseEntity<?> entity) {
+    if(entity.getBody() instanceof Flux<?> body) {
+      body.take(0).subscribe();
+    }
+  }
+
+  public static class Config {
+    private Duration minDelay = Duration.ofMillis(20);
+    private Duration maxDelay = Duration.ofMillis(500);
+
+    public Duration getMinDelay() {
+      return this.minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+      this.minDelay = minDelay;
+    }
+
+    public Duration getMaxDelay() {
+      return this.maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+    }
+  }
+}
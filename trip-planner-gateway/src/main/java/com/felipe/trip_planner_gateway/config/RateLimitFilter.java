@@ -0,0 +1,128 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.RateLimitExceededException;
+import com.felipe.trip_planner_gateway.ratelimit.TokenBucket;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Scheduler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.HasRouteId;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Must be declared after AuthenticationFilter, since authenticated requests are limited by the e-mail
+// of the user it validated. Requests to open endpoints are limited by the client address instead
+@Component
+public class RateLimitFilter extends AbstractGatewayFilterFactory<RateLimitFilter.Config> {
+
+  // Kept in this bean instead of the GatewayFilter, because the route filters are rebuilt on every RefreshRoutesEvent
+  // (every Eureka heartbeat) and new buckets would give every client a fresh burst each time
+  private final Map<RouteLimit, Cache<String, TokenBucket>> bucketsByRoute = new ConcurrentHashMap<>();
+  private final Duration idleTimeout;
+  private final long maximumKeys;
+
+  public RateLimitFilter(
+    @Value("${gateway.rate-limit.idle-timeout}") Duration idleTimeout,
+    @Value("${gateway.rate-limit.maximum-keys}") long maximumKeys
+  ) {
+    super(Config.class);
+    this.idleTimeout = idleTimeout;
+    this.maximumKeys = maximumKeys;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("replenishRate", "burstCapacity");
+  }
+
+  // Each route gets its own buckets, so the same user is limited independently on every route. They are looked up
+  // once when the route is built, so a request only looks up its client key
+  @Override
+  public GatewayFilter apply(RateLimitFilter.Config config) {
+    if(config.getReplenishRate() <= 0 || config.getBurstCapacity() < 1) {
+      throw new IllegalArgumentException(
+        "RateLimitFilter da rota " + config.getRouteId()
+          + " precisa de replenishRate maior que 0 e burstCapacity maior ou igual a 1"
+      );
+    }
+    RouteLimit routeLimit = new RouteLimit(config.getRouteId(), config.getReplenishRate(), config.getBurstCapacity());
+    Cache<String, TokenBucket> buckets = this.bucketsByRoute.computeIfAbsent(routeLimit, this::newBuckets);
+    Function<String, TokenBucket> newBucket = clientKey -> new TokenBucket(
+      routeLimit.replenishRate(), routeLimit.burstCapacity(), System.nanoTime()
+    );
+
+    return ((exchange, chain) -> {
+      TokenBucket bucket = buckets.get(this.resolveKey(exchange), newBucket);
+      long waitNanos = bucket.tryConsume(System.nanoTime());
+
+      if(waitNanos > 0) {
+        return Mono.error(new RateLimitExceededException(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L))));
+      }
+      return chain.filter(exchange);
+    });
+  }
+
+  private Cache<String, TokenBucket> newBuckets(RouteLimit routeLimit) {
+    return Caffeine.newBuilder()
+      .expireAfterAccess(this.idleTimeout)
+      .maximumSize(this.maximumKeys)
+      .scheduler(Scheduler.systemScheduler())
+      .build();
+  }
+
+  private String resolveKey(ServerWebExchange exchange) {
+    ValidatedUserDTO validatedUser = exchange.getAttribute(AuthenticationFilter.VALIDATED_USER_ATTRIBUTE);
+    if(validatedUser != null) {
+      return validatedUser.email();
+    }
+    InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+    return remoteAddress != null ? remoteAddress.getHostString() : "unknown";
+  }
+
+  // A route whose limits changed on a refresh starts over with new buckets
+  private record RouteLimit(String routeId, long replenishRate, long burstCapacity) {}
+
+  public static class Config implements HasRouteId {
+    private String routeId;
+    private long replenishRate;
+    private long burstCapacity;
+
+    @Override
+    public String getRouteId() {
+      return this.routeId;
+    }
+
+    @Override
+    public void setRouteId(String routeId) {
+      this.routeId = routeId;
+    }
+
+    public long getReplenishRate() {
+      return this.replenishRate;
+    }
+
+    public void setReplenishRate(long replenishRate) {
+      this.replenishRate = replenishRate;
+    }
+
+    public long getBurstCapacity() {
+      return this.burstCapacity;
+    }
+
+    public void setBurstCapacity(long burstCapacity) {
+      this.burstCapacity = burstCapacity;
+    }
+  }
+}
@@ -0,0 +1,180 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.cache.CachedResponse;
+import com.felipe.trip_planner_gateway.cache.PendingCacheEntry;
+import com.felipe.trip_planner_gateway.cache.ResponseCache;
+import com.felipe.trip_planner_gateway.compression.ContentEncoding;
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Serves the 200 responses of the configured GET paths from the cache, keyed by route, path, query and user.
+// On a miss the request is marked and ResponseCacheWriteFilter stores the response. An unsafe request invalidates
+// the entries of its scope (e.g. every path under /api/trips/{tripId}), or of the whole route when it doesn't
+// fall into a scope. When invalidating paths are configured, only the unsafe requests to them invalidate anything, so
+// e.g. logins don't empty the cache of the users route. The scope is invalidated again once the write completes,
+// because a GET forwarded while the write was running may have read the old state. Entries are stamped with the
+// instant their GET was received, so that GET is rejected too. Must be declared after AuthenticationFilter and PrefixPath
+@Component
+public class ResponseCacheFilter extends AbstractGatewayFilterFactory<ResponseCacheFilter.Config> {
+
+  public static final String PENDING_CACHE_ENTRY_ATTRIBUTE = "pendingCacheEntry";
+
+  private static final Set<HttpMethod> SAFE_METHODS = Set.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS, HttpMethod.TRACE);
+
+  private final ResponseCache responseCache;
+
+  public ResponseCacheFilter(ResponseCache responseCache) {
+    super(Config.class);
+    this.responseCache = responseCache;
+  }
+
+  @Override
+  public GatewayFilter apply(ResponseCacheFilter.Config config) {
+    PathPatternParser parser = new PathPatternParser();
+    List<PathPattern> cachedPaths = config.getPaths().stream().map(parser::parse).toList();
+    PathPattern scope = config.getScope() != null ? parser.parse(config.getScope()) : null;
+    List<PathPattern> invalidatingPaths = config.getInvalidatingPaths().stream().map(parser::parse).toList();
+    long timeToLiveNanos = config.getTimeToLive().toNanos();
+
+    return ((exchange, chain) -> {
+      ServerHttpRequest request = exchange.getRequest();
+      PathContainer path = request.getPath().pathWithinApplication();
+      Route route = exchange.getRequiredAttribute(GATEWAY_ROUTE_ATTR);
+      String scopeKey = this.resolveScope(route, scope, path);
+
+      if(!SAFE_METHODS.contains(request.getMethod())) {
+        if(!invalidatingPaths.isEmpty() && invalidatingPaths.stream().noneMatch(pattern -> pattern.matches(path))) {
+          return chain.filter(exchange);
+        }
+        String invalidationKey = scopeKey != null ? scopeKey : route.getId();
+        this.responseCache.invalidate(invalidationKey);
+        return chain.filter(exchange).doFinally(signal -> this.responseCache.invalidate(invalidationKey));
+      }
+
+      if(request.getMethod() != HttpMethod.GET || cachedPaths.stream().noneMatch(pattern -> pattern.matches(path))) {
+        return chain.filter(exchange);
+      }
+
+      String key = this.cacheKey(exchange, route);
+      long requestedAt = System.nanoTime();
+      CachedResponse cachedResponse = this.responseCache.get(key);
+
+      if(cachedResponse != null) {
+        boolean expired = requestedAt - cachedResponse.storedAt() > timeToLiveNanos;
+        boolean invalidated = this.responseCache.isInvalidated(route.getId(), cachedResponse)
+          || (scopeKey != null && this.responseCache.isInvalidated(scopeKey, cachedResponse));
+
+        if(!expired && !invalidated) {
+          return this.writeCachedResponse(exchange, cachedResponse);
+        }
+        this.responseCache.remove(key);
+      }
+
+      exchange.getAttributes().put(PENDING_CACHE_ENTRY_ATTRIBUTE, new PendingCacheEntry(key, requestedAt));
+      return chain.filter(exchange);
+    });
+  }
+
+  private String resolveScope(Route route, PathPattern scope, PathContainer path) {
+    if(scope == null) {
+      return null;
+    }
+    PathPattern.PathRemainingMatchInfo matchInfo = scope.matchStartOfPath(path);
+    return matchInfo != null ? route.getId() + '\n' + matchInfo.getPathMatched().value() : null;
+  }
+
+  private String cacheKey(ServerWebExchange exchange, Route route) {
+    ValidatedUserDTO validatedUser = exchange.getAttribute(AuthenticationFilter.VALIDATED_USER_ATTRIBUTE);
+    String query = exchange.getRequest().getURI().getRawQuery();
+    return route.getId() + '\n'
+      + exchange.getRequest().getPath().value() + '\n'
+      + (query != null ? query : "") + '\n'
+      + (validatedUser != null ? validatedUser.email() : "");
+  }
+
+  private Mono<Void> writeCachedResponse(ServerWebExchange exchange, CachedResponse cachedResponse) {
+    ServerHttpResponse response = exchange.getResponse();
+    HttpHeaders requestHeaders = exchange.getRequest().getHeaders();
+    response.getHeaders().addAll(cachedResponse.headers());
+    response.getHeaders().setETag(cachedResponse.etag());
+
+    if(cachedResponse.matches(requestHeaders.getFirst(HttpHeaders.IF_NONE_MATCH))) {
+      response.setStatusCode(HttpStatus.NOT_MODIFIED);
+      response.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+      return response.setComplete();
+    }
+
+    response.setStatusCode(HttpStatus.OK);
+    response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    // The body is kept gzipped only, so clients preferring deflate get it uncompressed
+    ContentEncoding encoding = ContentEncoding.negotiate(requestHeaders.getFirst(HttpHeaders.ACCEPT_ENCODING));
+
+    if(encoding == ContentEncoding.GZIP) {
+      response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, "gzip");
+      response.getHeaders().setContentLength(cachedResponse.weight());
+      return response.writeWith(Mono.just(response.bufferFactory().wrap(cachedResponse.gzippedBodySlice())));
+    }
+
+    byte[] body = cachedResponse.body();
+    response.getHeaders().setContentLength(body.length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+  }
+
+  public static class Config {
+    private List<String> paths = List.of();
+    private String scope;
+    private List<String> invalidatingPaths = List.of();
+    private Duration timeToLive = Duration.ofSeconds(30);
+
+    public List<String> getPaths() {
+      return this.paths;
+    }
+
+    public void setPaths(List<String> paths) {
+      this.paths = paths;
+    }
+
+    public String getScope() {
+      return this.scope;
+    }
+
+    public void setScope(String scope) {
+      this.scope = scope;
+    }
+
+    public List<String> getInvalidatingPaths() {
+      return this.invalidatingPaths;
+    }
+
+    public void setInvalidatingPaths(List<String> invalidatingPaths) {
+      this.invalidatingPaths = invalidatingPaths;
+    }
+
+    public Duration getTimeToLive() {
+      return this.timeToLive;
+    }
+
+    public void setTimeToLive(Duration timeToLive) {
+      this.timeToLive = timeToLive;
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.cache.CachedResponse;
+import com.felipe.trip_planner_gateway.cache.PendingCacheEntry;
+import com.felipe.trip_planner_gateway.cache.ResponseCache;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.function.Function;
+
+// The downstream response is written by NettyWriteResponseFilter, which runs before every route filter and
+// writes to the response it received. So the response is decorated here, ahead of it, and only requests marked
+// by ResponseCacheFilter get their response stored. Responses above max-entry-size, by Content-Length or once that
+// many bytes were buffered, are streamed to the client without being cached
+@Component
+public class ResponseCacheWriteFilter implements GlobalFilter, Ordered {
+
+  private final ResponseCache responseCache;
+  private final long maxEntrySize;
+
+  public ResponseCacheWriteFilter(
+    ResponseCache responseCache,
+    @Value("${gateway.response-cache.max-entry-size}") DataSize maxEntrySize
+  ) {
+    this.responseCache = responseCache;
+    this.maxEntrySize = maxEntrySize.toBytes();
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    return chain.filter(exchange.mutate().response(new CachingResponse(exchange)).build());
+  }
+
+  @Override
+  public int getOrder() {
+    return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+  }
+
+  // Buffers a cacheable response, stores it and then writes it, answering 304 right away when the client
+  // already has the same version
+  private class CachingResponse extends ServerHttpResponseDecorator {
+    private final ServerWebExchange exchange;
+
+    private CachingResponse(ServerWebExchange exchange) {
+      super(exchange.getResponse());
+      this.exchange = exchange;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+      PendingCacheEntry pendingCacheEntry = this.exchange.getAttribute(ResponseCacheFilter.PENDING_CACHE_ENTRY_ATTRIBUTE);
+      if(pendingCacheEntry == null || !this.isCacheable()
+        || this.getHeaders().getContentLength() > ResponseCacheWriteFilter.this.maxEntrySize) {
+        return super.writeWith(body);
+      }
+
+      return this.bufferUpToMaxSize(body)
+        .switchOnFirst((first, chunks) -> {
+          if(!first.hasValue() || readableByteCount(first.get()) > ResponseCacheWriteFilter.this.maxEntrySize) {
+            return super.writeWith(chunks.concatMapIterable(Function.identity()));
+          }
+          return chunks.next().flatMap(buffered -> this.storeAndWrite(pendingCacheEntry, buffered));
+        })
+        .then();
+    }
+
+    private Flux<List<DataBuffer>> bufferUpToMaxSize(Publisher<? extends DataBuffer> body) {
+      return Flux.defer(() -> {
+        long[] bufferedBytes = {0};
+        return Flux.<DataBuffer>from(body).bufferUntil(buffer -> {
+          bufferedBytes[0] += buffer.readableByteCount();
+          return bufferedBytes[0] > ResponseCacheWriteFilter.this.maxEntrySize;
+        });
+      })
+      .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private Mono<Void> storeAndWrite(PendingCacheEntry pendingCacheEntry, List<DataBuffer> chunks) {
+      byte[] bytes = new byte[(int) readableByteCount(chunks)];
+      int offset = 0;
+      for(DataBuffer chunk : chunks) {
+        int length = chunk.readableByteCount();
+        chunk.read(bytes, offset, length);
+        offset += length;
+        DataBufferUtils.release(chunk);
+      }
+
+      HttpHeaders headers = new HttpHeaders();
+      this.getHeaders().forEach((name, values) -> {
+        if(!name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH)
+          && !name.equalsIgnoreCase(HttpHeaders.TRANSFER_ENCODING)
+          && !name.equalsIgnoreCase(ServerTimingFilter.SERVER_TIMING)) {
+          headers.addAll(name, values);
+        }
+      });
+      CachedResponse cachedResponse = CachedResponse.of(headers, bytes, pendingCacheEntry.requestedAt());
+      ResponseCacheWriteFilter.this.responseCache.put(pendingCacheEntry.key(), cachedResponse);
+
+      this.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+      this.getHeaders().setETag(cachedResponse.etag());
+
+      if(cachedResponse.matches(this.exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+        this.setStatusCode(HttpStatus.NOT_MODIFIED);
+        this.getHeaders().remove(HttpHeaders.CONTENT_TYPE);
+        this.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+        return this.getDelegate().setComplete();
+      }
+
+      this.getHeaders().setContentLength(bytes.length);
+      return super.writeWith(Mono.just(this.bufferFactory().wrap(bytes)));
+    }
+
+    private boolean isCacheable() {
+      HttpHeaders headers = this.getHeaders();
+      String cacheControl = headers.getCacheControl();
+      return HttpStatus.OK.equals(this.getStatusCode())
+        && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+        && !headers.containsKey(HttpHeaders.SET_COOKIE)
+        && (cacheControl == null || !(cacheControl.contains("no-store") || cacheControl.contains("private")));
+    }
+  }
+
+  private static long readableByteCount(List<DataBuffer> chunks) {
+    long count = 0;
+    for(DataBuffer chunk : chunks) {
+      count += chunk.readableByteCount();
+    }
+    return count;
+  }
+}
@@ -0,0 +1,262 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.compression.ContentEncoding;
+import com.felipe.trip_planner_gateway.metrics.GatewayMetrics;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Compresses responses with the best encoding accepted by the client. The response is decorated ahead of every
+// other filter, so downstream responses, cache hits and hedged responses are all covered, while the response cache
+// still stores the uncompressed body. Small bodies are not worth the CPU.
+// The body is buffered to be compressed, so a body larger than max-response-size (by its Content-Length, or once the
+// chunks received so far go over it) is streamed uncompressed. Compression runs on a small dedicated pool, which caps
+// the CPU it can take: when max-pending-tasks compressions are already waiting for it, the response is sent as it is
+@Component
+public class ResponseCompressionFilter implements GlobalFilter, Ordered, DisposableBean {
+
+  private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+
+  private final boolean enabled;
+  private final long minResponseSize;
+  private final long maxResponseSize;
+  private final int level;
+  private final List<MediaType> mimeTypes;
+  private final GatewayMetrics gatewayMetrics;
+  private final ThreadPoolExecutor compressionExecutor;
+  private final Scheduler compressionScheduler;
+
+  public ResponseCompressionFilter(
+    @Value("${gateway.compression.enabled}") boolean enabled,
+    @Value("${gateway.compression.min-response-size}") DataSize minResponseSize,
+    @Value("${gateway.compression.max-response-size}") DataSize maxResponseSize,
+    @Value("${gateway.compression.level}") int level,
+    @Value("${gateway.compression.threads}") int threads,
+    @Value("${gateway.compression.max-pending-tasks}") int maxPendingTasks,
+    @Value("${gateway.compression.mime-types}") List<MediaType> mimeTypes,
+    GatewayMetrics gatewayMetrics
+  ) {
+    this.enabled = enabled;
+    this.minResponseSize = minResponseSize.toBytes();
+    this.maxResponseSize = maxResponseSize.toBytes();
+    this.level = level;
+    this.mimeTypes = mimeTypes;
+    this.gatewayMetrics = gatewayMetrics;
+    AtomicInteger threadCount = new AtomicInteger();
+    this.compressionExecutor = new ThreadPoolExecutor(
+      threads, threads, 0, TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(maxPendingTasks),
+      runnable -> {
+        Thread thread = new Thread(runnable, "response-compression-" + threadCount.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }
+    );
+    this.compressionScheduler = Schedulers.fromExecutorService(this.compressionExecutor, "response-compression");
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    if(!this.enabled || HttpMethod.HEAD.equals(exchange.getRequest().getMethod())) {
+      return chain.filter(exchange);
+    }
+    ContentEncoding encoding = ContentEncoding.negotiate(
+      exchange.getRequest().getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING)
+    );
+    return chain.filter(exchange.mutate().response(new CompressingResponse(exchange, encoding)).build());
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE + 2;
+  }
+
+  @Override
+  public void destroy() {
+    this.compressionScheduler.dispose();
+  }
+
+  private class CompressingResponse extends ServerHttpResponseDecorator {
+    private final ServerWebExchange exchange;
+    private final ContentEncoding encoding;
+
+    private CompressingResponse(ServerWebExchange exchange, ContentEncoding encoding) {
+      super(exchange.getResponse());
+      this.exchange = exchange;
+      this.encoding = encoding;
+    }
+
+    @Override
+    public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+      if(!this.isCompressible()) {
+        return super.writeWith(body);
+      }
+      this.addVaryHeader();
+      if(this.encoding == null) {
+        return super.writeWith(body);
+      }
+
+      long contentLength = this.getHeaders().getContentLength();
+      if(contentLength >= 0 && contentLength < ResponseCompressionFilter.this.minResponseSize) {
+        this.recordSkipped("below-threshold");
+        return super.writeWith(body);
+      }
+      if(contentLength > ResponseCompressionFilter.this.maxResponseSize) {
+        this.recordSkipped("above-threshold");
+        return super.writeWith(body);
+      }
+      if(this.isCompressionSaturated()) {
+        this.recordSkipped("saturated");
+        return super.writeWith(body);
+      }
+
+      // The first list holds the whole body, unless it went over max-response-size: then it holds the chunks
+      // received until then, and every later chunk comes in a list of its own
+      return this.bufferUpToMaxSize(body)
+        .switchOnFirst((first, chunks) -> {
+          if(!first.hasValue() || readableByteCount(first.get()) > ResponseCompressionFilter.this.maxResponseSize) {
+            if(first.hasValue()) {
+              this.recordSkipped("above-threshold");
+            }
+            return super.writeWith(chunks.concatMapIterable(Function.identity()));
+          }
+          return chunks.next().flatMap(this::writeCompressed);
+        })
+        .then();
+    }
+
+    private Flux<List<DataBuffer>> bufferUpToMaxSize(Publisher<? extends DataBuffer> body) {
+      return Flux.defer(() -> {
+        long[] bufferedBytes = {0};
+        return Flux.<DataBuffer>from(body).bufferUntil(buffer -> {
+          bufferedBytes[0] += buffer.readableByteCount();
+          return bufferedBytes[0] > ResponseCompressionFilter.this.maxResponseSize;
+        });
+      })
+      .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    private Mono<Void> writeCompressed(List<DataBuffer> chunks) {
+      byte[] bytes = new byte[(int) readableByteCount(chunks)];
+      int offset = 0;
+      for(DataBuffer chunk : chunks) {
+        int length = chunk.readableByteCount();
+        chunk.read(bytes, offset, length);
+        offset += length;
+        DataBufferUtils.release(chunk);
+      }
+
+      if(bytes.length < ResponseCompressionFilter.this.minResponseSize) {
+        this.recordSkipped("below-threshold");
+        return super.writeWith(Mono.just(this.bufferFactory().wrap(bytes)));
+      }
+
+      return Mono.fromCallable(() -> {
+          long start = System.nanoTime();
+          long cpuStart = cpuTime();
+          byte[] compressed = this.encoding.compress(bytes, ResponseCompressionFilter.this.level);
+          long cpuNanos = cpuTime() - cpuStart;
+          this.exchange.getAttributes().put(ServerTimingFilter.COMPRESSION_TIME_ATTRIBUTE, System.nanoTime() - start);
+          ResponseCompressionFilter.this.gatewayMetrics.recordCompression(
+            this.routeId(), this.encoding.token(), bytes.length, compressed.length, cpuNanos
+          );
+          return compressed;
+        })
+        .subscribeOn(ResponseCompressionFilter.this.compressionScheduler)
+        .flatMap(compressed -> {
+          HttpHeaders headers = this.getHeaders();
+          headers.remove(HttpHeaders.TRANSFER_ENCODING);
+          headers.set(HttpHeaders.CONTENT_ENCODING, this.encoding.token());
+          headers.setContentLength(compressed.length);
+          String etag = headers.getETag();
+          if(etag != null && !etag.startsWith("W/")) {
+            headers.setETag("W/" + etag);
+          }
+          return super.writeWith(Mono.just(this.bufferFactory().wrap(compressed)));
+        })
+        // Another response filled the queue between the check and the submit
+        .onErrorResume(RejectedExecutionException.class, e -> {
+          this.recordSkipped("saturated");
+          return super.writeWith(Mono.just(this.bufferFactory().wrap(bytes)));
+        });
+    }
+
+    // Streaming responses (e.g. text/event-stream) are written with writeAndFlushWith and are left untouched
+    private boolean isCompressible() {
+      HttpStatusCode status = this.getStatusCode();
+      if(HttpStatus.NO_CONTENT.equals(status) || HttpStatus.NOT_MODIFIED.equals(status)) {
+        return false;
+      }
+      HttpHeaders headers = this.getHeaders();
+      MediaType contentType = headers.getContentType();
+      return !headers.containsKey(HttpHeaders.CONTENT_ENCODING)
+        && contentType != null
+        && ResponseCompressionFilter.this.mimeTypes.stream().anyMatch(mimeType -> mimeType.isCompatibleWith(contentType));
+    }
+
+    private void addVaryHeader() {
+      List<String> vary = this.getHeaders().getVary();
+      if(vary.stream().noneMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase)) {
+        this.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+      }
+    }
+
+    // The queue of the compression pool tells how far behind it already is; a response that would wait there is
+    // cheaper to send uncompressed than to hold
+    private boolean isCompressionSaturated() {
+      return ResponseCompressionFilter.this.compressionExecutor.getQueue().remainingCapacity() == 0;
+    }
+
+    private void recordSkipped(String reason) {
+      ResponseCompressionFilter.this.gatewayMetrics.recordCompressionSkipped(this.routeId(), reason);
+    }
+
+    private String routeId() {
+      Route route = this.exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+      return route != null ? route.getId() : "none";
+    }
+  }
+
+  private static long readableByteCount(List<DataBuffer> chunks) {
+    long count = 0;
+    for(DataBuffer chunk : chunks) {
+      count += chunk.readableByteCount();
+    }
+    return count;
+  }
+
+  private static long cpuTime() {
+    return THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_MX_BEAN.getCurrentThreadCpuTime() : System.nanoTime();
+  }
+}
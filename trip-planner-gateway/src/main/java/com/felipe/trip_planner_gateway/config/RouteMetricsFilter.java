@@ -0,0 +1,58 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.metrics.GatewayMetrics;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// A web filter instead of a global filter, so the time spent writing the response and the status set by the
+// exception handlers are part of the measurement
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RouteMetricsFilter implements WebFilter {
+
+  private final GatewayMetrics gatewayMetrics;
+
+  public RouteMetricsFilter(GatewayMetrics gatewayMetrics) {
+    this.gatewayMetrics = gatewayMetrics;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    long start = System.nanoTime();
+    return chain.filter(exchange).doFinally(signalType -> {
+      Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+      if(route == null) {
+        return;
+      }
+      Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+      this.gatewayMetrics.recordRoute(
+        route.getId(),
+        this.resolveStatus(exchange, signalType),
+        lbResponse != null && lbResponse.hasServer() ? lbResponse.getServer() : null,
+        System.nanoTime() - start
+      );
+    });
+  }
+
+  private HttpStatusCode resolveStatus(ServerWebExchange exchange, SignalType signalType) {
+    HttpStatusCode status = exchange.getResponse().getStatusCode();
+    if(status == null && signalType == SignalType.ON_ERROR) {
+      return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+    return status;
+  }
+}
@@ -0,0 +1,13 @@
+package com.felipe.trip_planner_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.List;
+
+// Each open endpoint is written as "<METHOD> <path pattern>", or only "<path pattern>" to open it for every method
+@ConfigurationProperties("gateway.security")
+public record RouteSecurityProperties(List<String> openEndpoints) {
+  public RouteSecurityProperties {
+    openEndpoints = openEndpoints == null ? List.of() : List.copyOf(openEndpoints);
+  }
+}
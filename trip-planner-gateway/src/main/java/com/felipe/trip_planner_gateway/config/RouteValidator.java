@@ -1,20 +1,65 @@
 package com.felipe.trip_planner_gateway.config;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Map;
 
+// The open endpoints are parsed once at startup and grouped by HTTP method, so classifying a request
+// only matches its already parsed path against the few patterns registered for its method
 @Component
+@EnableConfigurationProperties(RouteSecurityProperties.class)
 public class RouteValidator {
 
-  public static final List<String> openApiEndpoints = List.of(
-    "/auth/register",
-    "/auth/login"
-  );
+  private static final PathPattern[] NO_PATTERNS = new PathPattern[0];
 
-  public Predicate<ServerHttpRequest> isSecured = request -> openApiEndpoints
-    .stream()
-    .noneMatch(uri -> request.getURI().getPath().contains(uri));
+  private final Map<HttpMethod, PathPattern[]> openEndpointsByMethod;
+  private final PathPattern[] openEndpointsForAnyMethod;
+
+  public RouteValidator(RouteSecurityProperties routeSecurityProperties) {
+    PathPatternParser parser = new PathPatternParser();
+    Map<HttpMethod, List<PathPattern>> patternsByMethod = new HashMap<>();
+    List<PathPattern> patternsForAnyMethod = new ArrayList<>();
+
+    for(String openEndpoint : routeSecurityProperties.openEndpoints()) {
+      String[] parts = openEndpoint.trim().split("\\s+", 2);
+      if(parts.length == 1) {
+        patternsForAnyMethod.add(parser.parse(parts[0]));
+      } else {
+        patternsByMethod.computeIfAbsent(HttpMethod.valueOf(parts[0].toUpperCase()), method -> new ArrayList<>())
+          .add(parser.parse(parts[1]));
+      }
+    }
+
+    Map<HttpMethod, PathPattern[]> openEndpointsByMethod = new HashMap<>();
+    for(HttpMethod method : HttpMethod.values()) {
+      List<PathPattern> patterns = new ArrayList<>(patternsForAnyMethod);
+      patterns.addAll(patternsByMethod.getOrDefault(method, List.of()));
+      openEndpointsByMethod.put(method, patterns.toArray(NO_PATTERNS));
+    }
+
+    this.openEndpointsByMethod = Map.copyOf(openEndpointsByMethod);
+    this.openEndpointsForAnyMethod = patternsForAnyMethod.toArray(NO_PATTERNS);
+  }
+
+  public boolean isSecured(ServerHttpRequest request) {
+    PathPattern[] openEndpoints = this.openEndpointsByMethod
+      .getOrDefault(request.getMethod(), this.openEndpointsForAnyMethod);
+    PathContainer path = request.getPath().pathWithinApplication();
+
+    for(PathPattern openEndpoint : openEndpoints) {
+      if(openEndpoint.matches(path)) {
+        return false;
+      }
+    }
+    return true;
+  }
 }
@@ -0,0 +1,75 @@
+package com.felipe.trip_planner_gateway.config;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+// Puts the gateway's own entries in front of the Server-Timing entries sent by the downstream service, so the
+// whole breakdown of a request arrives in a single header. Registered first, so responses that never reach
+// the downstream service (cache hits, authentication errors) also get the header
+@Component
+public class ServerTimingFilter implements GlobalFilter, Ordered {
+
+  public static final String SERVER_TIMING = "Server-Timing";
+  public static final String AUTH_TIME_ATTRIBUTE = "serverTimingAuth";
+  public static final String UPSTREAM_TIME_ATTRIBUTE = "serverTimingUpstream";
+  public static final String COMPRESSION_TIME_ATTRIBUTE = "serverTimingCompression";
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    exchange.getResponse().beforeCommit(() -> {
+      this.mergeServerTiming(exchange);
+      return Mono.empty();
+    });
+    return chain.filter(exchange);
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+
+  private void mergeServerTiming(ServerWebExchange exchange) {
+    Long authTime = exchange.getAttribute(AUTH_TIME_ATTRIBUTE);
+    Long upstreamTime = exchange.getAttribute(UPSTREAM_TIME_ATTRIBUTE);
+    Long compressionTime = exchange.getAttribute(COMPRESSION_TIME_ATTRIBUTE);
+    if(authTime == null && upstreamTime == null && compressionTime == null) {
+      return;
+    }
+
+    StringBuilder serverTiming = new StringBuilder(128);
+    if(authTime != null) {
+      this.appendEntry(serverTiming, "gateway-auth", authTime);
+    }
+    if(upstreamTime != null) {
+      this.appendEntry(serverTiming, "gateway-upstream", upstreamTime);
+    }
+    if(compressionTime != null) {
+      this.appendEntry(serverTiming, "gateway-compress", compressionTime);
+    }
+
+    HttpHeaders headers = exchange.getResponse().getHeaders();
+    List<String> downstreamEntries = headers.get(SERVER_TIMING);
+    if(downstreamEntries != null) {
+      for(String entry : downstreamEntries) {
+        serverTiming.append(", ").append(entry);
+      }
+    }
+    headers.set(SERVER_TIMING, serverTiming.toString());
+  }
+
+  // Durations are written in milliseconds with one decimal place
+  private void appendEntry(StringBuilder serverTiming, String name, long durationNanos) {
+    if(!serverTiming.isEmpty()) {
+      serverTiming.append(", ");
+    }
+    long tenthsOfMillis = durationNanos / 100_000;
+    serverTiming.append(name).append(";dur=").append(tenthsOfMillis / 10).append('.').append(tenthsOfMillis % 10);
+  }
+}
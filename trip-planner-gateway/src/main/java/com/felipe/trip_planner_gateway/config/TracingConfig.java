@@ -0,0 +1,19 @@
+package com.felipe.trip_planner_gateway.config;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Spans are exported over OTLP when management.otlp.tracing.endpoint is set, and/or written to the application
+// log when tracing.logging-exporter.enabled is true, so traces can be inspected without a tracing backend
+@Configuration
+public class TracingConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "tracing.logging-exporter.enabled", havingValue = "true")
+  public SpanExporter loggingSpanExporter() {
+    return LoggingSpanExporter.create();
+  }
+}
@@ -0,0 +1,206 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.capture.CapturedRequest;
+import com.felipe.trip_planner_gateway.capture.TrafficCaptureLog;
+import com.felipe.trip_planner_gateway.capture.TrafficCaptureProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Records a sample of the requests as they were sent by the client, so they can be replayed later by the
+// trip-planner-traffic-replay module. Secret headers are never written, and the excluded paths (login, register and
+// password updates by default) are not captured at all, since their bodies carry passwords.
+// The body is copied while it streams to the upstream service, so it is never buffered by this filter: a request
+// whose body exceeds the maximum size, or is not read through, is not captured
+@Component
+@ConditionalOnProperty(name = "gateway.traffic-capture.enabled", havingValue = "true")
+public class TrafficCaptureFilter implements GlobalFilter, Ordered {
+
+  private static final byte[] EMPTY_BODY = new byte[0];
+
+  private final TrafficCaptureLog trafficCaptureLog;
+  private final double sampleRate;
+  private final long maxBodySize;
+  private final Set<String> excludedHeaders;
+  private final List<ExcludedPath> excludedPaths;
+
+  public TrafficCaptureFilter(TrafficCaptureLog trafficCaptureLog, TrafficCaptureProperties properties) {
+    this.trafficCaptureLog = trafficCaptureLog;
+    this.sampleRate = properties.sampleRate();
+    this.maxBodySize = properties.maxBodySize().toBytes();
+    this.excludedHeaders = properties.excludedHeaders()
+      .stream()
+      .map(header -> header.toLowerCase(Locale.ROOT))
+      .collect(Collectors.toUnmodifiableSet());
+
+    PathPatternParser parser = new PathPatternParser();
+    this.excludedPaths = properties.excludedPaths()
+      .stream()
+      .map(excludedPath -> {
+        String[] parts = excludedPath.trim().split("\\s+", 2);
+        return parts.length == 1
+          ? new ExcludedPath(null, parser.parse(parts[0]))
+          : new ExcludedPath(HttpMethod.valueOf(parts[0].toUpperCase(Locale.ROOT)), parser.parse(parts[1]));
+      })
+      .toList();
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    if(ThreadLocalRandom.current().nextDouble() >= this.sampleRate || this.isExcluded(exchange.getRequest())) {
+      return chain.filter(exchange);
+    }
+
+    HttpHeaders headers = exchange.getRequest().getHeaders();
+    long contentLength = headers.getContentLength();
+    if(contentLength > this.maxBodySize) {
+      return chain.filter(exchange);
+    }
+
+    long arrivalEpochNanos = this.trafficCaptureLog.currentEpochNanos();
+    long start = System.nanoTime();
+    if(contentLength == 0 || (contentLength < 0 && !headers.containsKey(HttpHeaders.TRANSFER_ENCODING))) {
+      return this.captureAfterResponse(exchange, chain, () -> EMPTY_BODY, arrivalEpochNanos, start);
+    }
+
+    BodyRecorder bodyRecorder = new BodyRecorder(this.maxBodySize);
+    ServerHttpRequest recordedRequest = new ServerHttpRequestDecorator(exchange.getRequest()) {
+      @Override
+      public Flux<DataBuffer> getBody() {
+        return super.getBody()
+          .doOnNext(bodyRecorder::record)
+          .doOnComplete(bodyRecorder::complete);
+      }
+    };
+    ServerWebExchange recordedExchange = exchange.mutate().request(recordedRequest).build();
+    return this.captureAfterResponse(recordedExchange, chain, bodyRecorder::body, arrivalEpochNanos, start);
+  }
+
+  @Override
+  public int getOrder() {
+    return Ordered.HIGHEST_PRECEDENCE + 1;
+  }
+
+  private boolean isExcluded(ServerHttpRequest request) {
+    PathContainer path = request.getPath().pathWithinApplication();
+    for(ExcludedPath excludedPath : this.excludedPaths) {
+      if((excludedPath.method() == null || excludedPath.method().equals(request.getMethod()))
+        && excludedPath.pattern().matches(path)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private Mono<Void> captureAfterResponse(
+    ServerWebExchange exchange,
+    GatewayFilterChain chain,
+    BodySource bodySource,
+    long arrivalEpochNanos,
+    long start
+  ) {
+    ServerHttpRequest request = exchange.getRequest();
+    String method = request.getMethod().name();
+    String rawQuery = request.getURI().getRawQuery();
+    String uri = request.getURI().getRawPath() + (rawQuery != null ? "?" + rawQuery : "");
+    List<Map.Entry<String, String>> headers = this.captureHeaders(request.getHeaders());
+
+    return chain.filter(exchange).doFinally(signal -> {
+      byte[] body = bodySource.body();
+      if(body == null) {
+        return;
+      }
+      HttpStatusCode status = exchange.getResponse().getStatusCode();
+      this.trafficCaptureLog.append(new CapturedRequest(
+        arrivalEpochNanos,
+        System.nanoTime() - start,
+        status != null ? status.value() : 0,
+        method,
+        uri,
+        headers,
+        body
+      ));
+    });
+  }
+
+  private List<Map.Entry<String, String>> captureHeaders(HttpHeaders requestHeaders) {
+    List<Map.Entry<String, String>> headers = new ArrayList<>(requestHeaders.size());
+    requestHeaders.forEach((name, values) -> {
+      if(this.excludedHeaders.contains(name.toLowerCase(Locale.ROOT))) {
+        return;
+      }
+      for(String value : values) {
+        headers.add(Map.entry(name, value));
+      }
+    });
+    return headers;
+  }
+
+  private record ExcludedPath(HttpMethod method, PathPattern pattern) {}
+
+  // Null when the body must not be captured
+  @FunctionalInterface
+  private interface BodySource {
+    byte[] body();
+  }
+
+  // Copies the body chunks as they are forwarded, giving up as soon as the maximum size is exceeded
+  private static final class BodyRecorder {
+
+    private final long maxBodySize;
+    private volatile ByteArrayOutputStream recorded = new ByteArrayOutputStream();
+    private volatile boolean completed;
+
+    private BodyRecorder(long maxBodySize) {
+      this.maxBodySize = maxBodySize;
+    }
+
+    private void record(DataBuffer buffer) {
+      ByteArrayOutputStream recorded = this.recorded;
+      if(recorded == null) {
+        return;
+      }
+      int length = buffer.readableByteCount();
+      if(recorded.size() + length > this.maxBodySize) {
+        this.recorded = null;
+        return;
+      }
+      byte[] chunk = new byte[length];
+      buffer.toByteBuffer(buffer.readPosition(), ByteBuffer.wrap(chunk), 0, length);
+      recorded.writeBytes(chunk);
+    }
+
+    private void complete() {
+      this.completed = true;
+    }
+
+    private byte[] body() {
+      ByteArrayOutputStream recorded = this.recorded;
+      return this.completed && recorded != null ? recorded.toByteArray() : null;
+    }
+  }
+}
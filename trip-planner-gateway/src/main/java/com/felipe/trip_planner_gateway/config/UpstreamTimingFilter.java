@@ -0,0 +1,28 @@
+package com.felipe.trip_planner_gateway.config;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Runs right before the routing filter, which completes as soon as the downstream response headers arrive.
+// Routes using the HedgeFilter never get here, so that filter records the upstream time itself
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    long start = System.nanoTime();
+    return chain.filter(exchange)
+      .doOnSuccess(result -> exchange.getAttributes()
+        .put(ServerTimingFilter.UPSTREAM_TIME_ATTRIBUTE, System.nanoTime() - start));
+  }
+
+  @Override
+  public int getOrder() {
+    return NettyRoutingFilter.ORDER - 1;
+  }
+}
@@ -0,0 +1,36 @@
+package com.felipe.trip_planner_gateway.controllers;
+
+import com.felipe.trip_planner_gateway.utils.CustomResponseBody;
+import com.felipe.trip_planner_gateway.utils.ResponseConditionStatus;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+// Target of the circuit breakers' fallbackUri. Requests are forwarded here when the backend fails,
+// times out or has its circuit open
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+  @RequestMapping("/user-service")
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public CustomResponseBody<Void> userServiceFallback() {
+    return this.unavailable("O serviço de usuários está indisponível no momento. Tente novamente mais tarde");
+  }
+
+  @RequestMapping("/trip-service")
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public CustomResponseBody<Void> tripServiceFallback() {
+    return this.unavailable("O serviço de viagens está indisponível no momento. Tente novamente mais tarde");
+  }
+
+  private CustomResponseBody<Void> unavailable(String message) {
+    CustomResponseBody<Void> response = new CustomResponseBody<>();
+    response.setStatus(ResponseConditionStatus.ERROR);
+    response.setCode(HttpStatus.SERVICE_UNAVAILABLE);
+    response.setMessage(message);
+    response.setData(null);
+    return response;
+  }
+}
@@ -0,0 +1,4 @@
+package com.felipe.trip_planner_gateway.dtos;
+
+public record TokenValidationResultDTO(boolean valid, ValidatedUserDTO user, String message) {
+}
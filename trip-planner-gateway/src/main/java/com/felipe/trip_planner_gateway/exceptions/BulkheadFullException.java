@@ -0,0 +1,13 @@
+package com.felipe.trip_planner_gateway.exceptions;
+
+public class BulkheadFullException extends RuntimeException {
+  private static final long RETRY_AFTER_SECONDS = 1;
+
+  public BulkheadFullException() {
+    super("O serviço está recebendo muitas requisições simultâneas. Tente novamente em instantes");
+  }
+
+  public long getRetryAfterSeconds() {
+    return RETRY_AFTER_SECONDS;
+  }
+}
@@ -0,0 +1,15 @@
+package com.felipe.trip_planner_gateway.exceptions;
+
+// Raised for every rejected request, so it carries no stack trace: the filter that raised it is always the same
+public class RateLimitExceededException extends RuntimeException {
+  private final long retryAfterSeconds;
+
+  public RateLimitExceededException(long retryAfterSeconds) {
+    super("Limite de requisições excedido. Tente novamente em " + retryAfterSeconds + " segundo(s)", null, false, false);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return this.retryAfterSeconds;
+  }
+}
@@ -0,0 +1,42 @@
+package com.felipe.trip_planner_gateway.hedging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Shared by every hedged route: each request deposits a fraction of a token and each hedge withdraws a whole one,
+// so the extra requests never exceed the configured percentage of the traffic
+@Component
+public class HedgeBudget {
+
+  private static final long TOKEN = 1000;
+
+  private final long depositPerRequest;
+  private final long maxBalance;
+  private final AtomicLong balance = new AtomicLong();
+
+  public HedgeBudget(
+    @Value("${gateway.hedging.budget-percent}") int budgetPercent,
+    @Value("${gateway.hedging.max-balance}") int maxBalance
+  ) {
+    this.depositPerRequest = TOKEN * budgetPercent / 100;
+    this.maxBalance = TOKEN * maxBalance;
+  }
+
+  public void deposit() {
+    this.balance.getAndUpdate(current -> Math.min(current + this.depositPerRequest, this.maxBalance));
+  }
+
+  public boolean tryWithdraw() {
+    while(true) {
+      long current = this.balance.get();
+      if(current < TOKEN) {
+        return false;
+      }
+      if(this.balance.compareAndSet(current, current - TOKEN)) {
+        return true;
+      }
+    }
+  }
+}
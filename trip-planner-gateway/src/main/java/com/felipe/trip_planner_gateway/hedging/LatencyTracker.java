@@ -0,0 +1,37 @@
+package com.felipe.trip_planner_gateway.hedging;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Keeps the latest latencies of a route in a ring and recalculates the 95th percentile every
+// RECALCULATE_EVERY samples, so reading it on the request path is a single volatile read
+public class LatencyTracker {
+
+  private static final int SAMPLES = 1024;
+  private static final int RECALCULATE_EVERY = 128;
+
+  private final AtomicLongArray samples = new AtomicLongArray(SAMPLES);
+  private final AtomicLong recorded = new AtomicLong();
+  private volatile long p95Nanos = -1;
+
+  public void record(long latencyNanos) {
+    long count = this.recorded.getAndIncrement();
+    this.samples.set((int) (count % SAMPLES), latencyNanos);
+
+    if((count + 1) % RECALCULATE_EVERY == 0) {
+      int size = (int) Math.min(count + 1, SAMPLES);
+      long[] snapshot = new long[size];
+      for(int i = 0; i < size; i++) {
+        snapshot[i] = this.samples.get(i);
+      }
+      Arrays.sort(snapshot);
+      this.p95Nanos = snapshot[(int) Math.ceil(size * 0.95) - 1];
+    }
+  }
+
+  // Negative until enough samples have been recorded
+  public long getP95Nanos() {
+    return this.p95Nanos;
+  }
+}
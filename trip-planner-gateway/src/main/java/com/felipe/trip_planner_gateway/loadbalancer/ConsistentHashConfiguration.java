@@ -0,0 +1,26 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Not annotated with @Configuration on purpose: it is only loaded into the child context of the
+// load balancer clients that reference it in LoadBalancerConfiguration
+public class ConsistentHashConfiguration {
+
+  @Bean
+  public ConsistentHashLoadBalancer consistentHashLoadBalancer(
+    Environment environment,
+    LoadBalancerClientFactory loadBalancerClientFactory,
+    @Value("${load-balancer.consistent-hash.virtual-nodes}") int virtualNodes
+  ) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new ConsistentHashLoadBalancer(
+      loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+      serviceId,
+      virtualNodes
+    );
+  }
+}
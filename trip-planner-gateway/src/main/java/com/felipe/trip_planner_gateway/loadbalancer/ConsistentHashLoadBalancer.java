@@ -0,0 +1,183 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Requests for the same trip always go to the same instance, so the trip's data stays hot in that instance's
+// caches. Each instance owns several virtual nodes on a hash ring, so adding or removing an instance only moves
+// the trips of its neighbours. Requests without a trip id in the path are spread with round-robin
+public class ConsistentHashLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+
+  // Set by HedgeFilter on the duplicate request, which is sent to the next instance on the ring
+  public static final String HEDGED_REQUEST_HEADER = "X-Hedged-Request";
+
+  private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+  private final String serviceId;
+  private final int virtualNodes;
+  private final AtomicInteger position = new AtomicInteger();
+  private volatile HashRing ring;
+  private final Logger logger = LoggerFactory.getLogger(ConsistentHashLoadBalancer.class);
+
+  public ConsistentHashLoadBalancer(
+    ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+    String serviceId,
+    int virtualNodes
+  ) {
+    this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+    this.serviceId = serviceId;
+    this.virtualNodes = virtualNodes;
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier = this.serviceInstanceListSupplierProvider
+      .getIfAvailable(NoopServiceInstanceListSupplier::new);
+    return supplier.get(request).next().map(instances -> this.chooseInstance(instances, request));
+  }
+
+  private Response<ServiceInstance> chooseInstance(List<ServiceInstance> instances, Request<?> request) {
+    if(instances.isEmpty()) {
+      logger.warn("Nenhuma instância disponível para o serviço: {}", this.serviceId);
+      return new EmptyResponse();
+    }
+
+    RequestData requestData = request.getContext() instanceof RequestDataContext context
+      ? context.getClientRequest()
+      : null;
+    String tripId = requestData != null ? extractTripId(requestData.getUrl().getRawPath()) : null;
+
+    if(tripId == null) {
+      int index = (this.position.getAndIncrement() & Integer.MAX_VALUE) % instances.size();
+      return new DefaultResponse(instances.get(index));
+    }
+
+    boolean hedged = requestData.getHeaders() != null && requestData.getHeaders().containsKey(HEDGED_REQUEST_HEADER);
+    return new DefaultResponse(this.getRing(instances).locate(hash(tripId), hedged));
+  }
+
+  // The instance list only changes when the cached list from Eureka is refreshed, so the ring is rebuilt
+  // only when a different list is received and its instances really changed
+  private HashRing getRing(List<ServiceInstance> instances) {
+    HashRing current = this.ring;
+    if(current != null && current.source == instances) {
+      return current;
+    }
+
+    String[] instanceKeys = instances.stream().map(ConsistentHashLoadBalancer::instanceKey).sorted().toArray(String[]::new);
+    if(current != null && Arrays.equals(current.instanceKeys, instanceKeys)) {
+      current = new HashRing(instances, instanceKeys, current.hashes, current.owners);
+    } else {
+      current = HashRing.build(instances, instanceKeys, this.virtualNodes);
+    }
+    this.ring = current;
+    return current;
+  }
+
+  // Trip ids are UUIDs right after the "trips" segment, e.g. /api/trips/{tripId}/activities
+  static String extractTripId(String path) {
+    int index = path.indexOf("/trips/");
+    if(index < 0) {
+      return null;
+    }
+    int start = index + "/trips/".length();
+    int end = path.indexOf('/', start);
+    if(end < 0) {
+      end = path.length();
+    }
+    if(end - start != 36) {
+      return null;
+    }
+    for(int i = start; i < end; i++) {
+      char c = path.charAt(i);
+      boolean isDash = i - start == 8 || i - start == 13 || i - start == 18 || i - start == 23;
+      if(isDash ? c != '-' : Character.digit(c, 16) < 0) {
+        return null;
+      }
+    }
+    return path.substring(start, end);
+  }
+
+  // FNV-1a followed by the MurmurHash3 finalizer, which spreads close inputs across the whole ring
+  static long hash(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for(int i = 0; i < value.length(); i++) {
+      hash ^= value.charAt(i);
+      hash *= 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+
+  private static String instanceKey(ServiceInstance instance) {
+    return instance.getHost() + ":" + instance.getPort();
+  }
+
+  private record HashRing(List<ServiceInstance> source, String[] instanceKeys, long[] hashes, ServiceInstance[] owners) {
+
+    static HashRing build(List<ServiceInstance> instances, String[] instanceKeys, int virtualNodes) {
+      ServiceInstance[] sortedInstances = instances.stream()
+        .sorted(Comparator.comparing(ConsistentHashLoadBalancer::instanceKey))
+        .toArray(ServiceInstance[]::new);
+
+      int size = sortedInstances.length * virtualNodes;
+      long[][] nodes = new long[size][];
+      for(int i = 0; i < sortedInstances.length; i++) {
+        for(int node = 0; node < virtualNodes; node++) {
+          nodes[i * virtualNodes + node] = new long[]{hash(instanceKeys[i] + "#" + node), i};
+        }
+      }
+      Arrays.sort(nodes, Comparator.comparingLong(node -> node[0]));
+
+      long[] hashes = new long[size];
+      ServiceInstance[] owners = new ServiceInstance[size];
+      for(int i = 0; i < size; i++) {
+        hashes[i] = nodes[i][0];
+        owners[i] = sortedInstances[(int) nodes[i][1]];
+      }
+      return new HashRing(instances, instanceKeys, hashes, owners);
+    }
+
+    // The owner is the first node clockwise from the hash. A hedged request skips to the next node owned by a
+    // different instance, so the duplicate never lands on the instance that is already slow
+    ServiceInstance locate(long hash, boolean nextInstance) {
+      int index = Arrays.binarySearch(this.hashes, hash);
+      if(index < 0) {
+        index = -index - 1;
+      }
+      index = index % this.hashes.length;
+      ServiceInstance owner = this.owners[index];
+      if(!nextInstance) {
+        return owner;
+      }
+
+      for(int step = 1; step < this.owners.length; step++) {
+        ServiceInstance candidate = this.owners[(index + step) % this.owners.length];
+        if(candidate != owner) {
+          return candidate;
+        }
+      }
+      return owner;
+    }
+  }
+}
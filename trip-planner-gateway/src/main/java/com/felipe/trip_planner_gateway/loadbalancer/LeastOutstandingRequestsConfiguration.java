@@ -0,0 +1,26 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Not annotated with @Configuration on purpose: it is only loaded into the child context of the
+// load balancer clients that reference it in LoadBalancerConfiguration
+public class LeastOutstandingRequestsConfiguration {
+
+  @Bean
+  public LeastOutstandingRequestsLoadBalancer leastOutstandingRequestsLoadBalancer(
+    Environment environment,
+    LoadBalancerClientFactory loadBalancerClientFactory,
+    OutlierEjectionProperties outlierEjectionProperties
+  ) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new LeastOutstandingRequestsLoadBalancer(
+      loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+      serviceId,
+      outlierEjectionProperties.consecutiveFailures(),
+      outlierEjectionProperties.ejectionTime()
+    );
+  }
+}
@@ -0,0 +1,159 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Picks two random instances and sends the request to the one with fewer outstanding requests
+// (power of two choices). Instances that fail several times in a row are ejected for a while.
+public class LeastOutstandingRequestsLoadBalancer
+  implements ReactorServiceInstanceLoadBalancer, LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+  private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+  private final String serviceId;
+  private final int consecutiveFailuresToEject;
+  private final long ejectionTimeNanos;
+  private final Map<String, InstanceStats> instanceStats = new ConcurrentHashMap<>();
+  private final Logger logger = LoggerFactory.getLogger(LeastOutstandingRequestsLoadBalancer.class);
+
+  public LeastOutstandingRequestsLoadBalancer(
+    ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+    String serviceId,
+    int consecutiveFailuresToEject,
+    Duration ejectionTime
+  ) {
+    this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+    this.serviceId = serviceId;
+    this.consecutiveFailuresToEject = consecutiveFailuresToEject;
+    this.ejectionTimeNanos = ejectionTime.toNanos();
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier = this.serviceInstanceListSupplierProvider
+      .getIfAvailable(NoopServiceInstanceListSupplier::new);
+    return supplier.get(request).next().map(this::chooseInstance);
+  }
+
+  private Response<ServiceInstance> chooseInstance(List<ServiceInstance> instances) {
+    if(instances.isEmpty()) {
+      logger.warn("Nenhuma instância disponível para o serviço: {}", this.serviceId);
+      return new EmptyResponse();
+    }
+
+    List<ServiceInstance> candidates = this.removeEjectedInstances(instances);
+    if(candidates.size() == 1) {
+      return new DefaultResponse(candidates.get(0));
+    }
+
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int firstIndex = random.nextInt(candidates.size());
+    int secondIndex = random.nextInt(candidates.size() - 1);
+    if(secondIndex >= firstIndex) {
+      secondIndex++;
+    }
+
+    ServiceInstance first = candidates.get(firstIndex);
+    ServiceInstance second = candidates.get(secondIndex);
+    int firstOutstanding = this.getStats(first).outstandingRequests.get();
+    int secondOutstanding = this.getStats(second).outstandingRequests.get();
+    return new DefaultResponse(firstOutstanding <= secondOutstanding ? first : second);
+  }
+
+  // When every instance is ejected, all of them are used again instead of failing every request
+  private List<ServiceInstance> removeEjectedInstances(List<ServiceInstance> instances) {
+    long now = System.nanoTime();
+    List<ServiceInstance> available = new ArrayList<>(instances.size());
+    for(ServiceInstance instance : instances) {
+      InstanceStats stats = this.instanceStats.get(this.getInstanceKey(instance));
+      if(stats == null || now - stats.ejectedUntil >= 0) {
+        available.add(instance);
+      }
+    }
+    return available.isEmpty() ? instances : available;
+  }
+
+  @Override
+  public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+    return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+  }
+
+  @Override
+  public void onStart(Request<Object> request) {}
+
+  @Override
+  public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+    if(lbResponse.hasServer()) {
+      this.getStats(lbResponse.getServer()).outstandingRequests.incrementAndGet();
+    }
+  }
+
+  @Override
+  public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+    Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+    if(lbResponse == null || !lbResponse.hasServer()) {
+      return;
+    }
+
+    ServiceInstance instance = lbResponse.getServer();
+    InstanceStats stats = this.getStats(instance);
+    stats.outstandingRequests.updateAndGet(outstanding -> outstanding > 0 ? outstanding - 1 : 0);
+
+    if(!this.isFailure(completionContext)) {
+      stats.consecutiveFailures.set(0);
+      return;
+    }
+
+    if(stats.consecutiveFailures.incrementAndGet() >= this.consecutiveFailuresToEject) {
+      stats.consecutiveFailures.set(0);
+      stats.ejectedUntil = System.nanoTime() + this.ejectionTimeNanos;
+      logger.warn(
+        "Instância {} do serviço {} removida do balanceamento por {} ms",
+        this.getInstanceKey(instance), this.serviceId, Duration.ofNanos(this.ejectionTimeNanos).toMillis()
+      );
+    }
+  }
+
+  private boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+    if(completionContext.status() == CompletionContext.Status.FAILED) {
+      return true;
+    }
+    return completionContext.getClientResponse() instanceof ResponseData responseData
+      && responseData.getHttpStatus() != null
+      && responseData.getHttpStatus().is5xxServerError();
+  }
+
+  private InstanceStats getStats(ServiceInstance instance) {
+    return this.instanceStats.computeIfAbsent(this.getInstanceKey(instance), key -> new InstanceStats());
+  }
+
+  private String getInstanceKey(ServiceInstance instance) {
+    return instance.getHost() + ":" + instance.getPort();
+  }
+
+  private static class InstanceStats {
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long ejectedUntil = System.nanoTime();
+  }
+}
@@ -0,0 +1,15 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(OutlierEjectionProperties.class)
+@LoadBalancerClients({
+  @LoadBalancerClient(name = "TRIP-PLANNER-USER-SERVICE", configuration = LeastOutstandingRequestsConfiguration.class),
+  @LoadBalancerClient(name = "TRIP-PLANNER-TRIP-SERVICE", configuration = ConsistentHashConfiguration.class)
+})
+public class LoadBalancerConfiguration {
+}
@@ -0,0 +1,9 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("load-balancer.outlier-ejection")
+public record OutlierEjectionProperties(int consecutiveFailures, Duration ejectionTime) {
+}
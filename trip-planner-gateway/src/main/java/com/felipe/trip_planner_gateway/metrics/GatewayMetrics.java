@@ -0,0 +1,129 @@
+package com.felipe.trip_planner_gateway.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Timers are looked up by a small key instead of building tags on every request, so the tag values are
+// only formatted once, when the timer for a new route/status/instance combination is registered
+@Component
+public class GatewayMetrics {
+
+  public static final String ROUTE_REQUESTS = "gateway.route.requests";
+  public static final String UPSTREAM_REQUESTS = "gateway.upstream.requests";
+  public static final String AUTH_VALIDATION = "gateway.auth.validation";
+  public static final String COMPRESSION_RATIO = "gateway.compression.ratio";
+  public static final String COMPRESSION_CPU = "gateway.compression.cpu";
+  public static final String COMPRESSION_SKIPPED = "gateway.compression.skipped";
+
+  private static final String[] STATUS_CLASSES = {"none", "1xx", "2xx", "3xx", "4xx", "5xx"};
+  private static final String NO_INSTANCE = "none";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<TimerKey, Timer> timers = new ConcurrentHashMap<>();
+  private final Map<CompressionKey, CompressionMeters> compressionMeters = new ConcurrentHashMap<>();
+  private final Map<CompressionKey, Counter> compressionSkips = new ConcurrentHashMap<>();
+
+  public GatewayMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  public void recordRoute(String routeId, HttpStatusCode status, ServiceInstance instance, long durationNanos) {
+    this.getTimer(ROUTE_REQUESTS, routeId, status, instance).record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordUpstream(String routeId, HttpStatusCode status, ServiceInstance instance, long durationNanos) {
+    this.getTimer(UPSTREAM_REQUESTS, routeId, status, instance).record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordAuthValidation(String routeId, HttpStatusCode status, long durationNanos) {
+    this.getTimer(AUTH_VALIDATION, routeId, status, null).record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  // The ratio is the compressed size over the original size, so lower is better
+  public void recordCompression(String routeId, String encoding, int originalSize, int compressedSize, long cpuNanos) {
+    CompressionKey key = new CompressionKey(routeId, encoding);
+    CompressionMeters meters = this.compressionMeters.get(key);
+    if(meters == null) {
+      meters = this.compressionMeters.computeIfAbsent(key, this::createCompressionMeters);
+    }
+    meters.ratio().record((double) compressedSize / originalSize);
+    meters.cpu().record(cpuNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordCompressionSkipped(String routeId, String reason) {
+    CompressionKey key = new CompressionKey(routeId, reason);
+    Counter counter = this.compressionSkips.get(key);
+    if(counter == null) {
+      counter = this.compressionSkips.computeIfAbsent(key, this::createCompressionSkipCounter);
+    }
+    counter.increment();
+  }
+
+  private Timer getTimer(String name, String routeId, HttpStatusCode status, ServiceInstance instance) {
+    TimerKey key = instance != null
+      ? new TimerKey(name, routeId, this.statusClass(status), instance.getInstanceId(), instance.getHost(), instance.getPort())
+      : new TimerKey(name, routeId, this.statusClass(status), null, null, -1);
+    Timer timer = this.timers.get(key);
+    return timer != null ? timer : this.timers.computeIfAbsent(key, this::createTimer);
+  }
+
+  private int statusClass(HttpStatusCode status) {
+    if(status == null) {
+      return 0;
+    }
+    int statusClass = status.value() / 100;
+    return statusClass >= 1 && statusClass < STATUS_CLASSES.length ? statusClass : 0;
+  }
+
+  private Timer createTimer(TimerKey key) {
+    return Timer.builder(key.name())
+      .tag("route", key.routeId())
+      .tag("status", STATUS_CLASSES[key.statusClass()])
+      .tag("instance", this.instanceTag(key))
+      .publishPercentileHistogram()
+      .register(this.meterRegistry);
+  }
+
+  private CompressionMeters createCompressionMeters(CompressionKey key) {
+    DistributionSummary ratio = DistributionSummary.builder(COMPRESSION_RATIO)
+      .tag("route", key.routeId())
+      .tag("encoding", key.value())
+      .publishPercentiles(0.5, 0.9)
+      .register(this.meterRegistry);
+    Timer cpu = Timer.builder(COMPRESSION_CPU)
+      .tag("route", key.routeId())
+      .tag("encoding", key.value())
+      .publishPercentileHistogram()
+      .register(this.meterRegistry);
+    return new CompressionMeters(ratio, cpu);
+  }
+
+  private Counter createCompressionSkipCounter(CompressionKey key) {
+    return Counter.builder(COMPRESSION_SKIPPED)
+      .tag("route", key.routeId())
+      .tag("reason", key.value())
+      .register(this.meterRegistry);
+  }
+
+  private String instanceTag(TimerKey key) {
+    if(key.instanceId() != null) {
+      return key.instanceId();
+    }
+    return key.host() != null ? key.host() + ":" + key.port() : NO_INSTANCE;
+  }
+
+  private record TimerKey(String name, String routeId, int statusClass, String instanceId, String host, int port) {}
+
+  private record CompressionKey(String routeId, String value) {}
+
+  private record CompressionMeters(DistributionSummary ratio, Timer cpu) {}
+}
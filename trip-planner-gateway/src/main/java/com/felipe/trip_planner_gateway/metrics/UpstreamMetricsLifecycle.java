@@ -0,0 +1,64 @@
+package com.felipe.trip_planner_gateway.metrics;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Times every load-balanced call made on behalf of a route, from the moment an instance is chosen until its
+// response headers arrive. Calls made by the gateway itself (e.g. token validation) carry no route and are ignored
+@Component
+public class UpstreamMetricsLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+  private final GatewayMetrics gatewayMetrics;
+
+  public UpstreamMetricsLifecycle(GatewayMetrics gatewayMetrics) {
+    this.gatewayMetrics = gatewayMetrics;
+  }
+
+  @Override
+  public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+    return RequestDataContext.class.isAssignableFrom(requestContextClass)
+      && ResponseData.class.isAssignableFrom(responseClass)
+      && ServiceInstance.class.isAssignableFrom(serverTypeClass);
+  }
+
+  @Override
+  public void onStart(Request<RequestDataContext> request) {}
+
+  @Override
+  public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+    request.getContext().setRequestStartTime(System.nanoTime());
+  }
+
+  @Override
+  public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+    Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+    if(completionContext.status() == CompletionContext.Status.DISCARD || lbResponse == null || !lbResponse.hasServer()) {
+      return;
+    }
+
+    RequestDataContext context = completionContext.getLoadBalancerRequest().getContext();
+    Map<String, Object> attributes = context.getClientRequest().getAttributes();
+    if(attributes == null || !(attributes.get(GATEWAY_ROUTE_ATTR) instanceof Route route)) {
+      return;
+    }
+
+    ResponseData responseData = completionContext.getClientResponse();
+    this.gatewayMetrics.recordUpstream(
+      route.getId(),
+      responseData != null ? responseData.getHttpStatus() : null,
+      lbResponse.getServer(),
+      System.nanoTime() - context.getRequestStartTime()
+    );
+  }
+}
@@ -0,0 +1,34 @@
+package com.felipe.trip_planner_gateway.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Token bucket implemented as a generic cell rate algorithm: the whole state is the theoretical arrival time
+// of the next request, so a request is accepted or rejected with a single compare-and-set and no allocation
+public class TokenBucket {
+
+  private final long emissionIntervalNanos;
+  private final long burstWindowNanos;
+  private final AtomicLong theoreticalArrivalTime;
+
+  public TokenBucket(long replenishRate, long burstCapacity, long now) {
+    this.emissionIntervalNanos = 1_000_000_000L / replenishRate;
+    this.burstWindowNanos = this.emissionIntervalNanos * burstCapacity;
+    this.theoreticalArrivalTime = new AtomicLong(now);
+  }
+
+  // Returns 0 when a token was consumed, otherwise how many nanoseconds until the next token is available
+  public long tryConsume(long now) {
+    while(true) {
+      long current = this.theoreticalArrivalTime.get();
+      long next = Math.max(current, now) + this.emissionIntervalNanos;
+      long waitNanos = next - now - this.burstWindowNanos;
+
+      if(waitNanos > 0) {
+        return waitNanos;
+      }
+      if(this.theoreticalArrivalTime.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+}
@@ -1,45 +1,195 @@
 package com.felipe.trip_planner_gateway.services;
 
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
 import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.core.ParameterizedTypeReference;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.HttpClientErrorException;
-import org.springframework.web.client.RestClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SynchronousSink;
 
-import java.net.URI;
-import java.util.List;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class AuthService {
 
-  private final RestClient restClient;
-  private final DiscoveryClient discoveryClient;
+  private final WebClient webClient;
+  private final JwtService jwtService;
+  private final TokenBatchValidator tokenBatchValidator;
+  private final RevokedTokens revokedTokens;
+  private final IdentityHeaderSigner identityHeaderSigner;
+  private final boolean batchValidationEnabled;
+  private final Duration validationTimeout;
+  private final Cache<String, ValidatedToken> validatedTokens;
+  private final Map<String, Mono<ValidatedUserDTO>> inFlightValidations = new ConcurrentHashMap<>();
 
-  public AuthService(DiscoveryClient discoveryClient) {
-    this.restClient = RestClient.create();
-    this.discoveryClient = discoveryClient;
+  public AuthService(
+    WebClient.Builder webClientBuilder,
+    ReactorLoadBalancerExchangeFilterFunction loadBalancerFilter,
+    JwtService jwtService,
+    TokenBatchValidator tokenBatchValidator,
+    RevokedTokens revokedTokens,
+    IdentityHeaderSigner identityHeaderSigner,
+    MeterRegistry meterRegistry,
+    @Value("${auth.validation.batch.enabled}") boolean batchValidationEnabled,
+    @Value("${auth.validation.timeout}") Duration validationTimeout,
+    @Value("${auth.validation.cache.maximum-size}") long cacheMaximumSize,
+    @Value("${auth.validation.cache.max-ttl}") Duration cacheMaxTtl
+  ) {
+    this.webClient = webClientBuilder
+      .baseUrl("http://TRIP-PLANNER-USER-SERVICE")
+      .filter(loadBalancerFilter)
+      .build();
+    this.jwtService = jwtService;
+    this.tokenBatchValidator = tokenBatchValidator;
+    this.revokedTokens = revokedTokens;
+    this.identityHeaderSigner = identityHeaderSigner;
+    this.batchValidationEnabled = batchValidationEnabled;
+    this.validationTimeout = validationTimeout;
+    this.validatedTokens = Caffeine.newBuilder()
+      .maximumSize(cacheMaximumSize)
+      .expireAfter(new ValidatedTokenExpiry(cacheMaxTtl))
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, this.validatedTokens, "auth.validated-tokens");
   }
 
-  public ValidatedUserDTO validateToken(String token) {
-    List<ServiceInstance> services = this.discoveryClient.getInstances("TRIP-PLANNER-USER-SERVICE");
-    URI userServiceUri = null;
+  public Mono<ValidatedUserDTO> validateToken(String token) {
+    String tokenHash = this.hashToken(token);
+    ValidatedToken cachedToken = this.validatedTokens.getIfPresent(tokenHash);
 
-    if(!services.isEmpty()) {
-      userServiceUri = services.get(0).getUri();
+    // While the revocations are stale, neither the cache nor the local verification can tell a revoked token apart
+    if(cachedToken != null && !this.revokedTokens.isStale()) {
+      if(this.isRevoked(cachedToken)) {
+        this.validatedTokens.invalidate(tokenHash);
+        return Mono.error(new AuthValidationException("O token de acesso fornecido expirou, foi revogado ou é inválido"));
+      }
+      return Mono.just(cachedToken.user());
     }
 
+    return this.inFlightValidations.computeIfAbsent(tokenHash, hash -> this.createValidation(token, hash));
+  }
+
+  // Concurrent validations of the same token share a single in-flight validation. It is removed from the
+  // map as soon as it terminates, so a failure is delivered to the current subscribers but never reused. It only
+  // removes itself, so a validation finishing late never evicts a newer one started for the same token
+  private Mono<ValidatedUserDTO> createValidation(String token, String tokenHash) {
+    AtomicReference<Mono<ValidatedUserDTO>> self = new AtomicReference<>();
+    Mono<ValidatedUserDTO> validation = Mono.fromCallable(() -> this.jwtService.isEnabled() && !this.revokedTokens.isStale()
+        ? this.jwtService.validateToken(token)
+        : null
+      )
+      .switchIfEmpty(Mono.defer(() -> this.batchValidationEnabled
+        ? this.tokenBatchValidator.validateToken(token)
+        : this.validateTokenOnUserService(token)
+      ))
+      .map(validatedUser -> this.toValidatedToken(validatedUser, token))
+      .handle((ValidatedToken validatedToken, SynchronousSink<ValidatedUserDTO> sink) -> {
+        if(this.isRevoked(validatedToken)) {
+          sink.error(new AuthValidationException("O token de acesso fornecido expirou, foi revogado ou é inválido"));
+          return;
+        }
+        this.validatedTokens.put(tokenHash, validatedToken);
+        sink.next(validatedToken.user());
+      })
+      .doFinally(signalType -> this.inFlightValidations.remove(tokenHash, self.get()))
+      .cache();
+    self.set(validation);
+    return validation;
+  }
+
+  private Mono<ValidatedUserDTO> validateTokenOnUserService(String token) {
+    return this.webClient.get()
+      .uri("/api/auth/validate")
+      .header("accessToken", token)
+      .headers(this.identityHeaderSigner::signService)
+      .retrieve()
+      .onStatus(HttpStatusCode::is4xxClientError, response -> response.bodyToMono(JsonNode.class)
+        .map(body -> new AuthValidationException(body.path("message").asText()))
+      )
+      .bodyToMono(ValidatedUserDTO.class)
+      .timeout(this.validationTimeout)
+      .onErrorMap(
+        e -> !(e instanceof AuthValidationException),
+        e -> e instanceof TimeoutException
+          ? new AuthValidationException("Tempo esgotado ao validar o token de acesso")
+          : new AuthValidationException("Não foi possível validar o token de acesso")
+      );
+  }
+
+  // The token has already been validated at this point, so it is only decoded to read its id, version and expiration
+  private ValidatedToken toValidatedToken(ValidatedUserDTO validatedUser, String token) {
     try {
-      return this.restClient.get()
-        .uri(userServiceUri + "/api/auth/validate")
-        .header("accessToken", token)
-        .retrieve()
-        .body(new ParameterizedTypeReference<>() {
-        });
-    } catch(HttpClientErrorException e) {
-      throw new AuthValidationException(e.getResponseBodyAsString());
+      DecodedJWT decodedJWT = JWT.decode(token);
+      Instant expiresAt = decodedJWT.getExpiresAtAsInstant();
+      return new ValidatedToken(
+        validatedUser,
+        decodedJWT.getId(),
+        decodedJWT.getClaim("tokenVersion").asInt(),
+        expiresAt != null ? expiresAt : Instant.MAX
+      );
+    } catch(JWTDecodeException e) {
+      return new ValidatedToken(validatedUser, null, null, Instant.now());
+    }
+  }
+
+  // Checked on every request, including the cached ones, since the token may have been revoked after it was cached
+  private boolean isRevoked(ValidatedToken validatedToken) {
+    return this.revokedTokens.isRevoked(validatedToken.tokenId())
+      || this.revokedTokens.isRevoked(validatedToken.user().id(), validatedToken.tokenVersion());
+  }
+
+  private String hashToken(String token) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch(NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record ValidatedToken(ValidatedUserDTO user, String tokenId, Integer tokenVersion, Instant expiresAt) {}
+
+  private record ValidatedTokenExpiry(Duration maxTtl) implements Expiry<String, ValidatedToken> {
+
+    @Override
+    public long expireAfterCreate(String tokenHash, ValidatedToken validatedToken, long currentTime) {
+      Duration untilTokenExpires = Duration.between(Instant.now(), validatedToken.expiresAt());
+      if(untilTokenExpires.isNegative()) {
+        return 0;
+      }
+      return untilTokenExpires.compareTo(this.maxTtl) < 0 ? untilTokenExpires.toNanos() : this.maxTtl.toNanos();
+    }
+
+    @Override
+    public long expireAfterUpdate(String tokenHash, ValidatedToken validatedToken, long currentTime, long currentDuration) {
+      return this.expireAfterCreate(tokenHash, validatedToken, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String tokenHash, ValidatedToken validatedToken, long currentTime, long currentDuration) {
+      return currentDuration;
     }
   }
 }
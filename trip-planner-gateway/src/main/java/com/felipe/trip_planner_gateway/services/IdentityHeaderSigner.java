@@ -0,0 +1,108 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.felipe.trip_planner_gateway.loadbalancer.ConsistentHashLoadBalancer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.List;
+
+// Signs the identity headers sent to the microservices with HMAC-SHA256, so they can trust them without looking the
+// user up again. The timestamp and nonce are part of the signature, so a captured set of headers is only accepted within
+// identity.max-age, and only once by each service instance. The signed content is
+// "userId\nusername\nuserEmail\ntimestamp\nnonce", in UTF-8.
+// The gateway's own calls to the internal endpoints of the user-service carry a service identity instead, signed over
+// "service\nserviceName\ntimestamp\nnonce"
+@Component
+public class IdentityHeaderSigner {
+
+  public static final String USER_ID = "userId";
+  public static final String USERNAME = "username";
+  public static final String USER_EMAIL = "userEmail";
+  public static final String TIMESTAMP = "identityTimestamp";
+  public static final String NONCE = "identityNonce";
+  public static final String SIGNATURE = "identitySignature";
+  public static final String SERVICE_NAME = "serviceName";
+
+  private static final String ALGORITHM = "HmacSHA256";
+  private static final String GATEWAY_SERVICE_NAME = "trip-planner-gateway";
+  private static final List<String> IDENTITY_HEADERS =
+    List.of(USER_ID, USERNAME, USER_EMAIL, TIMESTAMP, NONCE, SIGNATURE, SERVICE_NAME);
+
+  private final SecretKeySpec key;
+  private final SecureRandom random = new SecureRandom();
+  private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+  public IdentityHeaderSigner(@Value("${identity.signing-key}") String signingKey) {
+    if(signingKey == null || signingKey.isBlank()) {
+      throw new IllegalStateException("A chave de assinatura dos headers de identidade (identity.signing-key) não foi configurada");
+    }
+    this.key = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.createMac();
+  }
+
+  public void sign(HttpHeaders headers, String userId, String username, String userEmail) {
+    String timestamp = Long.toString(System.currentTimeMillis());
+    String nonce = this.newNonce();
+    headers.set(USER_ID, userId);
+    headers.set(USERNAME, username);
+    headers.set(USER_EMAIL, userEmail);
+    headers.set(TIMESTAMP, timestamp);
+    headers.set(NONCE, nonce);
+    headers.set(SIGNATURE, this.signature(userId, username, userEmail, timestamp, nonce));
+  }
+
+  public void signService(HttpHeaders headers) {
+    String timestamp = Long.toString(System.currentTimeMillis());
+    String nonce = this.newNonce();
+    headers.set(SERVICE_NAME, GATEWAY_SERVICE_NAME);
+    headers.set(TIMESTAMP, timestamp);
+    headers.set(NONCE, nonce);
+    headers.set(SIGNATURE, this.hmac("service\n" + GATEWAY_SERVICE_NAME + '\n' + timestamp + '\n' + nonce));
+  }
+
+  // Gives a copy of an already signed request its own nonce, e.g. a hedged request that may reach the same instance
+  public void resign(HttpHeaders headers) {
+    if(headers.getFirst(SIGNATURE) != null) {
+      this.sign(headers, headers.getFirst(USER_ID), headers.getFirst(USERNAME), headers.getFirst(USER_EMAIL));
+    }
+  }
+
+  // Identity headers sent by the client are never forwarded, and neither is the hedge marker, which would otherwise
+  // let a client send its requests off their consistent-hash instance
+  public void removeIdentityHeaders(HttpHeaders headers) {
+    IDENTITY_HEADERS.forEach(headers::remove);
+    headers.remove(ConsistentHashLoadBalancer.HEDGED_REQUEST_HEADER);
+  }
+
+  private String signature(String userId, String username, String userEmail, String timestamp, String nonce) {
+    return this.hmac(userId + '\n' + username + '\n' + userEmail + '\n' + timestamp + '\n' + nonce);
+  }
+
+  private String hmac(String content) {
+    byte[] signature = this.mac.get().doFinal(content.getBytes(StandardCharsets.UTF_8));
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+  }
+
+  private String newNonce() {
+    byte[] nonce = new byte[16];
+    this.random.nextBytes(nonce);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(nonce);
+  }
+
+  private Mac createMac() {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(this.key);
+      return mac;
+    } catch(GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
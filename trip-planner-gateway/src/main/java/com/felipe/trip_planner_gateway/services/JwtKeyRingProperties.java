@@ -0,0 +1,20 @@
+package com.felipe.trip_planner_gateway.services;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Same key set as the user-service: public keys accepted besides the active one (jwt.key.*). A key without retiredAt
+// is accepted until it is removed, a retired key is accepted for gracePeriod after retiredAt
+@ConfigurationProperties("jwt.key-ring")
+public record JwtKeyRingProperties(Duration gracePeriod, List<VerificationKey> verificationKeys) {
+
+  public JwtKeyRingProperties {
+    gracePeriod = gracePeriod != null ? gracePeriod : Duration.ofHours(2);
+    verificationKeys = verificationKeys != null ? List.copyOf(verificationKeys) : List.of();
+  }
+
+  public record VerificationKey(String id, String publicKey, Instant retiredAt) {}
+}
@@ -0,0 +1,130 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+// Verifies the tokens with the public keys of the user-service instead of calling it for every request. A token is
+// accepted while its signature, issuer and expiration are valid: whether the user still exists is not checked here,
+// so the tokens of a deleted user are only rejected once the revoked token versions reach RevokedTokens, up to
+// auth.revocation.refresh-interval later
+@Service
+@EnableConfigurationProperties(JwtKeyRingProperties.class)
+public class JwtService {
+
+  private final JWTVerifier activeVerifier;
+  private final String activeKeyId;
+  private final Map<String, KeyVerifier> verifiers = new HashMap<>();
+  private final Logger logger = LoggerFactory.getLogger(JwtService.class);
+
+  public JwtService(
+    @Value("${jwt.key.public}") String publicKey,
+    @Value("${jwt.key.id}") String keyId,
+    @Value("${jwt.issuer}") String jwtIssuer,
+    JwtKeyRingProperties keyRingProperties,
+    ResourceLoader resourceLoader
+  ) {
+    this.activeKeyId = keyId;
+    if(publicKey == null || publicKey.isBlank()) {
+      logger.warn("Chave pública do JWT não configurada. Os tokens serão validados pelo user-service");
+      this.activeVerifier = null;
+      return;
+    }
+    Algorithm algorithm = Algorithm.RSA256(this.readPublicKey(publicKey, resourceLoader), null);
+    this.activeVerifier = JWT.require(algorithm).withIssuer(jwtIssuer).build();
+
+    for(JwtKeyRingProperties.VerificationKey key : keyRingProperties.verificationKeys()) {
+      Algorithm keyAlgorithm = Algorithm.RSA256(this.readPublicKey(key.publicKey(), resourceLoader), null);
+      Instant validUntil = key.retiredAt() != null ? key.retiredAt().plus(keyRingProperties.gracePeriod()) : null;
+      this.verifiers.put(key.id(), new KeyVerifier(JWT.require(keyAlgorithm).withIssuer(jwtIssuer).build(), validUntil));
+    }
+  }
+
+  public boolean isEnabled() {
+    return this.activeVerifier != null;
+  }
+
+  // Returns null when the token was signed with a key the gateway does not know (or whose grace window is over)
+  // or was issued without the claims the gateway needs, so the caller can fall back to the user-service validation
+  public ValidatedUserDTO validateToken(String token) {
+    DecodedJWT decodedJWT;
+    try {
+      decodedJWT = JWT.decode(token);
+    } catch(JWTDecodeException e) {
+      throw new AuthValidationException("O token de acesso fornecido expirou, foi revogado ou é inválido");
+    }
+    JWTVerifier verifier = this.getVerifier(decodedJWT.getKeyId());
+    if(verifier == null) {
+      return null;
+    }
+    try {
+      verifier.verify(decodedJWT);
+    } catch(JWTVerificationException e) {
+      throw new AuthValidationException("O token de acesso fornecido expirou, foi revogado ou é inválido");
+    }
+
+    String userId = decodedJWT.getClaim("userId").asString();
+    String name = decodedJWT.getClaim("name").asString();
+    String email = decodedJWT.getSubject();
+
+    if(userId == null || name == null || email == null) {
+      return null;
+    }
+    return new ValidatedUserDTO(userId, name, email, null, null);
+  }
+
+  // Tokens issued before the key ring have no "kid" and were signed with the active key
+  private JWTVerifier getVerifier(String keyId) {
+    if(keyId == null || keyId.equals(this.activeKeyId)) {
+      return this.activeVerifier;
+    }
+    KeyVerifier keyVerifier = this.verifiers.get(keyId);
+    if(keyVerifier == null || (keyVerifier.validUntil() != null && Instant.now().isAfter(keyVerifier.validUntil()))) {
+      return null;
+    }
+    return keyVerifier.verifier();
+  }
+
+  private RSAPublicKey readPublicKey(String publicKey, ResourceLoader resourceLoader) {
+    try {
+      String pem = publicKey.startsWith("classpath:") || publicKey.startsWith("file:")
+        ? resourceLoader.getResource(publicKey).getContentAsString(StandardCharsets.UTF_8)
+        : publicKey;
+      String encodedKey = pem
+        .replace("-----BEGIN PUBLIC KEY-----", "")
+        .replace("-----END PUBLIC KEY-----", "")
+        .replaceAll("\\s", "");
+      X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(encodedKey));
+      return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(keySpec);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    } catch(GeneralSecurityException | IllegalArgumentException e) {
+      throw new IllegalStateException("Chave pública do JWT inválida", e);
+    }
+  }
+
+  private record KeyVerifier(JWTVerifier verifier, Instant validUntil) {}
+}
@@ -0,0 +1,138 @@
+package com.felipe.trip_planner_gateway.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+// Tokens revoked in the user-service, pulled periodically from it: the ids (jti) of the tokens revoked on logout, and
+// the token version below which the tokens of a user were revoked (password change, deleted user, or a logout that
+// could not revoke the token by its id). Tokens validated locally or served from the validation cache never reach
+// the user-service, so they are checked against these instead. A revocation takes up to refresh-interval to reach
+// the gateway. If the user-service cannot be reached, the last known revocations are kept, but after
+// max-consecutive-failures failed refreshes in a row they are reported as stale and AuthService validates every token
+// on the user-service until a refresh succeeds again. Both lists are read whole, so max-response-size must fit the
+// revocation capacity of the user-service (about 80 bytes per entry)
+@Service
+public class RevokedTokens implements DisposableBean {
+
+  private static final ParameterizedTypeReference<List<RevokedToken>> REVOKED_TOKENS_TYPE =
+    new ParameterizedTypeReference<>() {};
+  private static final ParameterizedTypeReference<List<RevokedTokenVersion>> REVOKED_TOKEN_VERSIONS_TYPE =
+    new ParameterizedTypeReference<>() {};
+
+  private final WebClient webClient;
+  private final IdentityHeaderSigner identityHeaderSigner;
+  private final Duration timeout;
+  private final int maxConsecutiveFailures;
+  private final AtomicInteger consecutiveFailures = new AtomicInteger();
+  private final Disposable refresh;
+  private volatile Set<String> revokedTokenIds = Set.of();
+  private volatile Map<String, Integer> revokedTokenVersions = Map.of();
+  private final Logger logger = LoggerFactory.getLogger(RevokedTokens.class);
+
+  public RevokedTokens(
+    WebClient.Builder webClientBuilder,
+    ReactorLoadBalancerExchangeFilterFunction loadBalancerFilter,
+    IdentityHeaderSigner identityHeaderSigner,
+    @Value("${auth.revocation.refresh-interval}") Duration refreshInterval,
+    @Value("${auth.revocation.max-response-size}") DataSize maxResponseSize,
+    @Value("${auth.revocation.max-consecutive-failures}") int maxConsecutiveFailures,
+    @Value("${auth.validation.timeout}") Duration timeout
+  ) {
+    this.webClient = webClientBuilder
+      .baseUrl("http://TRIP-PLANNER-USER-SERVICE")
+      .filter(loadBalancerFilter)
+      .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(Math.toIntExact(maxResponseSize.toBytes())))
+      .build();
+    this.identityHeaderSigner = identityHeaderSigner;
+    this.timeout = timeout;
+    this.maxConsecutiveFailures = maxConsecutiveFailures;
+    this.refresh = Flux.interval(Duration.ZERO, refreshInterval)
+      .onBackpressureDrop()
+      .concatMap(tick -> Mono.zip(this.fetchRevokedTokens(), this.fetchRevokedTokenVersions(), Boolean::logicalAnd))
+      .subscribe(this::recordRefresh);
+  }
+
+  public boolean isRevoked(String tokenId) {
+    return tokenId != null && this.revokedTokenIds.contains(tokenId);
+  }
+
+  // Tokens issued before the "tokenVersion" claim count as version 0
+  public boolean isRevoked(String userId, Integer tokenVersion) {
+    Integer currentVersion = userId != null ? this.revokedTokenVersions.get(userId) : null;
+    return currentVersion != null && (tokenVersion != null ? tokenVersion : 0) < currentVersion;
+  }
+
+  // True while the last known revocations may be missing recent logouts for too long to be trusted
+  public boolean isStale() {
+    return this.consecutiveFailures.get() >= this.maxConsecutiveFailures;
+  }
+
+  private void recordRefresh(boolean refreshed) {
+    if(refreshed) {
+      this.consecutiveFailures.set(0);
+      return;
+    }
+    if(this.consecutiveFailures.incrementAndGet() == this.maxConsecutiveFailures) {
+      logger.error(
+        "A lista de tokens revogados não é atualizada há {} tentativas, os tokens passam a ser validados no user-service",
+        this.maxConsecutiveFailures
+      );
+    }
+  }
+
+  private Mono<Boolean> fetchRevokedTokens() {
+    return this.webClient.get()
+      .uri("/api/auth/revoked-tokens")
+      .headers(this.identityHeaderSigner::signService)
+      .retrieve()
+      .bodyToMono(REVOKED_TOKENS_TYPE)
+      .timeout(this.timeout)
+      .doOnNext(revokedTokens -> this.revokedTokenIds = revokedTokens.stream()
+        .map(RevokedToken::tokenId)
+        .collect(Collectors.toUnmodifiableSet()))
+      .thenReturn(true)
+      .doOnError(e -> logger.warn("Falha ao atualizar a lista de tokens revogados: {}", e.getMessage()))
+      .onErrorReturn(false);
+  }
+
+  private Mono<Boolean> fetchRevokedTokenVersions() {
+    return this.webClient.get()
+      .uri("/api/auth/revoked-token-versions")
+      .headers(this.identityHeaderSigner::signService)
+      .retrieve()
+      .bodyToMono(REVOKED_TOKEN_VERSIONS_TYPE)
+      .timeout(this.timeout)
+      .doOnNext(revokedVersions -> this.revokedTokenVersions = revokedVersions.stream()
+        .collect(Collectors.toUnmodifiableMap(RevokedTokenVersion::userId, RevokedTokenVersion::tokenVersion, Math::max)))
+      .thenReturn(true)
+      .doOnError(e -> logger.warn("Falha ao atualizar as versões de token revogadas: {}", e.getMessage()))
+      .onErrorReturn(false);
+  }
+
+  @Override
+  public void destroy() {
+    this.refresh.dispose();
+  }
+
+  private record RevokedToken(String tokenId, Instant expiresAt) {}
+
+  private record RevokedTokenVersion(String userId, int tokenVersion, Instant expiresAt) {}
+}
@@ -0,0 +1,130 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.felipe.trip_planner_gateway.dtos.TokenValidationResultDTO;
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+// Collects the validations requested during a short window and sends them to the user-service
+// in a single request, so a burst of requests turns into a few batch calls instead of one call per token
+@Service
+public class TokenBatchValidator {
+
+  private static final ParameterizedTypeReference<List<TokenValidationResultDTO>> RESULTS_TYPE =
+    new ParameterizedTypeReference<>() {};
+
+  private final WebClient webClient;
+  private final IdentityHeaderSigner identityHeaderSigner;
+  private final Duration validationTimeout;
+  private final int maxBatchSize;
+  private final Duration batchWindow;
+  private volatile FluxSink<PendingValidation> pendingValidations;
+  private final Logger logger = LoggerFactory.getLogger(TokenBatchValidator.class);
+
+  public TokenBatchValidator(
+    WebClient.Builder webClientBuilder,
+    ReactorLoadBalancerExchangeFilterFunction loadBalancerFilter,
+    IdentityHeaderSigner identityHeaderSigner,
+    @Value("${auth.validation.timeout}") Duration validationTimeout,
+    @Value("${auth.validation.batch.max-size}") int maxBatchSize,
+    @Value("${auth.validation.batch.window}") Duration batchWindow
+  ) {
+    this.webClient = webClientBuilder
+      .baseUrl("http://TRIP-PLANNER-USER-SERVICE")
+      .filter(loadBalancerFilter)
+      .build();
+    this.identityHeaderSigner = identityHeaderSigner;
+    this.validationTimeout = validationTimeout;
+    this.maxBatchSize = maxBatchSize;
+    this.batchWindow = batchWindow;
+    this.startPipeline();
+  }
+
+  // The sink of Flux.create serializes concurrent calls to next, so the request threads never wait on each other.
+  // It is set on subscribe, before this method returns. With fair backpressure, a batch whose window closes while
+  // every flatMap slot is taken waits for one to free up instead of failing the pipeline with an overflow error.
+  // If the pipeline still terminates, a new sink replaces it: the validations buffered in the old one time out
+  // and every later validation goes through the new one
+  private void startPipeline() {
+    Flux.<PendingValidation>create(sink -> this.pendingValidations = sink)
+      .bufferTimeout(this.maxBatchSize, this.batchWindow, true)
+      .flatMap(this::validateBatch)
+      .subscribe(null, e -> {
+        logger.error("Fila de validação de tokens encerrada, recriando: {}", e.getMessage());
+        this.startPipeline();
+      });
+  }
+
+  public Mono<ValidatedUserDTO> validateToken(String token) {
+    return Mono.defer(() -> {
+      if(this.pendingValidations.isCancelled()) {
+        return Mono.error(new AuthValidationException("Não foi possível validar o token de acesso"));
+      }
+      PendingValidation pendingValidation = new PendingValidation(token, Sinks.one());
+      this.pendingValidations.next(pendingValidation);
+      return pendingValidation.result().asMono();
+    })
+    .timeout(this.validationTimeout)
+    .onErrorMap(TimeoutException.class, e -> new AuthValidationException("Tempo esgotado ao validar o token de acesso"))
+    .onErrorMap(
+      e -> !(e instanceof AuthValidationException),
+      e -> new AuthValidationException("Não foi possível validar o token de acesso")
+    );
+  }
+
+  private Mono<Void> validateBatch(List<PendingValidation> batch) {
+    List<String> tokens = batch.stream().map(PendingValidation::token).toList();
+
+    return this.webClient.post()
+      .uri("/api/auth/validate/batch")
+      .headers(this.identityHeaderSigner::signService)
+      .bodyValue(Map.of("tokens", tokens))
+      .retrieve()
+      .bodyToMono(RESULTS_TYPE)
+      .timeout(this.validationTimeout)
+      .doOnNext(results -> this.completeBatch(batch, results))
+      .doOnError(e -> {
+        logger.warn("Falha ao validar lote de {} tokens: {}", batch.size(), e.getMessage());
+        this.failBatch(batch, new AuthValidationException("Não foi possível validar o token de acesso"));
+      })
+      .onErrorResume(e -> Mono.empty())
+      .then();
+  }
+
+  private void completeBatch(List<PendingValidation> batch, List<TokenValidationResultDTO> results) {
+    if(results.size() != batch.size()) {
+      this.failBatch(batch, new AuthValidationException("Não foi possível validar o token de acesso"));
+      return;
+    }
+    for(int i = 0; i < batch.size(); i++) {
+      TokenValidationResultDTO result = results.get(i);
+      Sinks.One<ValidatedUserDTO> pendingResult = batch.get(i).result();
+      if(result.valid()) {
+        pendingResult.tryEmitValue(result.user());
+      } else {
+        pendingResult.tryEmitError(new AuthValidationException(result.message()));
+      }
+    }
+  }
+
+  private void failBatch(List<PendingValidation> batch, AuthValidationException exception) {
+    batch.forEach(pendingValidation -> pendingValidation.result().tryEmitError(exception));
+  }
+
+  private record PendingValidation(String token, Sinks.One<ValidatedUserDTO> result) {}
+}
@@ -0,0 +1,72 @@
+package com.felipe.trip_planner_gateway.benchmarks;
+
+import com.felipe.trip_planner_gateway.config.RouteSecurityProperties;
+import com.felipe.trip_planner_gateway.config.RouteValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+// Compares the precompiled RouteValidator with the previous stream and String.contains predicate.
+// Run with: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//   -Dexec.args="-cp %classpath org.openjdk.jmh.Main RouteValidatorBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteValidatorBenchmark {
+
+  private static final List<String> openApiEndpoints = List.of("/auth/register", "/auth/login");
+
+  private static final Predicate<ServerHttpRequest> streamPredicate = request -> openApiEndpoints
+    .stream()
+    .noneMatch(uri -> request.getURI().getPath().contains(uri));
+
+  @Param({"/auth/login", "/trips/0b5a3c4e-8f7e-4a3b-9d2a-1c6f0e9b7a21/participants"})
+  private String path;
+
+  private RouteValidator routeValidator;
+  private ServerHttpRequest request;
+
+  @Setup
+  public void setUp() {
+    this.routeValidator = new RouteValidator(new RouteSecurityProperties(List.of(
+      "POST /auth/register",
+      "POST /auth/login"
+    )));
+    this.request = MockServerHttpRequest.method(HttpMethod.POST, this.path).build();
+  }
+
+  @Benchmark
+  public boolean streamPredicate() {
+    return streamPredicate.test(this.request);
+  }
+
+  @Benchmark
+  public boolean precompiledPathPatterns() {
+    return this.routeValidator.isSecured(this.request);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(RouteValidatorBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -0,0 +1,70 @@
+package com.felipe.trip_planner_gateway.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CachedResponseTest {
+
+  private static final byte[] BODY = "{\"destination\":\"Florianópolis\"}".getBytes(StandardCharsets.UTF_8);
+
+  @Test
+  @DisplayName("of - Should keep the body gzipped and give it back uncompressed")
+  void ofStoresGzippedBody() throws IOException {
+    CachedResponse cachedResponse = CachedResponse.of(new HttpHeaders(), BODY, 10L);
+
+    ByteBuffer gzippedBody = cachedResponse.gzippedBodySlice();
+    byte[] gzipped = new byte[gzippedBody.remaining()];
+    gzippedBody.get(gzipped);
+    try(InputStream input = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+      assertThat(input.readAllBytes()).isEqualTo(BODY);
+    }
+    assertThat(cachedResponse.body()).isEqualTo(BODY);
+    assertThat(cachedResponse.weight()).isEqualTo(gzipped.length);
+    assertThat(cachedResponse.gzippedBodySlice().remaining()).isEqualTo(gzipped.length);
+    assertThat(cachedResponse.storedAt()).isEqualTo(10L);
+  }
+
+  @Test
+  @DisplayName("of - Should generate the same weak ETag for the same body and a different one for another body")
+  void ofGeneratesWeakETag() {
+    CachedResponse first = CachedResponse.of(new HttpHeaders(), BODY, 0L);
+    CachedResponse second = CachedResponse.of(new HttpHeaders(), BODY.clone(), 0L);
+    CachedResponse other = CachedResponse.of(new HttpHeaders(), "{}".getBytes(StandardCharsets.UTF_8), 0L);
+
+    assertThat(first.etag()).startsWith("W/\"").isEqualTo(second.etag()).isNotEqualTo(other.etag());
+  }
+
+  @Test
+  @DisplayName("of - Should keep the ETag sent by the service")
+  void ofKeepsUpstreamETag() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"v1\"");
+
+    assertThat(CachedResponse.of(headers, BODY, 0L).etag()).isEqualTo("\"v1\"");
+  }
+
+  @Test
+  @DisplayName("matches - Should compare If-None-Match weakly, accepting lists and *")
+  void matchesIfNoneMatch() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setETag("\"v1\"");
+    CachedResponse cachedResponse = CachedResponse.of(headers, BODY, 0L);
+
+    assertThat(cachedResponse.matches("\"v1\"")).isTrue();
+    assertThat(cachedResponse.matches("W/\"v1\"")).isTrue();
+    assertThat(cachedResponse.matches("\"v0\", \"v1\"")).isTrue();
+    assertThat(cachedResponse.matches("*")).isTrue();
+    assertThat(cachedResponse.matches("\"v2\"")).isFalse();
+    assertThat(cachedResponse.matches(null)).isFalse();
+  }
+}
@@ -0,0 +1,52 @@
+package com.felipe.trip_planner_gateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheTest {
+
+  private ResponseCache responseCache;
+
+  @BeforeEach
+  void setUp() {
+    this.responseCache = new ResponseCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+  }
+
+  @Test
+  @DisplayName("get - Should return the stored response until it is removed")
+  void getAndRemove() {
+    CachedResponse cachedResponse = this.response(System.nanoTime());
+    this.responseCache.put("key", cachedResponse);
+
+    assertThat(this.responseCache.get("key")).isSameAs(cachedResponse);
+
+    this.responseCache.remove("key");
+
+    assertThat(this.responseCache.get("key")).isNull();
+  }
+
+  @Test
+  @DisplayName("isInvalidated - Should invalidate the responses stored before the invalidation only")
+  void isInvalidated() {
+    CachedResponse storedBefore = this.response(System.nanoTime());
+    this.responseCache.invalidate("trip-planner-trip-service\n/api/trips/1");
+    CachedResponse storedAfter = this.response(System.nanoTime());
+
+    assertThat(this.responseCache.isInvalidated("trip-planner-trip-service\n/api/trips/1", storedBefore)).isTrue();
+    assertThat(this.responseCache.isInvalidated("trip-planner-trip-service\n/api/trips/1", storedAfter)).isFalse();
+    assertThat(this.responseCache.isInvalidated("trip-planner-trip-service\n/api/trips/2", storedBefore)).isFalse();
+  }
+
+  private CachedResponse response(long storedAt) {
+    return CachedResponse.of(new HttpHeaders(), "{\"id\":1}".getBytes(StandardCharsets.UTF_8), storedAt);
+  }
+}
@@ -0,0 +1,35 @@
+package com.felipe.trip_planner_gateway.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CapturedRequestTest {
+
+  // The same bytes are decoded by CapturedRequestTest in trip-planner-traffic-replay, so both sides of the format
+  // are pinned to one record: a change to either must update both tests
+  static final String ENCODED_RECORD = "00000000000003e800000000000007d000c904504f53540000000d2f74726970733f706167653d31"
+    + "0001000c436f6e74656e742d54797065000000106170706c69636174696f6e2f6a736f6e000000027b7d";
+
+  @Test
+  @DisplayName("encode - Should write the record in the layout read by the traffic replay")
+  void encodeWritesReplayLayout() {
+    CapturedRequest capturedRequest = new CapturedRequest(
+      1_000L,
+      2_000L,
+      201,
+      "POST",
+      "/trips?page=1",
+      List.of(Map.entry("Content-Type", "application/json")),
+      "{}".getBytes(StandardCharsets.UTF_8)
+    );
+
+    assertThat(HexFormat.of().formatHex(capturedRequest.encode())).isEqualTo(ENCODED_RECORD);
+  }
+}
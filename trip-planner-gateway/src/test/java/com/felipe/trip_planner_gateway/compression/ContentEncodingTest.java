@@ -0,0 +1,77 @@
+package com.felipe.trip_planner_gateway.compression;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ContentEncodingTest {
+
+  @Test
+  @DisplayName("negotiate - Should pick the accepted encoding with the highest quality value")
+  void negotiateByQuality() {
+    assertThat(ContentEncoding.negotiate("gzip")).isEqualTo(ContentEncoding.GZIP);
+    assertThat(ContentEncoding.negotiate("deflate")).isEqualTo(ContentEncoding.DEFLATE);
+    assertThat(ContentEncoding.negotiate("gzip;q=0.5, deflate")).isEqualTo(ContentEncoding.DEFLATE);
+    assertThat(ContentEncoding.negotiate("deflate;q=0.4, gzip;q=0.8")).isEqualTo(ContentEncoding.GZIP);
+    assertThat(ContentEncoding.negotiate("GZIP; Q=0.3, x-gzip;q=0.9, deflate;q=0.5")).isEqualTo(ContentEncoding.GZIP);
+  }
+
+  @Test
+  @DisplayName("negotiate - Should prefer gzip when both encodings have the same quality value")
+  void negotiatePrefersGzipOnTies() {
+    assertThat(ContentEncoding.negotiate("deflate, gzip")).isEqualTo(ContentEncoding.GZIP);
+    assertThat(ContentEncoding.negotiate("deflate;q=0.5, gzip;q=0.5")).isEqualTo(ContentEncoding.GZIP);
+  }
+
+  @Test
+  @DisplayName("negotiate - Should refuse an encoding with q=0 or an invalid quality value")
+  void negotiateRefusesZeroQuality() {
+    assertThat(ContentEncoding.negotiate("gzip;q=0")).isNull();
+    assertThat(ContentEncoding.negotiate("gzip;q=0, deflate")).isEqualTo(ContentEncoding.DEFLATE);
+    assertThat(ContentEncoding.negotiate("gzip;q=abc")).isNull();
+  }
+
+  @Test
+  @DisplayName("negotiate - Should not let identity;q=0 refuse the compressed encodings")
+  void negotiateWithIdentityRefused() {
+    assertThat(ContentEncoding.negotiate("identity;q=0, gzip")).isEqualTo(ContentEncoding.GZIP);
+    assertThat(ContentEncoding.negotiate("identity;q=0")).isNull();
+  }
+
+  @Test
+  @DisplayName("negotiate - Should apply the quality value of * to the encodings not listed")
+  void negotiateWithWildcard() {
+    assertThat(ContentEncoding.negotiate("*")).isEqualTo(ContentEncoding.GZIP);
+    assertThat(ContentEncoding.negotiate("*;q=0")).isNull();
+    assertThat(ContentEncoding.negotiate("gzip;q=0, *")).isEqualTo(ContentEncoding.DEFLATE);
+    assertThat(ContentEncoding.negotiate("deflate, *;q=0")).isEqualTo(ContentEncoding.DEFLATE);
+  }
+
+  @Test
+  @DisplayName("negotiate - Should return null when the client accepts neither encoding")
+  void negotiateReturnsNull() {
+    assertThat(ContentEncoding.negotiate(null)).isNull();
+    assertThat(ContentEncoding.negotiate("")).isNull();
+    assertThat(ContentEncoding.negotiate("br, zstd")).isNull();
+  }
+
+  @Test
+  @DisplayName("compress - Should produce a body that decompresses back to the original")
+  void compressRoundTrip() throws IOException {
+    byte[] body = "{\"destination\":\"Florianópolis\"}".repeat(50).getBytes(StandardCharsets.UTF_8);
+
+    try(InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(ContentEncoding.GZIP.compress(body, 6)));
+        InputStream deflate = new InflaterInputStream(new ByteArrayInputStream(ContentEncoding.DEFLATE.compress(body, 6)))) {
+      assertThat(gzip.readAllBytes()).isEqualTo(body);
+      assertThat(deflate.readAllBytes()).isEqualTo(body);
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipe.trip_planner_gateway.exceptions.BulkheadFullException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class BulkheadFilterTest {
+
+  private final Route route = Route.async()
+    .id("trip-planner-trip-service")
+    .uri("lb://TRIP-PLANNER-TRIP-SERVICE")
+    .predicate(exchange -> true)
+    .build();
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final GatewayExceptionHandler exceptionHandler = new GatewayExceptionHandler(this.objectMapper);
+
+  @Test
+  @DisplayName("filter - Should answer 503 with Retry-After when every permit of the route is in use")
+  void filterRejectsWhenFull() throws Exception {
+    GatewayFilter filter = this.filter(1);
+    GatewayFilterChain slowChain = exchange -> Mono.never();
+    Disposable inFlight = filter.filter(this.exchange(), slowChain).subscribe();
+    MockServerWebExchange rejected = this.exchange();
+
+    filter.filter(rejected, slowChain)
+      .onErrorResume(ex -> this.exceptionHandler.handle(rejected, ex))
+      .block();
+    inFlight.dispose();
+
+    JsonNode body = this.objectMapper.readTree(rejected.getResponse().getBodyAsString().block());
+    assertThat(rejected.getResponse().getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+    assertThat(rejected.getResponse().getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+    assertThat(body.get("status").asText()).isEqualTo("Error");
+    assertThat(body.get("code").asInt()).isEqualTo(503);
+    assertThat(body.get("message").asText()).isEqualTo(new BulkheadFullException().getMessage());
+  }
+
+  @Test
+  @DisplayName("filter - Should release the permit when the request completes")
+  void filterReleasesPermitOnCompletion() {
+    GatewayFilter filter = this.filter(1);
+    AtomicInteger forwarded = new AtomicInteger();
+    GatewayFilterChain chain = exchange -> Mono.fromRunnable(forwarded::incrementAndGet);
+
+    filter.filter(this.exchange(), chain).block();
+    filter.filter(this.exchange(), chain).block();
+
+    assertThat(forwarded).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("filter - Should release the permit when the chain throws before returning a Mono")
+  void filterReleasesPermitOnSynchronousError() {
+    GatewayFilter filter = this.filter(1);
+    GatewayFilterChain failingChain = exchange -> {
+      throw new IllegalStateException("chain failed");
+    };
+
+    assertThatThrownBy(() -> filter.filter(this.exchange(), failingChain).block())
+      .isInstanceOf(IllegalStateException.class);
+    filter.filter(this.exchange(), exchange -> Mono.empty()).block();
+  }
+
+  @Test
+  @DisplayName("filter - Should keep the permits in use when the route filters are rebuilt")
+  void filterKeepsPermitsAcrossRefresh() {
+    BulkheadFilter factory = new BulkheadFilter();
+    Disposable inFlight = this.filter(factory, 1).filter(this.exchange(), exchange -> Mono.never()).subscribe();
+
+    assertThatThrownBy(() -> this.filter(factory, 1).filter(this.exchange(), exchange -> Mono.empty()).block())
+      .isInstanceOf(BulkheadFullException.class);
+    inFlight.dispose();
+  }
+
+  private GatewayFilter filter(int maxConcurrentRequests) {
+    return this.filter(new BulkheadFilter(), maxConcurrentRequests);
+  }
+
+  private GatewayFilter filter(BulkheadFilter factory, int maxConcurrentRequests) {
+    BulkheadFilter.Config config = new BulkheadFilter.Config();
+    config.setMaxConcurrentRequests(maxConcurrentRequests);
+    return factory.apply(config);
+  }
+
+  private MockServerWebExchange exchange() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/trips"));
+    exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, this.route);
+    return exchange;
+  }
+}
@@ -0,0 +1,72 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.RateLimitExceededException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+public class RateLimitFilterTest {
+
+  private final GatewayFilterChain chain = exchange -> Mono.empty();
+
+  @Test
+  @DisplayName("filter - Should keep consuming the same bucket when the route filters are rebuilt")
+  void filterKeepsBucketsAcrossRefresh() {
+    RateLimitFilter factory = new RateLimitFilter(Duration.ofMinutes(10), 1000);
+
+    this.filter(factory, "trip-planner-trip-service", 1, 1).filter(this.exchange(), this.chain).block();
+
+    GatewayFilter rebuilt = this.filter(factory, "trip-planner-trip-service", 1, 1);
+    assertThatThrownBy(() -> rebuilt.filter(this.exchange(), this.chain).block())
+      .isInstanceOf(RateLimitExceededException.class);
+  }
+
+  @Test
+  @DisplayName("filter - Should limit the same user independently on every route")
+  void filterLimitsEachRouteIndependently() {
+    RateLimitFilter factory = new RateLimitFilter(Duration.ofMinutes(10), 1000);
+
+    this.filter(factory, "trip-planner-trip-service", 1, 1).filter(this.exchange(), this.chain).block();
+
+    GatewayFilter otherRoute = this.filter(factory, "trip-planner-user-service", 1, 1);
+    assertThatCode(() -> otherRoute.filter(this.exchange(), this.chain).block())
+      .doesNotThrowAnyException();
+  }
+
+  @Test
+  @DisplayName("apply - Should reject a route whose replenishRate or burstCapacity can't build a bucket")
+  void applyRejectsInvalidLimits() {
+    RateLimitFilter factory = new RateLimitFilter(Duration.ofMinutes(10), 1000);
+
+    assertThatThrownBy(() -> this.filter(factory, "trip-planner-trip-service", 0, 1))
+      .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> this.filter(factory, "trip-planner-trip-service", 1, 0))
+      .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private GatewayFilter filter(RateLimitFilter factory, String routeId, long replenishRate, long burstCapacity) {
+    RateLimitFilter.Config config = new RateLimitFilter.Config();
+    config.setRouteId(routeId);
+    config.setReplenishRate(replenishRate);
+    config.setBurstCapacity(burstCapacity);
+    return factory.apply(config);
+  }
+
+  private MockServerWebExchange exchange() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/trips"));
+    exchange.getAttributes().put(
+      AuthenticationFilter.VALIDATED_USER_ATTRIBUTE,
+      new ValidatedUserDTO("62dac895-a1f0-4140-b52b-4c12cb82c6ff", "User 1", "user1@email.com", null, null)
+    );
+    return exchange;
+  }
+}
@@ -0,0 +1,184 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.cache.CachedResponse;
+import com.felipe.trip_planner_gateway.cache.PendingCacheEntry;
+import com.felipe.trip_planner_gateway.cache.ResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class ResponseCacheFilterTest {
+
+  private static final String TRIP_PATH = "/api/trips/1c6f0e9b-7a21-4a3b-9d2a-0b5a3c4e8f7e";
+  private static final String CACHE_KEY = "trip-planner-trip-service\n" + TRIP_PATH + "\n\n";
+  private static final byte[] BODY = "{\"destination\":\"Florianópolis\"}".getBytes(StandardCharsets.UTF_8);
+
+  private final Route route = Route.async()
+    .id("trip-planner-trip-service")
+    .uri("lb://TRIP-PLANNER-TRIP-SERVICE")
+    .predicate(exchange -> true)
+    .build();
+  private final AtomicInteger forwarded = new AtomicInteger();
+  private final GatewayFilterChain chain = exchange -> {
+    this.forwarded.incrementAndGet();
+    return Mono.empty();
+  };
+  private ResponseCache responseCache;
+
+  @BeforeEach
+  void setUp() {
+    this.responseCache = new ResponseCache(new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(5));
+  }
+
+  @Test
+  @DisplayName("filter - Should serve a fresh cached response without forwarding the request")
+  void filterServesCachedResponse() {
+    CachedResponse cachedResponse = CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime());
+    this.responseCache.put(CACHE_KEY, cachedResponse);
+    MockServerWebExchange exchange = this.exchange(MockServerHttpRequest.get(TRIP_PATH));
+
+    this.filter(Duration.ofSeconds(30)).filter(exchange, this.chain).block();
+
+    assertThat(this.forwarded).hasValue(0);
+    assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat(exchange.getResponse().getHeaders().getETag()).isEqualTo(cachedResponse.etag());
+    assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("filter - Should answer 304 when If-None-Match matches the cached ETag")
+  void filterAnswersNotModified() {
+    CachedResponse cachedResponse = CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime());
+    this.responseCache.put(CACHE_KEY, cachedResponse);
+    MockServerWebExchange exchange = this.exchange(
+      MockServerHttpRequest.get(TRIP_PATH).header(HttpHeaders.IF_NONE_MATCH, cachedResponse.etag())
+    );
+
+    this.filter(Duration.ofSeconds(30)).filter(exchange, this.chain).block();
+
+    assertThat(this.forwarded).hasValue(0);
+    assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+  }
+
+  @Test
+  @DisplayName("filter - Should send the gzipped body only when gzip is the negotiated encoding")
+  void filterNegotiatesGzip() {
+    this.responseCache.put(CACHE_KEY, CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime()));
+    MockServerWebExchange gzipExchange = this.exchange(
+      MockServerHttpRequest.get(TRIP_PATH).header(HttpHeaders.ACCEPT_ENCODING, "deflate;q=0.5, gzip")
+    );
+    MockServerWebExchange refusedExchange = this.exchange(
+      MockServerHttpRequest.get(TRIP_PATH).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+    );
+
+    this.filter(Duration.ofSeconds(30)).filter(gzipExchange, this.chain).block();
+    this.filter(Duration.ofSeconds(30)).filter(refusedExchange, this.chain).block();
+
+    assertThat(gzipExchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+    assertThat(refusedExchange.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isNull();
+    assertThat(refusedExchange.getResponse().getBodyAsString().block()).isEqualTo(new String(BODY, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  @DisplayName("filter - Should forward the request and mark it for caching when the cached response expired")
+  void filterForwardsExpiredResponse() {
+    this.responseCache.put(CACHE_KEY, CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime() - Duration.ofMinutes(1).toNanos()));
+    MockServerWebExchange exchange = this.exchange(MockServerHttpRequest.get(TRIP_PATH));
+
+    this.filter(Duration.ofSeconds(30)).filter(exchange, this.chain).block();
+
+    PendingCacheEntry pendingCacheEntry = exchange.getAttribute(ResponseCacheFilter.PENDING_CACHE_ENTRY_ATTRIBUTE);
+    assertThat(this.forwarded).hasValue(1);
+    assertThat(pendingCacheEntry).isNotNull();
+    assertThat(pendingCacheEntry.key()).isEqualTo(CACHE_KEY);
+    assertThat(this.responseCache.get(CACHE_KEY)).isNull();
+  }
+
+  @Test
+  @DisplayName("filter - Should invalidate the responses of the scope read while a write was running")
+  void filterInvalidatesScopeAfterWrite() {
+    GatewayFilter filter = this.filter(Duration.ofSeconds(30));
+    MockServerWebExchange write = this.exchange(MockServerHttpRequest.put(TRIP_PATH));
+    GatewayFilterChain writeChain = exchange -> {
+      // A GET received while the write is running, whose response is stored afterwards
+      this.responseCache.put(CACHE_KEY, CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime()));
+      return Mono.empty();
+    };
+
+    filter.filter(write, writeChain).block();
+    MockServerWebExchange exchange = this.exchange(MockServerHttpRequest.get(TRIP_PATH));
+    filter.filter(exchange, this.chain).block();
+
+    assertThat(this.forwarded).hasValue(1);
+    assertThat((PendingCacheEntry) exchange.getAttribute(ResponseCacheFilter.PENDING_CACHE_ENTRY_ATTRIBUTE)).isNotNull();
+  }
+
+  @Test
+  @DisplayName("filter - Should forward HEAD and OPTIONS requests without invalidating the cached responses")
+  void filterKeepsCacheOnSafeMethods() {
+    GatewayFilter filter = this.filter(Duration.ofSeconds(30));
+    this.responseCache.put(CACHE_KEY, CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime()));
+
+    MockServerWebExchange exchange = this.exchange(MockServerHttpRequest.get(TRIP_PATH));
+
+    filter.filter(this.exchange(MockServerHttpRequest.head(TRIP_PATH)), this.chain).block();
+    filter.filter(this.exchange(MockServerHttpRequest.options(TRIP_PATH)), this.chain).block();
+    filter.filter(exchange, this.chain).block();
+
+    assertThat(this.forwarded).hasValue(2);
+    assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+  }
+
+  @Test
+  @DisplayName("filter - Should only invalidate on unsafe requests to the invalidating paths when they are configured")
+  void filterInvalidatesOnlyInvalidatingPaths() {
+    ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+    config.setPaths(List.of("/api/trips/{tripId}"));
+    config.setInvalidatingPaths(List.of("/api/trips/**"));
+    GatewayFilter filter = new ResponseCacheFilter(this.responseCache).apply(config);
+    this.responseCache.put(CACHE_KEY, CachedResponse.of(new HttpHeaders(), BODY, System.nanoTime()));
+
+    filter.filter(this.exchange(MockServerHttpRequest.post("/api/auth/login")), this.chain).block();
+    MockServerWebExchange cached = this.exchange(MockServerHttpRequest.get(TRIP_PATH));
+    filter.filter(cached, this.chain).block();
+    filter.filter(this.exchange(MockServerHttpRequest.put(TRIP_PATH)), this.chain).block();
+    MockServerWebExchange invalidated = this.exchange(MockServerHttpRequest.get(TRIP_PATH));
+    filter.filter(invalidated, this.chain).block();
+
+    assertThat(cached.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+    assertThat((PendingCacheEntry) cached.getAttribute(ResponseCacheFilter.PENDING_CACHE_ENTRY_ATTRIBUTE)).isNull();
+    assertThat((PendingCacheEntry) invalidated.getAttribute(ResponseCacheFilter.PENDING_CACHE_ENTRY_ATTRIBUTE)).isNotNull();
+  }
+
+  private GatewayFilter filter(Duration timeToLive) {
+    ResponseCacheFilter.Config config = new ResponseCacheFilter.Config();
+    config.setPaths(List.of("/api/trips/{tripId}"));
+    config.setScope("/api/trips/{tripId}");
+    config.setTimeToLive(timeToLive);
+    return new ResponseCacheFilter(this.responseCache).apply(config);
+  }
+
+  private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+    MockServerWebExchange exchange = MockServerWebExchange.from(request);
+    exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, this.route);
+    return exchange;
+  }
+}
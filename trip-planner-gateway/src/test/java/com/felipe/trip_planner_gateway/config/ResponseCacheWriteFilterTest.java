@@ -0,0 +1,64 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.cache.PendingCacheEntry;
+import com.felipe.trip_planner_gateway.cache.ResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ResponseCacheWriteFilterTest {
+
+  private static final String CACHE_KEY = "trip-planner-trip-service\n/api/trips\n\n";
+
+  private final ResponseCache responseCache = new ResponseCache(
+    new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(5)
+  );
+  private final ResponseCacheWriteFilter filter = new ResponseCacheWriteFilter(this.responseCache, DataSize.ofBytes(8));
+
+  @Test
+  @DisplayName("filter - Should store a response up to the maximum entry size")
+  void filterStoresSmallResponse() {
+    MockServerWebExchange exchange = this.exchange();
+
+    this.filter.filter(exchange, this.chain("1234", "5678")).block();
+
+    assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("12345678");
+    assertThat(this.responseCache.get(CACHE_KEY)).isNotNull();
+  }
+
+  @Test
+  @DisplayName("filter - Should stream a response above the maximum entry size without storing it")
+  void filterStreamsLargeResponse() {
+    MockServerWebExchange exchange = this.exchange();
+
+    this.filter.filter(exchange, this.chain("12345", "67890", "abc")).block();
+
+    assertThat(exchange.getResponse().getBodyAsString().block()).isEqualTo("1234567890abc");
+    assertThat(this.responseCache.get(CACHE_KEY)).isNull();
+  }
+
+  private GatewayFilterChain chain(String... chunks) {
+    return exchange -> {
+      exchange.getResponse().setStatusCode(HttpStatus.OK);
+      return exchange.getResponse().writeWith(Flux.fromArray(chunks)
+        .map(chunk -> exchange.getResponse().bufferFactory().wrap(chunk.getBytes(StandardCharsets.UTF_8))));
+    };
+  }
+
+  private MockServerWebExchange exchange() {
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/trips"));
+    exchange.getAttributes().put(ResponseCacheFilter.PENDING_CACHE_ENTRY_ATTRIBUTE, new PendingCacheEntry(CACHE_KEY, System.nanoTime()));
+    return exchange;
+  }
+}
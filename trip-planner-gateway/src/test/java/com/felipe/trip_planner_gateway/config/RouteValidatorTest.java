@@ -0,0 +1,73 @@
+package com.felipe.trip_planner_gateway.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RouteValidatorTest {
+
+  private RouteValidator routeValidator;
+
+  @BeforeEach
+  void setUp() {
+    this.routeValidator = new RouteValidator(new RouteSecurityProperties(List.of(
+      "POST /auth/register",
+      "post /auth/login",
+      "GET /public/**",
+      "/health"
+    )));
+  }
+
+  @Test
+  @DisplayName("isSecured - Should open the endpoints registered for the request method")
+  void isSecuredReturnsFalseForOpenEndpoints() {
+    assertThat(this.isSecured(HttpMethod.POST, "/auth/register")).isFalse();
+    assertThat(this.isSecured(HttpMethod.POST, "/auth/login")).isFalse();
+    assertThat(this.isSecured(HttpMethod.GET, "/public/trips/summary")).isFalse();
+  }
+
+  @Test
+  @DisplayName("isSecured - Should open the endpoints registered without a method for every method")
+  void isSecuredReturnsFalseForEveryMethod() {
+    assertThat(this.isSecured(HttpMethod.GET, "/health")).isFalse();
+    assertThat(this.isSecured(HttpMethod.DELETE, "/health")).isFalse();
+    assertThat(this.isSecured(HttpMethod.valueOf("PROPFIND"), "/health")).isFalse();
+  }
+
+  @Test
+  @DisplayName("isSecured - Should secure an open path requested with another method")
+  void isSecuredReturnsTrueForOtherMethods() {
+    assertThat(this.isSecured(HttpMethod.GET, "/auth/login")).isTrue();
+    assertThat(this.isSecured(HttpMethod.DELETE, "/auth/register")).isTrue();
+    assertThat(this.isSecured(HttpMethod.POST, "/public/trips")).isTrue();
+    assertThat(this.isSecured(HttpMethod.valueOf("PROPFIND"), "/auth/login")).isTrue();
+  }
+
+  @Test
+  @DisplayName("isSecured - Should secure every path that doesn't match an open endpoint as a whole")
+  void isSecuredReturnsTrueForOtherPaths() {
+    assertThat(this.isSecured(HttpMethod.POST, "/auth/login/extra")).isTrue();
+    assertThat(this.isSecured(HttpMethod.POST, "/users/auth/login")).isTrue();
+    assertThat(this.isSecured(HttpMethod.POST, "/auth/logout")).isTrue();
+    assertThat(this.isSecured(HttpMethod.GET, "/trips/0b5a3c4e-8f7e-4a3b-9d2a-1c6f0e9b7a21")).isTrue();
+    assertThat(this.isSecured(HttpMethod.GET, "/healthcheck")).isTrue();
+  }
+
+  @Test
+  @DisplayName("isSecured - Should secure every endpoint when none is open")
+  void isSecuredWithoutOpenEndpoints() {
+    RouteValidator closedRouteValidator = new RouteValidator(new RouteSecurityProperties(null));
+
+    assertThat(closedRouteValidator.isSecured(MockServerHttpRequest.post("/auth/login").build())).isTrue();
+  }
+
+  private boolean isSecured(HttpMethod method, String path) {
+    return this.routeValidator.isSecured(MockServerHttpRequest.method(method, path).build());
+  }
+}
@@ -0,0 +1,81 @@
+package com.felipe.trip_planner_gateway.config;
+
+import com.felipe.trip_planner_gateway.capture.CapturedRequest;
+import com.felipe.trip_planner_gateway.capture.TrafficCaptureLog;
+import com.felipe.trip_planner_gateway.capture.TrafficCaptureProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class TrafficCaptureFilterTest {
+
+  private final TrafficCaptureLog trafficCaptureLog = mock(TrafficCaptureLog.class);
+  private final TrafficCaptureFilter filter = new TrafficCaptureFilter(this.trafficCaptureLog, new TrafficCaptureProperties(
+    true, 1.0, Path.of("traffic-capture"), DataSize.ofMegabytes(1), DataSize.ofBytes(16), List.of("Authorization"), null
+  ));
+  // Reads the whole body, like the upstream call would
+  private final GatewayFilterChain chain = exchange -> DataBufferUtils.join(exchange.getRequest().getBody())
+    .doOnNext(DataBufferUtils::release)
+    .then();
+
+  @Test
+  @DisplayName("filter - Should never capture the excluded paths, whose bodies carry passwords")
+  void filterSkipsExcludedPaths() {
+    this.filter.filter(this.exchange(MockServerHttpRequest.post("/auth/login"), "{\"password\":\"1\"}"), this.chain).block();
+    this.filter.filter(this.exchange(MockServerHttpRequest.put("/users/1"), "{\"password\":\"1\"}"), this.chain).block();
+
+    verify(this.trafficCaptureLog, never()).append(any(CapturedRequest.class));
+  }
+
+  @Test
+  @DisplayName("filter - Should capture a chunked body read through by the upstream call, without the secret headers")
+  void filterCapturesChunkedBody() {
+    MockServerWebExchange exchange = this.exchange(
+      MockServerHttpRequest.post("/trips").header(HttpHeaders.AUTHORIZATION, "Bearer token"),
+      "{\"a\":", "\"b\"}"
+    );
+
+    this.filter.filter(exchange, this.chain).block();
+
+    ArgumentCaptor<CapturedRequest> captured = ArgumentCaptor.forClass(CapturedRequest.class);
+    verify(this.trafficCaptureLog, times(1)).append(captured.capture());
+    assertThat(new String(captured.getValue().body(), StandardCharsets.UTF_8)).isEqualTo("{\"a\":\"b\"}");
+    assertThat(captured.getValue().headers()).noneMatch(header -> header.getKey().equals(HttpHeaders.AUTHORIZATION));
+  }
+
+  @Test
+  @DisplayName("filter - Should stop recording a chunked body as soon as it exceeds the maximum size")
+  void filterSkipsOversizedChunkedBody() {
+    MockServerWebExchange exchange = this.exchange(MockServerHttpRequest.post("/trips"), "0123456789", "0123456789");
+
+    this.filter.filter(exchange, this.chain).block();
+
+    verify(this.trafficCaptureLog, never()).append(any(CapturedRequest.class));
+  }
+
+  private MockServerWebExchange exchange(MockServerHttpRequest.BodyBuilder request, String... chunks) {
+    Flux<DataBuffer> body = Flux.fromArray(chunks)
+      .map(chunk -> DefaultDataBufferFactory.sharedInstance.wrap(chunk.getBytes(StandardCharsets.UTF_8)));
+    return MockServerWebExchange.from(request.header(HttpHeaders.TRANSFER_ENCODING, "chunked").body(body));
+  }
+}
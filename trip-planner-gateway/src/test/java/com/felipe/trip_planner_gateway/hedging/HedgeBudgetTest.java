@@ -0,0 +1,46 @@
+package com.felipe.trip_planner_gateway.hedging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HedgeBudgetTest {
+
+  @Test
+  @DisplayName("tryWithdraw - Should refuse a hedge while the deposits don't add up to a whole token")
+  void tryWithdrawFailsByEmptyBudget() {
+    HedgeBudget hedgeBudget = new HedgeBudget(10, 50);
+    for(int i = 0; i < 9; i++) {
+      hedgeBudget.deposit();
+    }
+
+    assertThat(hedgeBudget.tryWithdraw()).isFalse();
+  }
+
+  @Test
+  @DisplayName("tryWithdraw - Should allow one hedge for every 100 / budgetPercent requests")
+  void tryWithdrawSuccess() {
+    HedgeBudget hedgeBudget = new HedgeBudget(10, 50);
+    for(int i = 0; i < 20; i++) {
+      hedgeBudget.deposit();
+    }
+
+    assertThat(hedgeBudget.tryWithdraw()).isTrue();
+    assertThat(hedgeBudget.tryWithdraw()).isTrue();
+    assertThat(hedgeBudget.tryWithdraw()).isFalse();
+  }
+
+  @Test
+  @DisplayName("deposit - Should not let the balance grow past maxBalance tokens")
+  void depositCapsBalance() {
+    HedgeBudget hedgeBudget = new HedgeBudget(50, 2);
+    for(int i = 0; i < 100; i++) {
+      hedgeBudget.deposit();
+    }
+
+    assertThat(hedgeBudget.tryWithdraw()).isTrue();
+    assertThat(hedgeBudget.tryWithdraw()).isTrue();
+    assertThat(hedgeBudget.tryWithdraw()).isFalse();
+  }
+}
@@ -0,0 +1,45 @@
+package com.felipe.trip_planner_gateway.hedging;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LatencyTrackerTest {
+
+  @Test
+  @DisplayName("getP95Nanos - Should be negative until enough samples are recorded")
+  void getP95NanosWithoutEnoughSamples() {
+    LatencyTracker latencyTracker = new LatencyTracker();
+    for(int i = 0; i < 127; i++) {
+      latencyTracker.record(1_000);
+    }
+
+    assertThat(latencyTracker.getP95Nanos()).isNegative();
+  }
+
+  @Test
+  @DisplayName("getP95Nanos - Should return the 95th percentile of the recorded samples")
+  void getP95NanosOfRecordedSamples() {
+    LatencyTracker latencyTracker = new LatencyTracker();
+    for(int i = 1; i <= 1024; i++) {
+      latencyTracker.record(i);
+    }
+
+    assertThat(latencyTracker.getP95Nanos()).isEqualTo(973);
+  }
+
+  @Test
+  @DisplayName("getP95Nanos - Should only consider the latest samples once the ring is full")
+  void getP95NanosOverwritesOldestSamples() {
+    LatencyTracker latencyTracker = new LatencyTracker();
+    for(int i = 0; i < 1024; i++) {
+      latencyTracker.record(1_000_000);
+    }
+    for(int i = 0; i < 1024; i++) {
+      latencyTracker.record(1_000);
+    }
+
+    assertThat(latencyTracker.getP95Nanos()).isEqualTo(1_000);
+  }
+}
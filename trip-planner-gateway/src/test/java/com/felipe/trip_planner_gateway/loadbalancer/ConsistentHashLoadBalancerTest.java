@@ -0,0 +1,184 @@
+package com.felipe.trip_planner_gateway.loadbalancer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultRequest;
+import org.springframework.cloud.client.loadbalancer.RequestData;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConsistentHashLoadBalancerTest {
+
+  private static final String SERVICE_ID = "TRIP-PLANNER-TRIP-SERVICE";
+  private static final String TRIP_ID = "1c6f0e9b-7a21-4a3b-9d2a-0b5a3c4e8f7e";
+
+  private final InstanceListSupplier supplier = new InstanceListSupplier();
+  private ConsistentHashLoadBalancer loadBalancer;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ObjectProvider<ServiceInstanceListSupplier> provider = mock(ObjectProvider.class);
+    when(provider.getIfAvailable(any())).thenReturn(this.supplier);
+    this.loadBalancer = new ConsistentHashLoadBalancer(provider, SERVICE_ID, 160);
+  }
+
+  @Test
+  @DisplayName("extractTripId - Should extract the trip id that follows the trips segment")
+  void extractTripIdSuccess() {
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips/" + TRIP_ID)).isEqualTo(TRIP_ID);
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips/" + TRIP_ID + "/participants")).isEqualTo(TRIP_ID);
+  }
+
+  @Test
+  @DisplayName("extractTripId - Should return null when the path has no valid trip id")
+  void extractTripIdReturnsNull() {
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips")).isNull();
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips/")).isNull();
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/participants/" + TRIP_ID)).isNull();
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips/" + TRIP_ID.substring(1))).isNull();
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips/" + TRIP_ID.replace('-', '0'))).isNull();
+    assertThat(ConsistentHashLoadBalancer.extractTripId("/api/trips/" + TRIP_ID.replace('a', 'z'))).isNull();
+  }
+
+  @Test
+  @DisplayName("choose - Should always send the requests of the same trip to the same instance")
+  void chooseIsStickyByTrip() {
+    this.supplier.instances = instances(5);
+
+    ServiceInstance first = this.choose("/api/trips/" + TRIP_ID, false);
+
+    for(int i = 0; i < 10; i++) {
+      assertThat(this.choose("/api/trips/" + TRIP_ID + "/participants", false)).isSameAs(first);
+    }
+  }
+
+  @Test
+  @DisplayName("choose - Should send a hedged request to an instance other than the trip's owner")
+  void chooseHedgedRequestSkipsOwner() {
+    this.supplier.instances = instances(3);
+
+    for(String tripId : tripIds(50)) {
+      ServiceInstance owner = this.choose("/api/trips/" + tripId, false);
+      assertThat(this.choose("/api/trips/" + tripId, true)).isNotSameAs(owner);
+    }
+  }
+
+  @Test
+  @DisplayName("choose - Should spread requests without a trip id with round-robin")
+  void chooseRoundRobinWithoutTripId() {
+    this.supplier.instances = instances(3);
+
+    List<ServiceInstance> chosen = IntStream.range(0, 6).mapToObj(i -> this.choose("/api/trips", false)).toList();
+
+    assertThat(chosen).containsExactlyElementsOf(List.of(
+      this.supplier.instances.get(0), this.supplier.instances.get(1), this.supplier.instances.get(2),
+      this.supplier.instances.get(0), this.supplier.instances.get(1), this.supplier.instances.get(2)
+    ));
+  }
+
+  @Test
+  @DisplayName("choose - Should only move trips to the new instance when an instance is added")
+  void chooseKeepsRingStableWhenInstanceIsAdded() {
+    List<String> tripIds = tripIds(2000);
+    this.supplier.instances = instances(5);
+    Map<String, String> before = this.owners(tripIds);
+
+    this.supplier.instances = instances(6);
+    Map<String, String> after = this.owners(tripIds);
+
+    long moved = tripIds.stream().filter(tripId -> !before.get(tripId).equals(after.get(tripId))).count();
+    assertThat(tripIds).allSatisfy(tripId -> {
+      if(!before.get(tripId).equals(after.get(tripId))) {
+        assertThat(after.get(tripId)).isEqualTo("instance-5");
+      }
+    });
+    assertThat(moved).isPositive().isLessThan(tripIds.size() / 3);
+  }
+
+  @Test
+  @DisplayName("choose - Should only move the trips of the removed instance when an instance is removed")
+  void chooseKeepsRingStableWhenInstanceIsRemoved() {
+    List<String> tripIds = tripIds(2000);
+    this.supplier.instances = instances(5);
+    Map<String, String> before = this.owners(tripIds);
+
+    this.supplier.instances = new ArrayList<>(instances(5));
+    this.supplier.instances.remove(2);
+    Map<String, String> after = this.owners(tripIds);
+
+    assertThat(tripIds).allSatisfy(tripId -> {
+      if(!before.get(tripId).equals("instance-2")) {
+        assertThat(after.get(tripId)).isEqualTo(before.get(tripId));
+      } else {
+        assertThat(after.get(tripId)).isNotEqualTo("instance-2");
+      }
+    });
+  }
+
+  private Map<String, String> owners(List<String> tripIds) {
+    Map<String, String> owners = new HashMap<>();
+    tripIds.forEach(tripId -> owners.put(tripId, this.choose("/api/trips/" + tripId, false).getInstanceId()));
+    return owners;
+  }
+
+  private ServiceInstance choose(String path, boolean hedged) {
+    HttpHeaders headers = new HttpHeaders();
+    if(hedged) {
+      headers.set(ConsistentHashLoadBalancer.HEDGED_REQUEST_HEADER, "true");
+    }
+    RequestData requestData = new RequestData(
+      HttpMethod.GET,
+      URI.create("http://" + SERVICE_ID + path),
+      headers,
+      new LinkedMultiValueMap<>(),
+      new HashMap<>()
+    );
+    return this.loadBalancer.choose(new DefaultRequest<>(new RequestDataContext(requestData))).block().getServer();
+  }
+
+  private static List<ServiceInstance> instances(int count) {
+    return IntStream.range(0, count)
+      .<ServiceInstance>mapToObj(i -> new DefaultServiceInstance("instance-" + i, SERVICE_ID, "10.0.0." + (i + 1), 8082, false))
+      .toList();
+  }
+
+  private static List<String> tripIds(int count) {
+    return IntStream.range(0, count).mapToObj(i -> UUID.nameUUIDFromBytes(("trip-" + i).getBytes()).toString()).toList();
+  }
+
+  private static class InstanceListSupplier implements ServiceInstanceListSupplier {
+    private List<ServiceInstance> instances = List.of();
+
+    @Override
+    public String getServiceId() {
+      return SERVICE_ID;
+    }
+
+    @Override
+    public Flux<List<ServiceInstance>> get() {
+      return Flux.just(this.instances);
+    }
+  }
+}
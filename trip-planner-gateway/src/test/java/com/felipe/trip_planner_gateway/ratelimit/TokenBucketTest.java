@@ -0,0 +1,60 @@
+package com.felipe.trip_planner_gateway.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TokenBucketTest {
+
+  private static final long START = 1_000_000_000_000L;
+  private static final long EMISSION_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
+
+  @Test
+  @DisplayName("tryConsume - Should accept a burst of burstCapacity requests at once and reject the next one")
+  void tryConsumeAcceptsBurst() {
+    TokenBucket tokenBucket = new TokenBucket(10, 20, START);
+
+    for(int i = 0; i < 20; i++) {
+      assertThat(tokenBucket.tryConsume(START)).isZero();
+    }
+    assertThat(tokenBucket.tryConsume(START)).isPositive();
+  }
+
+  @Test
+  @DisplayName("tryConsume - Should return how long until the next token is available when the bucket is empty")
+  void tryConsumeReturnsRetryAfter() {
+    TokenBucket tokenBucket = new TokenBucket(10, 2, START);
+    tokenBucket.tryConsume(START);
+    tokenBucket.tryConsume(START);
+
+    assertThat(tokenBucket.tryConsume(START)).isEqualTo(EMISSION_INTERVAL);
+    assertThat(tokenBucket.tryConsume(START + EMISSION_INTERVAL / 4)).isEqualTo(EMISSION_INTERVAL * 3 / 4);
+  }
+
+  @Test
+  @DisplayName("tryConsume - Should refill one token per emission interval")
+  void tryConsumeRefills() {
+    TokenBucket tokenBucket = new TokenBucket(10, 2, START);
+    tokenBucket.tryConsume(START);
+    tokenBucket.tryConsume(START);
+
+    assertThat(tokenBucket.tryConsume(START + EMISSION_INTERVAL)).isZero();
+    assertThat(tokenBucket.tryConsume(START + EMISSION_INTERVAL)).isPositive();
+    assertThat(tokenBucket.tryConsume(START + EMISSION_INTERVAL * 2)).isZero();
+  }
+
+  @Test
+  @DisplayName("tryConsume - Should not accumulate more than burstCapacity tokens while idle")
+  void tryConsumeCapsRefillAtBurstCapacity() {
+    TokenBucket tokenBucket = new TokenBucket(10, 3, START);
+    long later = START + TimeUnit.MINUTES.toNanos(1);
+
+    for(int i = 0; i < 3; i++) {
+      assertThat(tokenBucket.tryConsume(later)).isZero();
+    }
+    assertThat(tokenBucket.tryConsume(later)).isEqualTo(EMISSION_INTERVAL);
+  }
+}
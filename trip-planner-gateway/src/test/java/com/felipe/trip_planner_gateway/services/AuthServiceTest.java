@@ -0,0 +1,145 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthServiceTest {
+
+  private static final String USER_ID = "62dac895-a1f0-4140-b52b-4c12cb82c6ff";
+
+  @Mock
+  ReactorLoadBalancerExchangeFilterFunction loadBalancerFilter;
+
+  @Mock
+  JwtService jwtService;
+
+  @Mock
+  TokenBatchValidator tokenBatchValidator;
+
+  @Mock(strictness = Mock.Strictness.LENIENT)
+  RevokedTokens revokedTokens;
+
+  private AuthService authService;
+  private ValidatedUserDTO validatedUser;
+  private String token;
+
+  @BeforeEach
+  void setUp() {
+    this.authService = new AuthService(
+      WebClient.builder(),
+      this.loadBalancerFilter,
+      this.jwtService,
+      this.tokenBatchValidator,
+      this.revokedTokens,
+      new IdentityHeaderSigner("test-identity-key"),
+      new SimpleMeterRegistry(),
+      false,
+      Duration.ofSeconds(1),
+      100,
+      Duration.ofMinutes(5)
+    );
+    this.validatedUser = new ValidatedUserDTO(USER_ID, "User 1", "user1@email.com", null, null);
+    this.token = JWT.create()
+      .withJWTId("0b5a3c4e-8f7e-4a3b-9d2a-1c6f0e9b7a21")
+      .withSubject("user1@email.com")
+      .withExpiresAt(Instant.now().plus(Duration.ofHours(1)))
+      .withClaim("userId", USER_ID)
+      .withClaim("name", "User 1")
+      .withClaim("tokenVersion", 0)
+      .sign(Algorithm.HMAC256("test-key"));
+  }
+
+  @Test
+  @DisplayName("validateToken - Should validate the token locally once and serve the next validations from the cache")
+  void validateTokenSuccess() {
+    when(this.jwtService.isEnabled()).thenReturn(true);
+    when(this.jwtService.validateToken(this.token)).thenReturn(this.validatedUser);
+
+    StepVerifier.create(this.authService.validateToken(this.token)).expectNext(this.validatedUser).verifyComplete();
+    StepVerifier.create(this.authService.validateToken(this.token)).expectNext(this.validatedUser).verifyComplete();
+
+    verify(this.jwtService, times(1)).validateToken(this.token);
+  }
+
+  @Test
+  @DisplayName("validateToken - Should reject a token whose version was revoked, even if its signature is valid")
+  void validateTokenFailsByRevokedVersion() {
+    when(this.jwtService.isEnabled()).thenReturn(true);
+    when(this.jwtService.validateToken(this.token)).thenReturn(this.validatedUser);
+    when(this.revokedTokens.isRevoked(USER_ID, 0)).thenReturn(true);
+
+    StepVerifier.create(this.authService.validateToken(this.token))
+      .expectErrorSatisfies(e -> assertThat(e)
+        .isInstanceOf(AuthValidationException.class)
+        .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido"))
+      .verify();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should reject a cached token once its version is revoked")
+  void validateTokenFailsByVersionRevokedAfterCaching() {
+    when(this.jwtService.isEnabled()).thenReturn(true);
+    when(this.jwtService.validateToken(this.token)).thenReturn(this.validatedUser);
+
+    StepVerifier.create(this.authService.validateToken(this.token)).expectNext(this.validatedUser).verifyComplete();
+
+    when(this.revokedTokens.isRevoked(USER_ID, 0)).thenReturn(true);
+
+    StepVerifier.create(this.authService.validateToken(this.token))
+      .expectError(AuthValidationException.class)
+      .verify();
+    verify(this.jwtService, times(1)).validateToken(this.token);
+  }
+
+  @Test
+  @DisplayName("validateToken - Should reject a cached token once its id is revoked")
+  void validateTokenFailsByTokenIdRevokedAfterCaching() {
+    when(this.jwtService.isEnabled()).thenReturn(true);
+    when(this.jwtService.validateToken(this.token)).thenReturn(this.validatedUser);
+
+    StepVerifier.create(this.authService.validateToken(this.token)).expectNext(this.validatedUser).verifyComplete();
+
+    when(this.revokedTokens.isRevoked("0b5a3c4e-8f7e-4a3b-9d2a-1c6f0e9b7a21")).thenReturn(true);
+
+    StepVerifier.create(this.authService.validateToken(this.token))
+      .expectError(AuthValidationException.class)
+      .verify();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should validate on the user-service instead of the cache while the revocations are stale")
+  void validateTokenBypassesCacheWhenRevocationsAreStale() {
+    when(this.jwtService.isEnabled()).thenReturn(true);
+    when(this.jwtService.validateToken(this.token)).thenReturn(this.validatedUser);
+
+    StepVerifier.create(this.authService.validateToken(this.token)).expectNext(this.validatedUser).verifyComplete();
+
+    when(this.revokedTokens.isStale()).thenReturn(true);
+
+    StepVerifier.create(this.authService.validateToken(this.token))
+      .expectError(AuthValidationException.class)
+      .verify();
+    verify(this.jwtService, times(1)).validateToken(this.token);
+  }
+}
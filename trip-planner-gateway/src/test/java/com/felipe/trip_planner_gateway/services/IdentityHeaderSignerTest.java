@@ -0,0 +1,27 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.felipe.trip_planner_gateway.loadbalancer.ConsistentHashLoadBalancer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IdentityHeaderSignerTest {
+
+  private final IdentityHeaderSigner identityHeaderSigner = new IdentityHeaderSigner("test-identity-signing-key");
+
+  @Test
+  @DisplayName("removeIdentityHeaders - Should drop the identity headers and the hedge marker sent by the client")
+  void removeIdentityHeadersDropsClientHeaders() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(IdentityHeaderSigner.USER_ID, "62dac895-a1f0-4140-b52b-4c12cb82c6ff");
+    headers.set(IdentityHeaderSigner.SIGNATURE, "forged");
+    headers.set(ConsistentHashLoadBalancer.HEDGED_REQUEST_HEADER, "true");
+    headers.set(HttpHeaders.ACCEPT, "application/json");
+
+    this.identityHeaderSigner.removeIdentityHeaders(headers);
+
+    assertThat(headers.keySet()).containsExactly(HttpHeaders.ACCEPT);
+  }
+}
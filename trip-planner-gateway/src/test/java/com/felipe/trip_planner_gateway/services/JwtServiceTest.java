@@ -0,0 +1,174 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class JwtServiceTest {
+
+  private static final String KEY_ID = "key-1";
+  private static final String ISSUER = "trip-planner-user-service";
+  private static final String USER_ID = "62dac895-a1f0-4140-b52b-4c12cb82c6ff";
+
+  private static KeyPair keyPair;
+  private static KeyPair otherKeyPair;
+  private JwtService jwtService;
+
+  @BeforeAll
+  static void generateKeys() throws NoSuchAlgorithmException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    keyPair = generator.generateKeyPair();
+    otherKeyPair = generator.generateKeyPair();
+  }
+
+  @BeforeEach
+  void setUp() {
+    this.jwtService = new JwtService(
+      this.pem(keyPair),
+      KEY_ID,
+      ISSUER,
+      new JwtKeyRingProperties(null, null),
+      new DefaultResourceLoader()
+    );
+  }
+
+  @Test
+  @DisplayName("validateToken - Should build the user from the claims of a token signed with the configured key")
+  void validateTokenSuccess() {
+    String token = this.sign(this.token(), keyPair);
+
+    ValidatedUserDTO validatedUser = this.jwtService.validateToken(token);
+
+    assertThat(this.jwtService.isEnabled()).isTrue();
+    assertThat(validatedUser.id()).isEqualTo(USER_ID);
+    assertThat(validatedUser.name()).isEqualTo("User 1");
+    assertThat(validatedUser.email()).isEqualTo("user1@email.com");
+  }
+
+  @Test
+  @DisplayName("validateToken - Should return null if the token was signed with another key id")
+  void validateTokenReturnsNullByOtherKeyId() {
+    String token = this.sign(this.token().withKeyId("key-2"), otherKeyPair);
+
+    assertThat(this.jwtService.validateToken(token)).isNull();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should return null if the token is missing the user claims")
+  void validateTokenReturnsNullByMissingClaims() {
+    String token = this.sign(
+      JWT.create()
+        .withKeyId(KEY_ID)
+        .withIssuer(ISSUER)
+        .withSubject("user1@email.com")
+        .withExpiresAt(Instant.now().plus(Duration.ofHours(1))),
+      keyPair
+    );
+
+    assertThat(this.jwtService.validateToken(token)).isNull();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should throw an AuthValidationException if the signature doesn't match the key")
+  void validateTokenFailsByBadSignature() {
+    String token = this.sign(this.token(), otherKeyPair);
+
+    assertThatThrownBy(() -> this.jwtService.validateToken(token))
+      .isInstanceOf(AuthValidationException.class)
+      .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido");
+  }
+
+  @Test
+  @DisplayName("validateToken - Should throw an AuthValidationException if the token is expired or from another issuer")
+  void validateTokenFailsByExpiredOrOtherIssuer() {
+    String expired = this.sign(this.token().withExpiresAt(Instant.now().minus(Duration.ofMinutes(5))), keyPair);
+    String otherIssuer = this.sign(this.token().withIssuer("another-service"), keyPair);
+
+    assertThatThrownBy(() -> this.jwtService.validateToken(expired)).isInstanceOf(AuthValidationException.class);
+    assertThatThrownBy(() -> this.jwtService.validateToken(otherIssuer)).isInstanceOf(AuthValidationException.class);
+  }
+
+  @Test
+  @DisplayName("validateToken - Should throw an AuthValidationException if the token is malformed")
+  void validateTokenFailsByMalformedToken() {
+    assertThatThrownBy(() -> this.jwtService.validateToken("not-a-token"))
+      .isInstanceOf(AuthValidationException.class)
+      .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido");
+  }
+
+  @Test
+  @DisplayName("isEnabled - Should be disabled when no public key is configured")
+  void isEnabledWithoutPublicKey() {
+    JwtService disabledJwtService = new JwtService(
+      "",
+      KEY_ID,
+      ISSUER,
+      new JwtKeyRingProperties(null, null),
+      new DefaultResourceLoader()
+    );
+
+    assertThat(disabledJwtService.isEnabled()).isFalse();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should verify tokens signed with a key of the key ring, until its grace window is over")
+  void validateTokenWithKeyRing() {
+    JwtService keyRingJwtService = new JwtService(
+      this.pem(keyPair),
+      KEY_ID,
+      ISSUER,
+      new JwtKeyRingProperties(Duration.ofHours(2), List.of(
+        new JwtKeyRingProperties.VerificationKey("key-2", this.pem(otherKeyPair), null),
+        new JwtKeyRingProperties.VerificationKey("key-0", this.pem(otherKeyPair), Instant.now().minus(Duration.ofHours(3)))
+      )),
+      new DefaultResourceLoader()
+    );
+    String rotated = this.sign(this.token().withKeyId("key-2"), otherKeyPair);
+    String retired = this.sign(this.token().withKeyId("key-0"), otherKeyPair);
+
+    assertThat(keyRingJwtService.validateToken(rotated).id()).isEqualTo(USER_ID);
+    assertThat(keyRingJwtService.validateToken(retired)).isNull();
+  }
+
+  private String pem(KeyPair pemKeyPair) {
+    return "-----BEGIN PUBLIC KEY-----\n"
+      + Base64.getMimeEncoder().encodeToString(pemKeyPair.getPublic().getEncoded())
+      + "\n-----END PUBLIC KEY-----";
+  }
+
+  private JWTCreator.Builder token() {
+    return JWT.create()
+      .withKeyId(KEY_ID)
+      .withIssuer(ISSUER)
+      .withSubject("user1@email.com")
+      .withExpiresAt(Instant.now().plus(Duration.ofHours(1)))
+      .withClaim("userId", USER_ID)
+      .withClaim("name", "User 1")
+      .withClaim("tokenVersion", 0);
+  }
+
+  private String sign(JWTCreator.Builder builder, KeyPair signingKeyPair) {
+    return builder.sign(Algorithm.RSA256((RSAPublicKey) signingKeyPair.getPublic(), (RSAPrivateKey) signingKeyPair.getPrivate()));
+  }
+}
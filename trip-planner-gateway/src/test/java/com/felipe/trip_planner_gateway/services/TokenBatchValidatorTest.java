@@ -0,0 +1,115 @@
+package com.felipe.trip_planner_gateway.services;
+
+import com.felipe.trip_planner_gateway.dtos.ValidatedUserDTO;
+import com.felipe.trip_planner_gateway.exceptions.AuthValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.CALLS_REAL_METHODS;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+public class TokenBatchValidatorTest {
+
+  private static final String VALID_RESULT =
+    "[{\"valid\":true,\"user\":{\"id\":\"62dac895-a1f0-4140-b52b-4c12cb82c6ff\",\"name\":\"User 1\",\"email\":\"user1@email.com\"}}]";
+
+  private ReactorLoadBalancerExchangeFilterFunction loadBalancerFilter;
+  private TokenBatchValidator tokenBatchValidator;
+
+  @BeforeEach
+  void setUp() {
+    this.loadBalancerFilter = mock(
+      ReactorLoadBalancerExchangeFilterFunction.class,
+      withSettings().defaultAnswer(CALLS_REAL_METHODS)
+    );
+    this.tokenBatchValidator = new TokenBatchValidator(
+      WebClient.builder(),
+      this.loadBalancerFilter,
+      new IdentityHeaderSigner("test-identity-key"),
+      Duration.ofSeconds(5),
+      1,
+      Duration.ofMillis(10)
+    );
+  }
+
+  @Test
+  @DisplayName("validateToken - Should accept validations requested concurrently from many threads")
+  void validateTokenConcurrently() {
+    doAnswer(invocation -> Mono.just(this.response(VALID_RESULT)))
+      .when(this.loadBalancerFilter).filter(any(ClientRequest.class), any(ExchangeFunction.class));
+
+    StepVerifier.create(
+        Flux.range(0, 64)
+          .flatMap(i -> this.tokenBatchValidator.validateToken("token-" + i).subscribeOn(Schedulers.parallel()))
+          .collectList()
+      )
+      .assertNext(users -> assertThat(users).hasSize(64).extracting(ValidatedUserDTO::email).containsOnly("user1@email.com"))
+      .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should keep validating when more batches are ready than the user-service can take")
+  void validateTokenUnderSaturation() {
+    TokenBatchValidator saturatedValidator = new TokenBatchValidator(
+      WebClient.builder(),
+      this.loadBalancerFilter,
+      new IdentityHeaderSigner("test-identity-key"),
+      Duration.ofSeconds(10),
+      1,
+      Duration.ofMillis(1)
+    );
+    doAnswer(invocation -> Mono.delay(Duration.ofMillis(200)).thenReturn(this.response(VALID_RESULT)))
+      .when(this.loadBalancerFilter).filter(any(ClientRequest.class), any(ExchangeFunction.class));
+
+    StepVerifier.create(
+        Flux.range(0, 1024)
+          .flatMap(i -> saturatedValidator.validateToken("token-" + i).subscribeOn(Schedulers.parallel()), 1024)
+          .count()
+      )
+      .expectNext(1024L)
+      .verifyComplete();
+    StepVerifier.create(saturatedValidator.validateToken("token"))
+      .assertNext(user -> assertThat(user.email()).isEqualTo("user1@email.com"))
+      .verifyComplete();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should fail with an AuthValidationException when the batch call fails")
+  void validateTokenFailsByBatchError() {
+    doReturn(Mono.error(new IllegalStateException("Connection refused")))
+      .when(this.loadBalancerFilter).filter(any(ClientRequest.class), any(ExchangeFunction.class));
+
+    StepVerifier.create(this.tokenBatchValidator.validateToken("token"))
+      .expectErrorSatisfies(e -> assertThat(e)
+        .isInstanceOf(AuthValidationException.class)
+        .hasMessage("Não foi possível validar o token de acesso"))
+      .verify();
+  }
+
+  private ClientResponse response(String body) {
+    return ClientResponse.create(HttpStatus.OK)
+      .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+      .body(body)
+      .build();
+  }
+}
@@ -37,6 +37,8 @@ public class KafkaConsumerConfig {
   public ConcurrentKafkaListenerContainerFactory<String, CreatedInviteDTO> kafkaListenerContainerFactory() {
     ConcurrentKafkaListenerContainerFactory<String, CreatedInviteDTO> factory = new ConcurrentKafkaListenerContainerFactory<>();
     factory.setConsumerFactory(consumerFactory());
+    // Continues the trace started by the trip-service, whose context is sent in the record headers
+    factory.getContainerProperties().setObservationEnabled(true);
     return factory;
   }
 }
@@ -1,6 +1,8 @@
 package com.felipe.trip_planner_mail_service.services;
 
 import com.felipe.trip_planner_mail_service.dtos.CreatedInviteDTO;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import jakarta.mail.internet.MimeMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,11 +18,16 @@ public class EmailService {
   @Value("${spring.mail.from}")
   private String emailFrom;
 
+  @Value("${spring.mail.host}")
+  private String mailHost;
+
   private final JavaMailSender javaMailSender;
+  private final ObservationRegistry observationRegistry;
   private final Logger logger = LoggerFactory.getLogger(EmailService.class);
 
-  public EmailService(JavaMailSender javaMailSender) {
+  public EmailService(JavaMailSender javaMailSender, ObservationRegistry observationRegistry) {
     this.javaMailSender = javaMailSender;
+    this.observationRegistry = observationRegistry;
   }
 
   @KafkaListener(topics = "invite", groupId = "invite-group")
@@ -53,7 +60,10 @@ public class EmailService {
       helper.setTo(inviteDTO.participant().email());
 
       logger.info("---- Enviando e-mail para: {} ----", inviteDTO.participant().email());
-      this.javaMailSender.send(message);
+      Observation.createNotStarted("mail.send", this.observationRegistry)
+        .contextualName("smtp send")
+        .lowCardinalityKeyValue("mail.host", this.mailHost)
+        .observe(() -> this.javaMailSender.send(message));
     } catch(Exception e) {
       logger.error("Erro ao enviar e-mail. Message: {}", e.getMessage());
     }
@@ -0,0 +1,13 @@
+package com.felipe.trip_planner_traffic_replay;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+@SpringBootApplication
+public class TripPlannerTrafficReplayApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(TripPlannerTrafficReplayApplication.class, args);
+	}
+
+}
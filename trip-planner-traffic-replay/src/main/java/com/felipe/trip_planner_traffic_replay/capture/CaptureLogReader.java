@@ -0,0 +1,128 @@
+package com.felipe.trip_planner_traffic_replay.capture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+// Reads the segment files written by the gateway's TrafficCaptureLog. A record's length is only written after its
+// content, so reading a segment stops at the first zero length, which also covers a segment still being written
+public final class CaptureLogReader {
+
+  public static final int MAGIC = 0x54504341;
+  public static final short VERSION = 1;
+
+  private static final Logger logger = LoggerFactory.getLogger(CaptureLogReader.class);
+
+  private CaptureLogReader() {}
+
+  // Requests are returned in arrival order, reading one segment at a time. The gateway appends a record when its
+  // response completes, so the log is only ordered by completion: a request is held until no unread one can have
+  // arrived before it, which holds as long as no captured request took longer than the reorder window. Only the
+  // requests inside that window are kept in memory
+  public static Iterator<CapturedRequest> read(Path directory, Duration reorderWindow) throws IOException {
+    List<Path> segments;
+    try(Stream<Path> files = Files.list(directory)) {
+      segments = files
+        .filter(file -> file.getFileName().toString().matches("capture-.*\\.bin"))
+        .sorted()
+        .toList();
+    }
+    return new ArrivalOrderIterator(segments.iterator(), reorderWindow.toNanos());
+  }
+
+  private static MappedByteBuffer mapSegment(Path segment) {
+    try(FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if(buffer.remaining() < 6 || buffer.getInt() != MAGIC || buffer.getShort() != VERSION) {
+        logger.warn("Segmento ignorado, formato desconhecido: {}", segment);
+        return null;
+      }
+      return buffer;
+    } catch(IOException e) {
+      throw new UncheckedIOException("Não foi possível ler o segmento " + segment, e);
+    }
+  }
+
+  private static final class ArrivalOrderIterator implements Iterator<CapturedRequest> {
+
+    private final Iterator<Path> segments;
+    private final long reorderWindowNanos;
+    private final PriorityQueue<CapturedRequest> pending = new PriorityQueue<>(
+      Comparator.comparingLong(CapturedRequest::arrivalEpochNanos)
+    );
+    private Path segment;
+    private MappedByteBuffer buffer;
+    private long latestCompletion = Long.MIN_VALUE;
+
+    private ArrivalOrderIterator(Iterator<Path> segments, long reorderWindowNanos) {
+      this.segments = segments;
+      this.reorderWindowNanos = reorderWindowNanos;
+    }
+
+    @Override
+    public boolean hasNext() {
+      this.fill();
+      return !this.pending.isEmpty();
+    }
+
+    @Override
+    public CapturedRequest next() {
+      if(!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return this.pending.poll();
+    }
+
+    // Reads until the earliest pending request arrived more than the reorder window before the latest completion read
+    private void fill() {
+      while(this.pending.isEmpty()
+        || this.pending.peek().arrivalEpochNanos() > this.latestCompletion - this.reorderWindowNanos) {
+        CapturedRequest request = this.readRecord();
+        if(request == null) {
+          return;
+        }
+        this.latestCompletion = Math.max(this.latestCompletion, request.arrivalEpochNanos() + request.durationNanos());
+        this.pending.add(request);
+      }
+    }
+
+    private CapturedRequest readRecord() {
+      while(true) {
+        if(this.buffer != null && this.buffer.remaining() >= 4) {
+          int length = this.buffer.getInt();
+          if(length > 0 && length <= this.buffer.remaining()) {
+            int start = this.buffer.position();
+            this.buffer.position(start + length);
+            try {
+              return CapturedRequest.decode(this.buffer.slice(start, length));
+            } catch(BufferUnderflowException e) {
+              logger.warn("Registro corrompido ignorado em {} na posição {}", this.segment, start);
+              continue;
+            }
+          }
+        }
+        if(!this.segments.hasNext()) {
+          this.buffer = null;
+          return null;
+        }
+        this.segment = this.segments.next();
+        this.buffer = mapSegment(this.segment);
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.felipe.trip_planner_traffic_replay.capture;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Mirror of the record written by the gateway's TrafficCaptureFilter:
+// arrival (epoch nanos) | duration (nanos) | status (short) | method | uri | header count (short) | headers | body.
+// Strings and the body are prefixed by their length: a byte for the method, a short for header names and an int
+// for everything else
+public record CapturedRequest(
+  long arrivalEpochNanos,
+  long durationNanos,
+  int status,
+  String method,
+  String uri,
+  List<Map.Entry<String, String>> headers,
+  byte[] body
+) {
+
+  public static CapturedRequest decode(ByteBuffer buffer) {
+    long arrivalEpochNanos = buffer.getLong();
+    long durationNanos = buffer.getLong();
+    int status = buffer.getShort();
+    String method = readString(buffer, buffer.get(), StandardCharsets.US_ASCII);
+    String uri = readString(buffer, buffer.getInt(), StandardCharsets.UTF_8);
+
+    int headerCount = buffer.getShort();
+    List<Map.Entry<String, String>> headers = new ArrayList<>(headerCount);
+    for(int i = 0; i < headerCount; i++) {
+      String name = readString(buffer, buffer.getShort(), StandardCharsets.US_ASCII);
+      String value = readString(buffer, buffer.getInt(), StandardCharsets.UTF_8);
+      headers.add(Map.entry(name, value));
+    }
+
+    byte[] body = new byte[buffer.getInt()];
+    buffer.get(body);
+    return new CapturedRequest(arrivalEpochNanos, durationNanos, status, method, uri, headers, body);
+  }
+
+  private static String readString(ByteBuffer buffer, int length, Charset charset) {
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, charset);
+  }
+}
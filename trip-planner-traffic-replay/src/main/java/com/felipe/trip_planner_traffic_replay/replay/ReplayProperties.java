@@ -0,0 +1,18 @@
+package com.felipe.trip_planner_traffic_replay.replay;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@ConfigurationProperties("replay")
+public record ReplayProperties(
+  Path captureDir,
+  URI target,
+  double speed,
+  Duration requestTimeout,
+  Duration reorderWindow,
+  List<String> authorizations
+) {}
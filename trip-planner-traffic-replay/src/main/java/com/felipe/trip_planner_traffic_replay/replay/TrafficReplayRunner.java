@@ -0,0 +1,197 @@
+package com.felipe.trip_planner_traffic_replay.replay;
+
+import com.felipe.trip_planner_traffic_replay.capture.CaptureLogReader;
+import com.felipe.trip_planner_traffic_replay.capture.CapturedRequest;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Replays a capture against the target, sending each request at its original offset from the first one divided
+// by the speed. Requests are sent without waiting for earlier responses (open loop), so the captured concurrency
+// and inter-arrival times are kept. Latency is measured from the moment a request was due, not from when it was
+// actually sent, so a replayer that falls behind shows up in the percentiles instead of hiding them.
+// The capture never holds the Authorization header nor which user sent a request, so the tokens given in
+// replay.authorizations are assigned round-robin. The gateway rate limits per user, so with fewer tokens than the
+// users of the captured traffic the replay is throttled and the latencies measure mostly 429 responses: those are
+// counted apart in the report
+@Component
+@ConditionalOnProperty(prefix = "replay", name = "capture-dir")
+@EnableConfigurationProperties(ReplayProperties.class)
+public class TrafficReplayRunner implements CommandLineRunner {
+
+  // Set by the HTTP client itself, or not allowed to be set at all
+  private static final Set<String> SKIPPED_HEADERS = Set.of(
+    "host", "content-length", "connection", "expect", "upgrade", "transfer-encoding", "keep-alive"
+  );
+  private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+  private final ReplayProperties properties;
+  private final String target;
+  private final List<String> authorizations;
+  private final HttpClient httpClient;
+  private final Logger logger = LoggerFactory.getLogger(TrafficReplayRunner.class);
+
+  public TrafficReplayRunner(ReplayProperties properties) {
+    if(properties.speed() <= 0) {
+      throw new IllegalArgumentException("replay.speed deve ser maior que zero");
+    }
+    this.properties = properties;
+    String target = properties.target().toString();
+    this.target = target.endsWith("/") ? target.substring(0, target.length() - 1) : target;
+    this.authorizations = properties.authorizations() != null
+      ? properties.authorizations().stream().filter(authorization -> !authorization.isBlank()).toList()
+      : List.of();
+    this.httpClient = HttpClient.newBuilder()
+      .version(HttpClient.Version.HTTP_1_1)
+      .connectTimeout(properties.requestTimeout())
+      .build();
+  }
+
+  @Override
+  public void run(String... args) throws Exception {
+    Iterator<CapturedRequest> requests = CaptureLogReader.read(
+      this.properties.captureDir(),
+      this.properties.reorderWindow()
+    );
+    if(!requests.hasNext()) {
+      logger.warn("Nenhuma requisição capturada encontrada em: {}", this.properties.captureDir());
+      return;
+    }
+    logger.info(
+      "Reproduzindo as requisições de {} contra {} na velocidade {}x com {} token(s)",
+      this.properties.captureDir(), this.target, this.properties.speed(), this.authorizations.size()
+    );
+
+    Histogram captured = new Histogram(MAX_TRACKABLE_NANOS, 3);
+    ConcurrentHistogram replayed = new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3);
+    AtomicLongArray statusClasses = new AtomicLongArray(6);
+    AtomicLong throttled = new AtomicLong();
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger peakInFlight = new AtomicInteger();
+    Semaphore completed = new Semaphore(0);
+    int sent = 0;
+    int outOfOrder = 0;
+
+    CapturedRequest first = requests.next();
+    long firstArrival = first.arrivalEpochNanos();
+    long lastArrival = firstArrival;
+    long start = System.nanoTime();
+    for(CapturedRequest request = first; request != null; request = requests.hasNext() ? requests.next() : null) {
+      captured.recordValue(Math.min(request.durationNanos(), MAX_TRACKABLE_NANOS));
+      if(request.arrivalEpochNanos() < lastArrival) {
+        outOfOrder++;
+      }
+      lastArrival = Math.max(lastArrival, request.arrivalEpochNanos());
+
+      long due = start + (long) ((request.arrivalEpochNanos() - firstArrival) / this.properties.speed());
+      long wait;
+      while((wait = due - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(wait);
+      }
+
+      peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      this.httpClient
+        .sendAsync(this.toHttpRequest(request, sent), HttpResponse.BodyHandlers.discarding())
+        .whenComplete((httpResponse, error) -> {
+          replayed.recordValue(Math.min(System.nanoTime() - due, MAX_TRACKABLE_NANOS));
+          statusClasses.incrementAndGet(error != null ? 0 : httpResponse.statusCode() / 100);
+          if(error == null && httpResponse.statusCode() == 429) {
+            throttled.incrementAndGet();
+          }
+          inFlight.decrementAndGet();
+          completed.release();
+        });
+      sent++;
+    }
+    completed.acquire(sent);
+
+    if(outOfOrder > 0) {
+      logger.warn(
+        "{} requisições foram lidas fora de ordem e enviadas atrasadas; aumente replay.reorder-window", outOfOrder
+      );
+    }
+    this.report(captured, replayed, statusClasses, throttled.get(), peakInFlight.get(), System.nanoTime() - start);
+  }
+
+  private HttpRequest toHttpRequest(CapturedRequest request, int sequence) {
+    HttpRequest.BodyPublisher body = request.body().length > 0
+      ? HttpRequest.BodyPublishers.ofByteArray(request.body())
+      : HttpRequest.BodyPublishers.noBody();
+    HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(this.target + request.uri()))
+      .timeout(this.properties.requestTimeout())
+      .method(request.method(), body);
+
+    for(Map.Entry<String, String> header : request.headers()) {
+      if(!SKIPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+        builder.header(header.getKey(), header.getValue());
+      }
+    }
+    if(!this.authorizations.isEmpty()) {
+      builder.setHeader("Authorization", this.authorizations.get(sequence % this.authorizations.size()));
+    }
+    return builder.build();
+  }
+
+  private void report(
+    Histogram captured,
+    Histogram replayed,
+    AtomicLongArray statusClasses,
+    long throttled,
+    int peakInFlight,
+    long elapsedNanos
+  ) {
+    logger.info(
+      "Reprodução concluída em {} ms. Requisições: {}, erros de conexão: {}, 2xx: {}, 3xx: {}, 4xx: {} (429: {}), "
+        + "5xx: {}, concorrência máxima: {}",
+      TimeUnit.NANOSECONDS.toMillis(elapsedNanos), replayed.getTotalCount(), statusClasses.get(0),
+      statusClasses.get(2), statusClasses.get(3), statusClasses.get(4), throttled, statusClasses.get(5), peakInFlight
+    );
+    if(throttled > 0) {
+      logger.warn(
+        "{} requisições foram limitadas pelo gateway (429) e entram nas latências; "
+          + "use mais tokens em replay.authorizations",
+        throttled
+      );
+    }
+    logger.info("Latência (ms)   {}", this.formatPercentiles(null));
+    logger.info("Capturada       {}", this.formatPercentiles(captured));
+    logger.info("Reproduzida     {}", this.formatPercentiles(replayed));
+  }
+
+  // The header line is written when no histogram is given, so the columns line up in the log
+  private String formatPercentiles(Histogram histogram) {
+    double[] percentiles = {50, 90, 99, 99.9};
+    String[] labels = {"p50", "p90", "p99", "p99.9"};
+    StringBuilder line = new StringBuilder();
+    for(int i = 0; i < percentiles.length; i++) {
+      line.append(histogram == null
+        ? String.format(Locale.ROOT, "%10s", labels[i])
+        : String.format(Locale.ROOT, "%10.1f", histogram.getValueAtPercentile(percentiles[i]) / 1e6));
+    }
+    line.append(histogram == null
+      ? String.format(Locale.ROOT, "%10s", "max")
+      : String.format(Locale.ROOT, "%10.1f", histogram.getMaxValue() / 1e6));
+    return line.toString();
+  }
+}
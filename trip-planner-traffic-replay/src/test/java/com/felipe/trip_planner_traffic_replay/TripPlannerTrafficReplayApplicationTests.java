@@ -0,0 +1,13 @@
+package com.felipe.trip_planner_traffic_replay;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class TripPlannerTrafficReplayApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}
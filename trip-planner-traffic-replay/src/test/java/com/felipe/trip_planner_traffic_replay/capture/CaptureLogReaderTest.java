@@ -0,0 +1,100 @@
+package com.felipe.trip_planner_traffic_replay.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CaptureLogReaderTest {
+
+  @TempDir
+  Path directory;
+
+  @Test
+  @DisplayName("read - Should return the requests in arrival order across segments written in completion order")
+  void readReordersWithinWindow() throws IOException {
+    this.writeSegment("capture-1-00000.bin", this.record(50, 10), this.record(200, 5));
+    this.writeSegment("capture-1-00001.bin", this.record(0, 300));
+
+    List<Long> arrivals = this.arrivals(CaptureLogReader.read(this.directory, Duration.ofNanos(1_000)));
+
+    assertThat(arrivals).containsExactly(0L, 50L, 200L);
+  }
+
+  @Test
+  @DisplayName("read - Should release a request once it arrived more than the window before the latest completion")
+  void readReleasesRequestsOutsideWindow() throws IOException {
+    this.writeSegment("capture-1-00000.bin", this.record(50, 10), this.record(0, 300));
+
+    List<Long> arrivals = this.arrivals(CaptureLogReader.read(this.directory, Duration.ZERO));
+
+    assertThat(arrivals).containsExactly(50L, 0L);
+  }
+
+  @Test
+  @DisplayName("read - Should stop reading a segment at the first zero length and skip unknown files")
+  void readStopsAtZeroLength() throws IOException {
+    ByteBuffer segment = ByteBuffer.allocate(256)
+      .putInt(CaptureLogReader.MAGIC)
+      .putShort(CaptureLogReader.VERSION);
+    byte[] written = this.record(10, 1);
+    segment.putInt(written.length).put(written);
+    // A record whose length was not written yet, as in a segment still being written
+    segment.putInt(0).put(this.record(20, 1));
+    Files.write(this.directory.resolve("capture-1-00000.bin"), segment.array());
+    Files.write(this.directory.resolve("capture-1-00001.bin"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+    Files.write(this.directory.resolve("notes.txt"), "capture".getBytes(StandardCharsets.UTF_8));
+
+    List<Long> arrivals = this.arrivals(CaptureLogReader.read(this.directory, Duration.ofSeconds(1)));
+
+    assertThat(arrivals).containsExactly(10L);
+  }
+
+  private List<Long> arrivals(Iterator<CapturedRequest> requests) {
+    List<Long> arrivals = new ArrayList<>();
+    requests.forEachRemaining(request -> arrivals.add(request.arrivalEpochNanos()));
+    return arrivals;
+  }
+
+  private void writeSegment(String name, byte[]... records) throws IOException {
+    int size = 6;
+    for(byte[] record : records) {
+      size += 4 + record.length;
+    }
+    ByteBuffer segment = ByteBuffer.allocate(size)
+      .putInt(CaptureLogReader.MAGIC)
+      .putShort(CaptureLogReader.VERSION);
+    for(byte[] record : records) {
+      segment.putInt(record.length).put(record);
+    }
+    Files.write(this.directory.resolve(name), segment.array());
+  }
+
+  // A GET without headers nor body, in the layout decoded by CapturedRequest
+  private byte[] record(long arrivalEpochNanos, long durationNanos) {
+    byte[] method = "GET".getBytes(StandardCharsets.US_ASCII);
+    byte[] uri = "/trips".getBytes(StandardCharsets.UTF_8);
+    return ByteBuffer.allocate(8 + 8 + 2 + 1 + method.length + 4 + uri.length + 2 + 4)
+      .putLong(arrivalEpochNanos)
+      .putLong(durationNanos)
+      .putShort((short) 200)
+      .put((byte) method.length)
+      .put(method)
+      .putInt(uri.length)
+      .put(uri)
+      .putShort((short) 0)
+      .putInt(0)
+      .array();
+  }
+}
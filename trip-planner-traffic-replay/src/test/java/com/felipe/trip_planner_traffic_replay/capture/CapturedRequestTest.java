@@ -0,0 +1,35 @@
+package com.felipe.trip_planner_traffic_replay.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CapturedRequestTest {
+
+  // Written by CapturedRequest.encode() in trip-planner-gateway, whose CapturedRequestTest pins the same bytes
+  static final String ENCODED_RECORD = "00000000000003e800000000000007d000c904504f53540000000d2f74726970733f706167653d31"
+    + "0001000c436f6e74656e742d54797065000000106170706c69636174696f6e2f6a736f6e000000027b7d";
+
+  @Test
+  @DisplayName("decode - Should read the record written by the gateway")
+  void decodeReadsGatewayLayout() {
+    ByteBuffer buffer = ByteBuffer.wrap(HexFormat.of().parseHex(ENCODED_RECORD));
+
+    CapturedRequest capturedRequest = CapturedRequest.decode(buffer);
+
+    assertThat(capturedRequest.arrivalEpochNanos()).isEqualTo(1_000L);
+    assertThat(capturedRequest.durationNanos()).isEqualTo(2_000L);
+    assertThat(capturedRequest.status()).isEqualTo(201);
+    assertThat(capturedRequest.method()).isEqualTo("POST");
+    assertThat(capturedRequest.uri()).isEqualTo("/trips?page=1");
+    assertThat(capturedRequest.headers()).containsExactly(Map.entry("Content-Type", "application/json"));
+    assertThat(new String(capturedRequest.body(), StandardCharsets.UTF_8)).isEqualTo("{}");
+    assertThat(buffer.hasRemaining()).isFalse();
+  }
+}
@@ -0,0 +1,41 @@
+package com.felipe.trip_planner_trip_service.clients;
+
+import com.felipe.trip_planner_trip_service.security.IdentitySignature;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+// Signs every Feign call with this service's identity, which the internal endpoints of the user-service require
+// (e.g. the batch profile lookup). Each call gets its own timestamp and nonce, like the identities signed by the gateway
+@Component
+public class ServiceIdentityInterceptor implements RequestInterceptor {
+
+  private static final String SERVICE_NAME = "trip-planner-trip-service";
+
+  private final IdentitySignature identitySignature;
+  private final SecureRandom random = new SecureRandom();
+
+  public ServiceIdentityInterceptor(@Value("${identity.signing-key}") String signingKey) {
+    if(signingKey == null || signingKey.isBlank()) {
+      throw new IllegalStateException("A chave de assinatura dos headers de identidade (identity.signing-key) não foi configurada");
+    }
+    this.identitySignature = new IdentitySignature(signingKey);
+  }
+
+  @Override
+  public void apply(RequestTemplate template) {
+    String timestamp = Long.toString(System.currentTimeMillis());
+    byte[] nonceBytes = new byte[16];
+    this.random.nextBytes(nonceBytes);
+    String nonce = Base64.getUrlEncoder().withoutPadding().encodeToString(nonceBytes);
+
+    template.header(IdentitySignature.SERVICE_NAME, SERVICE_NAME);
+    template.header(IdentitySignature.TIMESTAMP, timestamp);
+    template.header(IdentitySignature.NONCE, nonce);
+    template.header(IdentitySignature.SIGNATURE, this.identitySignature.signService(SERVICE_NAME, timestamp, nonce));
+  }
+}
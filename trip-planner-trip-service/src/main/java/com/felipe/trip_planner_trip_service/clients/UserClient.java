@@ -1,13 +1,21 @@
 package com.felipe.trip_planner_trip_service.clients;
 
+import com.felipe.trip_planner_trip_service.dtos.UserBatchClientDTO;
+import com.felipe.trip_planner_trip_service.dtos.UserBatchLookupClientDTO;
 import com.felipe.trip_planner_trip_service.dtos.UserClientDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 
 @FeignClient(name = "TRIP-PLANNER-USER-SERVICE", path = "/api/users")
 public interface UserClient {
 
   @GetMapping("/{email}")
   UserClientDTO getProfile(@PathVariable String email);
+
+  // Up to users.batch.max-size e-mails per call (100 by default)
+  @PostMapping("/batch")
+  UserBatchClientDTO getProfiles(@RequestBody UserBatchLookupClientDTO batchLookupDTO);
 }
@@ -34,7 +34,10 @@ public class KafkaProducerConfig {
 
   @Bean
   public KafkaTemplate<String, CreatedInviteDTO> kafkaTemplate() {
-    return new KafkaTemplate<>(producerFactory());
+    KafkaTemplate<String, CreatedInviteDTO> kafkaTemplate = new KafkaTemplate<>(producerFactory());
+    // Sends the trace context in the record headers, so the mail-service continues the same trace
+    kafkaTemplate.setObservationEnabled(true);
+    return kafkaTemplate;
   }
 
   @Bean
@@ -0,0 +1,54 @@
+package com.felipe.trip_planner_trip_service.config;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps every repository call in an observation, which becomes a span (e.g. "InviteRepository.save") in the
+// current trace. The registry is looked up on first use because repositories are created before it
+public class RepositoryObservationInterceptor implements MethodInterceptor {
+
+  private final String repositoryName;
+  private final ObjectProvider<ObservationRegistry> observationRegistryProvider;
+  private final Map<Method, String> contextualNames = new ConcurrentHashMap<>();
+  private volatile ObservationRegistry observationRegistry;
+
+  public RepositoryObservationInterceptor(Class<?> repositoryInterface, ObjectProvider<ObservationRegistry> observationRegistryProvider) {
+    this.repositoryName = repositoryInterface.getSimpleName();
+    this.observationRegistryProvider = observationRegistryProvider;
+  }
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    Method method = invocation.getMethod();
+    Observation observation = Observation.createNotStarted("repository.invocation", this.getObservationRegistry())
+      .contextualName(this.contextualNames.computeIfAbsent(method, m -> this.repositoryName + "." + m.getName()))
+      .lowCardinalityKeyValue("repository", this.repositoryName)
+      .lowCardinalityKeyValue("method", method.getName())
+      .start();
+
+    try(Observation.Scope scope = observation.openScope()) {
+      return invocation.proceed();
+    } catch(Throwable e) {
+      observation.error(e);
+      throw e;
+    } finally {
+      observation.stop();
+    }
+  }
+
+  private ObservationRegistry getObservationRegistry() {
+    ObservationRegistry registry = this.observationRegistry;
+    if(registry == null) {
+      registry = this.observationRegistryProvider.getIfAvailable(() -> ObservationRegistry.NOOP);
+      this.observationRegistry = registry;
+    }
+    return registry;
+  }
+}
@@ -0,0 +1,70 @@
+package com.felipe.trip_planner_trip_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipe.trip_planner_trip_service.utils.ServerTiming;
+import feign.Capability;
+import feign.Client;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.lang.NonNull;
+
+@Configuration
+public class ServerTimingConfig {
+
+  @Bean
+  public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+    return new ServerTimingMessageConverter(objectMapper);
+  }
+
+  @Bean
+  public Capability userClientTimingCapability() {
+    return new UserClientTimingCapability();
+  }
+
+  // Every call to a repository method counts as database time. Lazy loading and the flush at commit happen
+  // outside of the repositories, so this is a lower bound of the time actually spent in the database
+  @Bean
+  public static BeanPostProcessor repositoryTimingPostProcessor() {
+    MethodInterceptor timingInterceptor = invocation -> {
+      long start = System.nanoTime();
+      try {
+        return invocation.proceed();
+      } finally {
+        ServerTiming.record(ServerTiming.DB, System.nanoTime() - start);
+      }
+    };
+
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if(bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+          repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory -> repositoryFactory
+            .addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(timingInterceptor))
+          );
+        }
+        return bean;
+      }
+    };
+  }
+
+  // Applied to every Feign client, which today is only the UserClient. Feign finds the enrich methods by
+  // reflection, so the class has to be public
+  public static class UserClientTimingCapability implements Capability {
+
+    @Override
+    public Client enrich(Client client) {
+      return (request, options) -> {
+        long start = System.nanoTime();
+        try {
+          return client.execute(request, options);
+        } finally {
+          ServerTiming.record(ServerTiming.USER_CLIENT, System.nanoTime() - start);
+        }
+      };
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package com.felipe.trip_planner_trip_service.config;
+
+import com.felipe.trip_planner_trip_service.utils.ServerTiming;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// JSON responses get the Server-Timing header from ServerTimingMessageConverter, right before the body is
+// written. Responses without a JSON body are still uncommitted here, so the header is added after the chain
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+  @Override
+  protected void doFilterInternal(
+    @NonNull HttpServletRequest request,
+    @NonNull HttpServletResponse response,
+    @NonNull FilterChain filterChain
+  ) throws ServletException, IOException {
+    ServerTiming serverTiming = ServerTiming.start();
+    try {
+      filterChain.doFilter(request, response);
+      if(!serverTiming.isHeaderWritten() && !response.isCommitted()) {
+        response.addHeader(ServerTiming.HEADER_NAME, serverTiming.toHeaderValue());
+      }
+    } finally {
+      ServerTiming.clear();
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.felipe.trip_planner_trip_service.controllers;
 
 import com.felipe.trip_planner_trip_service.exceptions.AccessDeniedException;
 import com.felipe.trip_planner_trip_service.exceptions.InvalidDateException;
+import com.felipe.trip_planner_trip_service.exceptions.InvalidIdentityException;
 import com.felipe.trip_planner_trip_service.exceptions.InvalidInviteException;
 import com.felipe.trip_planner_trip_service.exceptions.ParticipantAlreadyExistsException;
 import com.felipe.trip_planner_trip_service.exceptions.RecordNotFoundException;
@@ -62,6 +63,17 @@ public class ExceptionControllerAdvice {
     return response;
   }
 
+  @ExceptionHandler(InvalidIdentityException.class)
+  @ResponseStatus(HttpStatus.UNAUTHORIZED)
+  public CustomResponseBody<Void> handleInvalidIdentityException(InvalidIdentityException e) {
+    CustomResponseBody<Void> response = new CustomResponseBody<>();
+    response.setStatus(ResponseConditionStatus.ERROR);
+    response.setCode(HttpStatus.UNAUTHORIZED);
+    response.setMessage(e.getMessage());
+    response.setData(null);
+    return response;
+  }
+
   @ExceptionHandler(AccessDeniedException.class)
   @ResponseStatus(HttpStatus.FORBIDDEN)
   public CustomResponseBody<Void> handleAccessDeniedException(AccessDeniedException e) {
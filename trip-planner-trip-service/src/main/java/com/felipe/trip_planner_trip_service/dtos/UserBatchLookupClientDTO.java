@@ -0,0 +1,6 @@
+package com.felipe.trip_planner_trip_service.dtos;
+
+import java.util.List;
+
+public record UserBatchLookupClientDTO(List<String> emails) {
+}
@@ -0,0 +1,7 @@
+package com.felipe.trip_planner_trip_service.exceptions;
+
+public class InvalidIdentityException extends RuntimeException {
+  public InvalidIdentityException(String message) {
+    super(message);
+  }
+}
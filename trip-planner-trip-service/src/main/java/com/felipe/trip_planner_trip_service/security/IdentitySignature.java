@@ -0,0 +1,63 @@
+package com.felipe.trip_planner_trip_service.security;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+// HMAC-SHA256 of the identity headers signed by the gateway, over "userId\nusername\nuserEmail\ntimestamp\nnonce"
+// in UTF-8, encoded as unpadded Base64 URL. The calls this service makes to the internal endpoints of the user-service
+// carry a service identity instead, signed over "service\nserviceName\ntimestamp\nnonce"
+public class IdentitySignature {
+
+  public static final String USER_ID = "userId";
+  public static final String USERNAME = "username";
+  public static final String USER_EMAIL = "userEmail";
+  public static final String TIMESTAMP = "identityTimestamp";
+  public static final String NONCE = "identityNonce";
+  public static final String SIGNATURE = "identitySignature";
+  public static final String SERVICE_NAME = "serviceName";
+
+  private static final String ALGORITHM = "HmacSHA256";
+
+  private final SecretKeySpec key;
+  private final ThreadLocal<Mac> mac = ThreadLocal.withInitial(this::createMac);
+
+  public IdentitySignature(String signingKey) {
+    this.key = new SecretKeySpec(signingKey.getBytes(StandardCharsets.UTF_8), ALGORITHM);
+    this.createMac();
+  }
+
+  public String sign(String userId, String username, String userEmail, String timestamp, String nonce) {
+    return this.hmac(userId + '\n' + username + '\n' + userEmail + '\n' + timestamp + '\n' + nonce);
+  }
+
+  public String signService(String serviceName, String timestamp, String nonce) {
+    return this.hmac("service\n" + serviceName + '\n' + timestamp + '\n' + nonce);
+  }
+
+  public boolean matches(String signature, String userId, String username, String userEmail, String timestamp, String nonce) {
+    String expected = this.sign(userId, username, userEmail, timestamp, nonce);
+    return MessageDigest.isEqual(
+      expected.getBytes(StandardCharsets.US_ASCII),
+      signature.getBytes(StandardCharsets.US_ASCII)
+    );
+  }
+
+  private String hmac(String content) {
+    byte[] signature = this.mac.get().doFinal(content.getBytes(StandardCharsets.UTF_8));
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+  }
+
+  private Mac createMac() {
+    try {
+      Mac mac = Mac.getInstance(ALGORITHM);
+      mac.init(this.key);
+      return mac;
+    } catch(GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
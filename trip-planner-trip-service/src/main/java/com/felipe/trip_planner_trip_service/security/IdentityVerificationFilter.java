@@ -0,0 +1,47 @@
+package com.felipe.trip_planner_trip_service.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerExceptionResolver;
+
+import java.io.IOException;
+
+// The controllers read the user straight from the userId/username/userEmail headers, so a request carrying any
+// of them only goes through when they were signed by the gateway
+@Component
+public class IdentityVerificationFilter extends OncePerRequestFilter {
+
+  private final IdentityVerifier identityVerifier;
+  private final HandlerExceptionResolver resolver;
+
+  public IdentityVerificationFilter(
+    IdentityVerifier identityVerifier,
+    @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver
+  ) {
+    this.identityVerifier = identityVerifier;
+    this.resolver = resolver;
+  }
+
+  @Override
+  protected void doFilterInternal(
+    @NonNull HttpServletRequest request,
+    @NonNull HttpServletResponse response,
+    @NonNull FilterChain filterChain
+  ) throws ServletException, IOException {
+    if(this.identityVerifier.hasIdentity(request)) {
+      try {
+        this.identityVerifier.verify(request);
+      } catch(RuntimeException exception) {
+        this.resolver.resolveException(request, response, null, exception);
+        return;
+      }
+    }
+    filterChain.doFilter(request, response);
+  }
+}
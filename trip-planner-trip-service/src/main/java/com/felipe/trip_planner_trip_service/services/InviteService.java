@@ -13,6 +13,7 @@ import com.felipe.trip_planner_trip_service.models.Participant;
 import com.felipe.trip_planner_trip_service.models.Trip;
 import com.felipe.trip_planner_trip_service.repositories.InviteRepository;
 import com.felipe.trip_planner_trip_service.utils.Actions;
+import com.felipe.trip_planner_trip_service.utils.ServerTiming;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -65,7 +66,9 @@ public class InviteService {
       "Postando no tópico \"invite\" -> tripId: {} - userEmail: {}",
       createdInviteDTO.trip().tripId(), createdInviteDTO.participant().email()
     );
+    long enqueueStart = System.nanoTime();
     this.kafkaTemplate.send("invite", createdInviteDTO);
+    ServerTiming.record(ServerTiming.KAFKA_ENQUEUE, System.nanoTime() - enqueueStart);
     return createdInvite.getUserEmail();
   }
 
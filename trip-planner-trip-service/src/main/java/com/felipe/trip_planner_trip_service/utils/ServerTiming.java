@@ -0,0 +1,67 @@
+package com.felipe.trip_planner_trip_service.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Accumulates, for the request being handled by the current thread, how long was spent on each kind of work.
+// Recording is a no-op outside of a request, so it can be called from anywhere (e.g. from the tests)
+public final class ServerTiming {
+
+  public static final String HEADER_NAME = "Server-Timing";
+  public static final String DB = "trip-db";
+  public static final String USER_CLIENT = "trip-user-client";
+  // Only the time to hand the record to the producer: the send is acknowledged on the producer thread,
+  // usually after the response was written
+  public static final String KAFKA_ENQUEUE = "trip-kafka-enqueue";
+  public static final String JSON = "trip-json";
+
+  private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+  private final Map<String, Long> durations = new LinkedHashMap<>(8);
+  private boolean headerWritten;
+
+  private ServerTiming() {}
+
+  public static ServerTiming start() {
+    ServerTiming serverTiming = new ServerTiming();
+    CURRENT.set(serverTiming);
+    return serverTiming;
+  }
+
+  public static ServerTiming current() {
+    return CURRENT.get();
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  public static void record(String name, long durationNanos) {
+    ServerTiming serverTiming = CURRENT.get();
+    if(serverTiming != null) {
+      serverTiming.durations.merge(name, durationNanos, Long::sum);
+    }
+  }
+
+  public boolean isHeaderWritten() {
+    return this.headerWritten;
+  }
+
+  // Durations are written in milliseconds with one decimal place, e.g. "trip-db;dur=12.3, trip-json;dur=0.4"
+  public String toHeaderValue() {
+    this.headerWritten = true;
+    StringBuilder headerValue = new StringBuilder(this.durations.size() * 24);
+    for(Map.Entry<String, Long> entry : this.durations.entrySet()) {
+      if(!headerValue.isEmpty()) {
+        headerValue.append(", ");
+      }
+      long tenthsOfMillis = entry.getValue() / 100_000;
+      headerValue.append(entry.getKey())
+        .append(";dur=")
+        .append(tenthsOfMillis / 10)
+        .append('.')
+        .append(tenthsOfMillis % 10);
+    }
+    return headerValue.toString();
+  }
+}
@@ -9,6 +9,7 @@ import com.felipe.trip_planner_trip_service.exceptions.InvalidInviteException;
 import com.felipe.trip_planner_trip_service.exceptions.RecordNotFoundException;
 import com.felipe.trip_planner_trip_service.models.Participant;
 import com.felipe.trip_planner_trip_service.models.Trip;
+import com.felipe.trip_planner_trip_service.security.IdentitySignature;
 import com.felipe.trip_planner_trip_service.services.ParticipantService;
 import com.felipe.trip_planner_trip_service.utils.response.ResponseConditionStatus;
 import org.junit.jupiter.api.BeforeEach;
@@ -22,6 +23,7 @@ import org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
@@ -32,6 +34,9 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.times;
@@ -99,7 +104,7 @@ public class ParticipantControllerTest {
       .contentType(MediaType.APPLICATION_JSON)
       .content(jsonBody)
       .accept(MediaType.APPLICATION_JSON)
-      .header("userEmail", userEmail))
+      .headers(this.signedIdentityHeaders(userEmail)))
       .andExpect(status().isOk())
       .andExpect(jsonPath("$.status").value(ResponseConditionStatus.SUCCESS.getValue()))
       .andExpect(jsonPath("$.code").value(HttpStatus.OK.value()))
@@ -129,7 +134,7 @@ public class ParticipantControllerTest {
       .contentType(MediaType.APPLICATION_JSON)
       .content(jsonBody)
       .accept(MediaType.APPLICATION_JSON)
-      .header("userEmail", userEmail))
+      .headers(this.signedIdentityHeaders(userEmail)))
       .andExpect(status().isNotFound())
       .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
       .andExpect(jsonPath("$.code").value(HttpStatus.NOT_FOUND.value()))
@@ -152,7 +157,7 @@ public class ParticipantControllerTest {
       .contentType(MediaType.APPLICATION_JSON)
       .content(jsonBody)
       .accept(MediaType.APPLICATION_JSON)
-      .header("userEmail", userEmail))
+      .headers(this.signedIdentityHeaders(userEmail)))
       .andExpect(status().isBadRequest())
       .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
       .andExpect(jsonPath("$.code").value(HttpStatus.BAD_REQUEST.value()))
@@ -161,4 +166,38 @@ public class ParticipantControllerTest {
 
     verify(this.participantService, times(1)).addParticipant(participantDTO, userEmail);
   }
+
+  @Test
+  @DisplayName("addParticipant - Should return an error response with unauthorized status code when the identity headers are not signed")
+  void addParticipantFailsByUnsignedIdentityHeaders() throws Exception {
+    String userEmail = this.participant.getEmail();
+    AddParticipantDTO participantDTO = new AddParticipantDTO("5f1b0d11-07a6-4a63-a5bf-381a09a784af");
+    String jsonBody = this.objectMapper.writeValueAsString(participantDTO);
+
+    this.mockMvc.perform(post(BASE_URL + "/confirm")
+      .contentType(MediaType.APPLICATION_JSON)
+      .content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON)
+      .header("userEmail", userEmail))
+      .andExpect(status().isUnauthorized())
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
+      .andExpect(jsonPath("$.code").value(HttpStatus.UNAUTHORIZED.value()))
+      .andExpect(jsonPath("$.message").value("Assinatura dos headers de identidade inválida"))
+      .andExpect(jsonPath("$.data").doesNotExist());
+
+    verify(this.participantService, never()).addParticipant(any(AddParticipantDTO.class), anyString());
+  }
+
+  private HttpHeaders signedIdentityHeaders(String userEmail) {
+    String timestamp = Long.toString(System.currentTimeMillis());
+    String nonce = UUID.randomUUID().toString();
+    String signature = new IdentitySignature("test-identity-signing-key").sign(null, null, userEmail, timestamp, nonce);
+
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(IdentitySignature.USER_EMAIL, userEmail);
+    headers.set(IdentitySignature.TIMESTAMP, timestamp);
+    headers.set(IdentitySignature.NONCE, nonce);
+    headers.set(IdentitySignature.SIGNATURE, signature);
+    return headers;
+  }
 }
@@ -0,0 +1,98 @@
+package com.felipe.trip_planner_trip_service.security;
+
+import com.felipe.trip_planner_trip_service.exceptions.InvalidIdentityException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class IdentityVerifierTest {
+
+  private static final String SIGNING_KEY = "test-identity-signing-key";
+
+  private IdentityVerifier identityVerifier;
+
+  @BeforeEach
+  void setUp() {
+    this.identityVerifier = new IdentityVerifier(SIGNING_KEY, Duration.ofSeconds(30));
+  }
+
+  @Test
+  @DisplayName("verify - Should accept the identity headers signed with the shared key")
+  void verifySuccess() {
+    MockHttpServletRequest request = this.signedRequest("user1@email.com", System.currentTimeMillis(), "nonce-1");
+
+    assertThat(this.identityVerifier.hasIdentity(request)).isTrue();
+    assertThatNoException().isThrownBy(() -> this.identityVerifier.verify(request));
+  }
+
+  @Test
+  @DisplayName("verify - Should reject the request when a signed header was changed")
+  void verifyFailsByTamperedHeader() {
+    MockHttpServletRequest request = this.signedRequest("user1@email.com", System.currentTimeMillis(), "nonce-1");
+    MockHttpServletRequest tamperedRequest = this.copyWithEmail(request, "user2@email.com");
+
+    assertThatThrownBy(() -> this.identityVerifier.verify(tamperedRequest))
+      .isInstanceOf(InvalidIdentityException.class)
+      .hasMessage("Assinatura dos headers de identidade inválida");
+  }
+
+  @Test
+  @DisplayName("verify - Should reject the request when the signature is older than the max age")
+  void verifyFailsByExpiredSignature() {
+    long signedAt = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+    MockHttpServletRequest request = this.signedRequest("user1@email.com", signedAt, "nonce-1");
+
+    assertThatThrownBy(() -> this.identityVerifier.verify(request))
+      .isInstanceOf(InvalidIdentityException.class)
+      .hasMessage("Headers de identidade expirados");
+  }
+
+  @Test
+  @DisplayName("verify - Should reject the second request with the same nonce")
+  void verifyFailsByReplayedNonce() {
+    long signedAt = System.currentTimeMillis();
+    MockHttpServletRequest request = this.signedRequest("user1@email.com", signedAt, "nonce-1");
+    MockHttpServletRequest replayedRequest = this.signedRequest("user1@email.com", signedAt, "nonce-1");
+
+    this.identityVerifier.verify(request);
+
+    assertThatThrownBy(() -> this.identityVerifier.verify(replayedRequest))
+      .isInstanceOf(InvalidIdentityException.class)
+      .hasMessage("Headers de identidade já utilizados");
+  }
+
+  private MockHttpServletRequest signedRequest(String userEmail, long signedAt, String nonce) {
+    String userId = "62dac895-a1f0-4140-b52b-4c12cb82c6ff";
+    String username = "User 1";
+    String timestamp = Long.toString(signedAt);
+    String signature = new IdentitySignature(SIGNING_KEY).sign(userId, username, userEmail, timestamp, nonce);
+
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(IdentitySignature.USER_ID, userId);
+    request.addHeader(IdentitySignature.USERNAME, username);
+    request.addHeader(IdentitySignature.USER_EMAIL, userEmail);
+    request.addHeader(IdentitySignature.TIMESTAMP, timestamp);
+    request.addHeader(IdentitySignature.NONCE, nonce);
+    request.addHeader(IdentitySignature.SIGNATURE, signature);
+    return request;
+  }
+
+  private MockHttpServletRequest copyWithEmail(MockHttpServletRequest request, String userEmail) {
+    MockHttpServletRequest copy = new MockHttpServletRequest();
+    for(String name : new String[]{
+      IdentitySignature.USER_ID, IdentitySignature.USERNAME, IdentitySignature.TIMESTAMP,
+      IdentitySignature.NONCE, IdentitySignature.SIGNATURE
+    }) {
+      copy.addHeader(name, request.getHeader(name));
+    }
+    copy.addHeader(IdentitySignature.USER_EMAIL, userEmail);
+    return copy;
+  }
+}
@@ -0,0 +1,38 @@
+package com.felipe.trip_planner_trip_service.util.response;
+
+import com.felipe.trip_planner_trip_service.utils.ServerTiming;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ServerTimingTest {
+
+  @AfterEach
+  void tearDown() {
+    ServerTiming.clear();
+  }
+
+  @Test
+  @DisplayName("toHeaderValue - Should sum the durations of each entry and write them in milliseconds")
+  void toHeaderValueSuccess() {
+    ServerTiming serverTiming = ServerTiming.start();
+    ServerTiming.record(ServerTiming.DB, 2_340_000);
+    ServerTiming.record(ServerTiming.DB, 10_000_000);
+    ServerTiming.record(ServerTiming.JSON, 450_000);
+
+    String headerValue = serverTiming.toHeaderValue();
+
+    assertThat(headerValue).isEqualTo("trip-db;dur=12.3, trip-json;dur=0.4");
+    assertThat(serverTiming.isHeaderWritten()).isTrue();
+  }
+
+  @Test
+  @DisplayName("record - Should ignore the durations recorded outside of a request")
+  void recordOutsideOfRequest() {
+    ServerTiming.record(ServerTiming.DB, 1_000_000);
+
+    assertThat(ServerTiming.current()).isNull();
+  }
+}
@@ -0,0 +1,58 @@
+package com.felipe.trip_planner_user_service.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipe.trip_planner_user_service.utils.ServerTiming;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+// Serialization is the last thing done for a request, and the header has to be set before the first byte of the
+// body is written. So the body is serialized into a buffer first, timed, and only then sent with the header
+public class ServerTimingMessageConverter extends MappingJackson2HttpMessageConverter {
+
+  public ServerTimingMessageConverter(ObjectMapper objectMapper) {
+    super(objectMapper);
+  }
+
+  @Override
+  protected void writeInternal(@NonNull Object object, Type type, @NonNull HttpOutputMessage outputMessage)
+    throws IOException, HttpMessageNotWritableException {
+    ServerTiming serverTiming = ServerTiming.current();
+    if(serverTiming == null || !(outputMessage instanceof ServerHttpResponse)) {
+      super.writeInternal(object, type, outputMessage);
+      return;
+    }
+
+    long start = System.nanoTime();
+    ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+    super.writeInternal(object, type, new BufferedOutputMessage(outputMessage.getHeaders(), body));
+    ServerTiming.record(ServerTiming.JSON, System.nanoTime() - start);
+
+    outputMessage.getHeaders().add(ServerTiming.HEADER_NAME, serverTiming.toHeaderValue());
+    outputMessage.getHeaders().setContentLength(body.size());
+    body.writeTo(outputMessage.getBody());
+  }
+
+  private record BufferedOutputMessage(HttpHeaders headers, OutputStream body) implements HttpOutputMessage {
+
+    @Override
+    @NonNull
+    public OutputStream getBody() {
+      return this.body;
+    }
+
+    @Override
+    @NonNull
+    public HttpHeaders getHeaders() {
+      return this.headers;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.felipe.trip_planner_user_service.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.lang.NonNull;
+
+// Spans are exported over OTLP when management.otlp.tracing.endpoint is set, and/or written to the application
+// log when tracing.logging-exporter.enabled is true, so traces can be inspected without a tracing backend
+@Configuration
+public class TracingConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "tracing.logging-exporter.enabled", havingValue = "true")
+  public SpanExporter loggingSpanExporter() {
+    return LoggingSpanExporter.create();
+  }
+
+  @Bean
+  public static BeanPostProcessor repositoryObservationPostProcessor(ObjectProvider<ObservationRegistry> observationRegistry) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(@NonNull Object bean, @NonNull String beanName) {
+        if(bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> repositoryFactoryBean) {
+          repositoryFactoryBean.addRepositoryFactoryCustomizer(repositoryFactory -> repositoryFactory
+            .addRepositoryProxyPostProcessor((proxyFactory, repositoryInformation) -> proxyFactory.addAdvice(
+              new RepositoryObservationInterceptor(repositoryInformation.getRepositoryInterface(), observationRegistry)
+            ))
+          );
+        }
+        return bean;
+      }
+    };
+  }
+}
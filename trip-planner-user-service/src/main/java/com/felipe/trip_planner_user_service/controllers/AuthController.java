@@ -1,5 +1,9 @@
 package com.felipe.trip_planner_user_service.controllers;
 
+import com.felipe.trip_planner_user_service.dtos.RevokedTokenDTO;
+import com.felipe.trip_planner_user_service.dtos.RevokedTokenVersionDTO;
+import com.felipe.trip_planner_user_service.dtos.TokenBatchValidationDTO;
+import com.felipe.trip_planner_user_service.dtos.TokenValidationResultDTO;
 import com.felipe.trip_planner_user_service.dtos.UserLoginDTO;
 import com.felipe.trip_planner_user_service.dtos.UserLoginResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserRegisterDTO;
@@ -9,6 +13,7 @@ import com.felipe.trip_planner_user_service.services.UserService;
 import com.felipe.trip_planner_user_service.utils.response.CustomResponseBody;
 import com.felipe.trip_planner_user_service.utils.response.ResponseConditionStatus;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
@@ -18,6 +23,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -61,9 +67,43 @@ public class AuthController {
     return response;
   }
 
+  @PostMapping("/logout")
+  @ResponseStatus(HttpStatus.OK)
+  public CustomResponseBody<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+    this.userService.logout(authorization.replace("Bearer ", ""));
+
+    CustomResponseBody<Void> response = new CustomResponseBody<>();
+    response.setStatus(ResponseConditionStatus.SUCCESS);
+    response.setCode(HttpStatus.OK);
+    response.setMessage("Logout realizado com sucesso");
+    response.setData(null);
+    return response;
+  }
+
+  // Tokens revoked before they expire, so the gateway can reject them without calling this service
+  @GetMapping("/revoked-tokens")
+  @ResponseStatus(HttpStatus.OK)
+  public List<RevokedTokenDTO> getRevokedTokens() {
+    return this.userService.getRevokedTokens();
+  }
+
+  // Users whose older tokens were revoked by a password change, a logout or the deletion of the user (version
+  // 2147483647). The gateway rejects the tokens of a lower version
+  @GetMapping("/revoked-token-versions")
+  @ResponseStatus(HttpStatus.OK)
+  public List<RevokedTokenVersionDTO> getRevokedTokenVersions() {
+    return this.userService.getRevokedTokenVersions();
+  }
+
   @GetMapping("/validate")
   @ResponseStatus(HttpStatus.OK)
   public UserResponseDTO validateToken(@RequestHeader("accessToken") String token) {
     return this.userService.validateToken(token);
   }
+
+  @PostMapping("/validate/batch")
+  @ResponseStatus(HttpStatus.OK)
+  public List<TokenValidationResultDTO> validateTokens(@RequestBody @Valid TokenBatchValidationDTO batchValidationDTO) {
+    return this.userService.validateTokens(batchValidationDTO.tokens());
+  }
 }
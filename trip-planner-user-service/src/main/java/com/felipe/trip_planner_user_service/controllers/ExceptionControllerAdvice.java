@@ -2,11 +2,15 @@ package com.felipe.trip_planner_user_service.controllers;
 
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.felipe.trip_planner_user_service.exceptions.BatchSizeExceededException;
+import com.felipe.trip_planner_user_service.exceptions.PasswordHashingUnavailableException;
 import com.felipe.trip_planner_user_service.exceptions.RecordNotFoundException;
 import com.felipe.trip_planner_user_service.exceptions.UserAlreadyExistsException;
 import com.felipe.trip_planner_user_service.utils.response.CustomResponseBody;
 import com.felipe.trip_planner_user_service.utils.response.CustomValidationErrors;
 import com.felipe.trip_planner_user_service.utils.response.ResponseConditionStatus;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -16,6 +20,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.util.List;
 
@@ -76,6 +81,40 @@ public class ExceptionControllerAdvice {
     return response;
   }
 
+  // Constraints declared on the controller method parameters, like the e-mails of GET /api/users/batch
+  @ExceptionHandler(HandlerMethodValidationException.class)
+  @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+  public CustomResponseBody<List<CustomValidationErrors>> handleHandlerMethodValidationException(HandlerMethodValidationException e) {
+    List<CustomValidationErrors> errors = e.getAllValidationResults()
+      .stream()
+      .flatMap(result -> result.getResolvableErrors().stream().map(error -> new CustomValidationErrors(
+        result.getContainerIndex() != null
+          ? result.getMethodParameter().getParameterName() + "[" + result.getContainerIndex() + "]"
+          : result.getMethodParameter().getParameterName(),
+        result.getArgument(),
+        error.getDefaultMessage()
+      )))
+      .toList();
+
+    CustomResponseBody<List<CustomValidationErrors>> response = new CustomResponseBody<>();
+    response.setStatus(ResponseConditionStatus.ERROR);
+    response.setCode(HttpStatus.UNPROCESSABLE_ENTITY);
+    response.setMessage("Erros de validação");
+    response.setData(errors);
+    return response;
+  }
+
+  @ExceptionHandler(BatchSizeExceededException.class)
+  @ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+  public CustomResponseBody<Void> handleBatchSizeExceededException(BatchSizeExceededException e) {
+    CustomResponseBody<Void> response = new CustomResponseBody<>();
+    response.setStatus(ResponseConditionStatus.ERROR);
+    response.setCode(HttpStatus.UNPROCESSABLE_ENTITY);
+    response.setMessage(e.getMessage());
+    response.setData(null);
+    return response;
+  }
+
   @ExceptionHandler(JWTCreationException.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public CustomResponseBody<Void> handleJWTCreationException(JWTCreationException e) {
@@ -109,6 +148,22 @@ public class ExceptionControllerAdvice {
     return response;
   }
 
+  @ExceptionHandler(PasswordHashingUnavailableException.class)
+  @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+  public CustomResponseBody<Void> handlePasswordHashingUnavailableException(
+    PasswordHashingUnavailableException e,
+    HttpServletResponse httpResponse
+  ) {
+    httpResponse.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, e.getRetryAfter().toSeconds())));
+
+    CustomResponseBody<Void> response = new CustomResponseBody<>();
+    response.setStatus(ResponseConditionStatus.ERROR);
+    response.setCode(HttpStatus.SERVICE_UNAVAILABLE);
+    response.setMessage(e.getMessage());
+    response.setData(null);
+    return response;
+  }
+
   @ExceptionHandler(Exception.class)
   @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
   public CustomResponseBody<Void> handleUncaughtException() {
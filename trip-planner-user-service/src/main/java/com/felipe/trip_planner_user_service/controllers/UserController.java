@@ -1,23 +1,32 @@
 package com.felipe.trip_planner_user_service.controllers;
 
+import com.felipe.trip_planner_user_service.dtos.UserBatchLookupDTO;
+import com.felipe.trip_planner_user_service.dtos.UserBatchResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserUpdateDTO;
+import com.felipe.trip_planner_user_service.exceptions.BatchSizeExceededException;
 import com.felipe.trip_planner_user_service.models.User;
 import com.felipe.trip_planner_user_service.services.UserService;
 import com.felipe.trip_planner_user_service.utils.response.CustomResponseBody;
 import com.felipe.trip_planner_user_service.utils.response.ResponseConditionStatus;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -26,9 +35,11 @@ import java.util.UUID;
 public class UserController {
 
   private final UserService userService;
+  private final int maxBatchSize;
 
-  public UserController(UserService userService) {
+  public UserController(UserService userService, @Value("${users.batch.max-size}") int maxBatchSize) {
     this.userService = userService;
+    this.maxBatchSize = maxBatchSize;
   }
 
   @GetMapping("/me")
@@ -76,6 +87,26 @@ public class UserController {
     return response;
   }
 
+  // Endpoints for internal calls from microservices to get many user profiles at once, e.g.
+  // GET /api/users/batch?emails=user1@email.com,user2@email.com or POST with {"emails": [...]} for longer lists
+  @GetMapping("/batch")
+  @ResponseStatus(HttpStatus.OK)
+  public UserBatchResponseDTO getProfiles(
+    @RequestParam
+    List<
+      @NotBlank(message = "O e-mail não deve estar em branco")
+      @Email(message = "O e-mail deve ser válido") String
+    > emails
+  ) {
+    return this.findProfiles(emails);
+  }
+
+  @PostMapping("/batch")
+  @ResponseStatus(HttpStatus.OK)
+  public UserBatchResponseDTO getProfiles(@RequestBody @Valid UserBatchLookupDTO batchLookupDTO) {
+    return this.findProfiles(batchLookupDTO.emails());
+  }
+
   // An endpoint for internal calls from microservices to get a user profile
   @GetMapping("/{email}")
   @ResponseStatus(HttpStatus.OK)
@@ -83,4 +114,11 @@ public class UserController {
     User foundUser = this.userService.getProfile(email);
     return new UserResponseDTO(foundUser);
   }
+
+  private UserBatchResponseDTO findProfiles(List<String> emails) {
+    if(emails.size() > this.maxBatchSize) {
+      throw new BatchSizeExceededException(this.maxBatchSize);
+    }
+    return this.userService.getProfiles(emails);
+  }
 }
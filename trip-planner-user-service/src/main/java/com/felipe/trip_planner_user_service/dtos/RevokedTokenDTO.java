@@ -0,0 +1,5 @@
+package com.felipe.trip_planner_user_service.dtos;
+
+import java.time.Instant;
+
+public record RevokedTokenDTO(String tokenId, Instant expiresAt) {}
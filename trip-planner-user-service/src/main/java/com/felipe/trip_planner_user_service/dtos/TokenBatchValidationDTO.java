@@ -0,0 +1,14 @@
+package com.felipe.trip_planner_user_service.dtos;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record TokenBatchValidationDTO(
+  @NotNull(message = "Os tokens são obrigatórios")
+  @NotEmpty(message = "A lista de tokens não deve estar vazia")
+  @Size(max = 500, message = "A lista de tokens deve ter no máximo 500 tokens")
+  List<String> tokens
+) {}
@@ -0,0 +1,11 @@
+package com.felipe.trip_planner_user_service.dtos;
+
+public record TokenValidationResultDTO(boolean valid, UserResponseDTO user, String message) {
+  public static TokenValidationResultDTO valid(UserResponseDTO user) {
+    return new TokenValidationResultDTO(true, user, null);
+  }
+
+  public static TokenValidationResultDTO invalid(String message) {
+    return new TokenValidationResultDTO(false, null, message);
+  }
+}
@@ -0,0 +1,17 @@
+package com.felipe.trip_planner_user_service.dtos;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record UserBatchLookupDTO(
+  @NotNull(message = "Os e-mails são obrigatórios")
+  @NotEmpty(message = "A lista de e-mails não deve estar vazia")
+  List<
+    @NotBlank(message = "O e-mail não deve estar em branco")
+    @Email(message = "O e-mail deve ser válido") String
+  > emails
+) {}
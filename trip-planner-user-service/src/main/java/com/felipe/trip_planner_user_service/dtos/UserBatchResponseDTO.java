@@ -0,0 +1,6 @@
+package com.felipe.trip_planner_user_service.dtos;
+
+import java.util.List;
+
+public record UserBatchResponseDTO(List<UserResponseDTO> users, List<String> notFound) {
+}
@@ -0,0 +1,7 @@
+package com.felipe.trip_planner_user_service.exceptions;
+
+public class BatchSizeExceededException extends RuntimeException {
+  public BatchSizeExceededException(int maxSize) {
+    super("A lista de e-mails deve ter no máximo " + maxSize + " e-mails");
+  }
+}
@@ -0,0 +1,16 @@
+package com.felipe.trip_planner_user_service.exceptions;
+
+import java.time.Duration;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+  private final Duration retryAfter;
+
+  public PasswordHashingUnavailableException(Duration retryAfter) {
+    super("Serviço temporariamente sobrecarregado. Tente novamente em instantes");
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return this.retryAfter;
+  }
+}
@@ -0,0 +1,44 @@
+package com.felipe.trip_planner_user_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+  @Id
+  @Column(name = "token_id")
+  private UUID tokenId;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  public RevokedToken() {}
+
+  public RevokedToken(UUID tokenId, Instant expiresAt) {
+    this.tokenId = tokenId;
+    this.expiresAt = expiresAt;
+  }
+
+  public UUID getTokenId() {
+    return this.tokenId;
+  }
+
+  public void setTokenId(UUID tokenId) {
+    this.tokenId = tokenId;
+  }
+
+  public Instant getExpiresAt() {
+    return this.expiresAt;
+  }
+
+  public void setExpiresAt(Instant expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+}
@@ -0,0 +1,56 @@
+package com.felipe.trip_planner_user_service.models;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "revoked_token_versions")
+public class RevokedTokenVersion {
+
+  @Id
+  @Column(name = "user_id")
+  private UUID userId;
+
+  @Column(name = "token_version", nullable = false)
+  private int tokenVersion;
+
+  @Column(name = "expires_at", nullable = false)
+  private Instant expiresAt;
+
+  public RevokedTokenVersion() {}
+
+  public RevokedTokenVersion(UUID userId, int tokenVersion, Instant expiresAt) {
+    this.userId = userId;
+    this.tokenVersion = tokenVersion;
+    this.expiresAt = expiresAt;
+  }
+
+  public UUID getUserId() {
+    return this.userId;
+  }
+
+  public void setUserId(UUID userId) {
+    this.userId = userId;
+  }
+
+  public int getTokenVersion() {
+    return this.tokenVersion;
+  }
+
+  public void setTokenVersion(int tokenVersion) {
+    this.tokenVersion = tokenVersion;
+  }
+
+  public Instant getExpiresAt() {
+    return this.expiresAt;
+  }
+
+  public void setExpiresAt(Instant expiresAt) {
+    this.expiresAt = expiresAt;
+  }
+}
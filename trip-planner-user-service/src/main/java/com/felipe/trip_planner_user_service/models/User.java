@@ -29,6 +29,9 @@ public class User {
   @Column(nullable = false, columnDefinition = "TEXT")
   private String password;
 
+  @Column(name = "token_version", nullable = false)
+  private int tokenVersion;
+
   @CreationTimestamp
   @Column(name = "created_at", nullable = false)
   private LocalDateTime createdAt;
@@ -71,6 +74,14 @@ public class User {
     this.password = password;
   }
 
+  public int getTokenVersion() {
+    return this.tokenVersion;
+  }
+
+  public void setTokenVersion(int tokenVersion) {
+    this.tokenVersion = tokenVersion;
+  }
+
   public LocalDateTime getCreatedAt() {
     return this.createdAt;
   }
@@ -0,0 +1,20 @@
+package com.felipe.trip_planner_user_service.repositories;
+
+import com.felipe.trip_planner_user_service.models.RevokedTokenVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public interface RevokedTokenVersionRepository extends JpaRepository<RevokedTokenVersion, UUID> {
+  List<RevokedTokenVersion> findAllByExpiresAtAfter(Instant instant);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM RevokedTokenVersion r WHERE r.expiresAt <= :instant")
+  int deleteAllExpiredAt(Instant instant);
+}
@@ -2,10 +2,25 @@ package com.felipe.trip_planner_user_service.repositories;
 
 import com.felipe.trip_planner_user_service.models.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserRepository extends JpaRepository<User, UUID> {
   Optional<User> findByEmail(String email);
+  List<User> findAllByEmailIn(Collection<String> emails);
+
+  @Query("SELECT u.tokenVersion FROM User u WHERE u.id = :id")
+  Optional<Integer> findTokenVersionById(UUID id);
+
+  // Only replaces the hash it was computed from, so a password changed in the meantime is kept
+  @Transactional
+  @Modifying
+  @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :currentPassword")
+  int updatePassword(UUID id, String currentPassword, String newPassword);
 }
@@ -1,6 +1,12 @@
 package com.felipe.trip_planner_user_service.security;
 
+import com.felipe.trip_planner_user_service.models.User;
 import com.felipe.trip_planner_user_service.repositories.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -8,13 +14,35 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Principals are cached by e-mail for a short time, so repeated token validations and profile lookups of the same
+// user do not hit the database. Users that do not exist are not cached, and every change to a user must evict it.
+// The eviction only reaches this instance, so the login, which checks the password hash, always loads the user from
+// the database: a password changed or an account deleted on another instance is never accepted from a stale entry
 @Service
 public class AuthService implements UserDetailsService {
 
   private final UserRepository userRepository;
+  private final Cache<String, UserPrincipal> principals;
 
-  public AuthService(UserRepository userRepository) {
+  public AuthService(
+    UserRepository userRepository,
+    MeterRegistry meterRegistry,
+    @Value("${auth.principal-cache.maximum-size}") long maximumSize,
+    @Value("${auth.principal-cache.ttl}") Duration timeToLive
+  ) {
     this.userRepository = userRepository;
+    this.principals = Caffeine.newBuilder()
+      .maximumSize(maximumSize)
+      .expireAfterWrite(timeToLive)
+      .recordStats()
+      .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, this.principals, "user.principals");
   }
 
   @Override
@@ -24,6 +52,24 @@ public class AuthService implements UserDetailsService {
       .orElseThrow(() -> new UsernameNotFoundException("Usuário com e-mail: " + username + " não encontrado"));
   }
 
+  public Optional<UserPrincipal> findPrincipal(String email) {
+    return Optional.ofNullable(this.principals.get(
+      email,
+      key -> this.userRepository.findByEmail(key).map(UserPrincipal::new).orElse(null)
+    ));
+  }
+
+  // The e-mails missing from the cache are loaded with a single query. E-mails without a user are left out
+  public Map<String, UserPrincipal> findPrincipals(Set<String> emails) {
+    return this.principals.getAll(emails, missing -> this.userRepository.findAllByEmailIn(Set.copyOf(missing))
+      .stream()
+      .collect(Collectors.toMap(User::getEmail, UserPrincipal::new, (first, second) -> first)));
+  }
+
+  public void evict(String email) {
+    this.principals.invalidate(email);
+  }
+
   public Authentication getAuthentication() {
     return SecurityContextHolder.getContext().getAuthentication();
   }
@@ -0,0 +1,63 @@
+package com.felipe.trip_planner_user_service.security;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Fixed-size Bloom filter of UUIDs. The size only depends on the expected number of entries and the false positive
+// rate, so adding more entries than expected raises the false positive rate but never the memory used.
+// The k bit positions are derived from two hashes of the UUID (double hashing)
+public class BloomFilter {
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  public BloomFilter(int expectedEntries, double falsePositiveRate) {
+    int entries = Math.max(expectedEntries, 1);
+    long optimalBits = (long) Math.ceil(-entries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.bitCount = Math.max(64, (optimalBits + 63) / 64 * 64);
+    this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / entries * Math.log(2)));
+    this.bits = new AtomicLongArray((int) (this.bitCount / 64));
+  }
+
+  public void add(UUID value) {
+    long hash1 = hash1(value);
+    long hash2 = hash2(value);
+    for(int i = 0; i < this.hashCount; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, this.bitCount);
+      int index = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current;
+      while(((current = this.bits.get(index)) & mask) == 0 && !this.bits.compareAndSet(index, current, current | mask)) {
+        // Retries until the bit is set by this or another thread
+      }
+    }
+  }
+
+  public boolean mightContain(UUID value) {
+    long hash1 = hash1(value);
+    long hash2 = hash2(value);
+    for(int i = 0; i < this.hashCount; i++) {
+      long bit = Math.floorMod(hash1 + i * hash2, this.bitCount);
+      if((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long hash1(UUID value) {
+    return mix(value.getMostSignificantBits() ^ Long.rotateLeft(value.getLeastSignificantBits(), 32));
+  }
+
+  private static long hash2(UUID value) {
+    return mix(value.getLeastSignificantBits() + 0x9E3779B97F4A7C15L);
+  }
+
+  // Finalizer of SplitMix64
+  private static long mix(long value) {
+    value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+    value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+    return value ^ (value >>> 31);
+  }
+}
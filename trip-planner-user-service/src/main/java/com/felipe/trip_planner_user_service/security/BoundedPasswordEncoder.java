@@ -0,0 +1,142 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.exceptions.PasswordHashingUnavailableException;
+import com.felipe.trip_planner_user_service.utils.ServerTiming;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hashing a password with BCrypt takes hundreds of milliseconds of CPU, so it runs on a small pool of its own with a
+// bounded queue. The request thread waits for the result, but at most pool-size + queue-capacity request threads can
+// be waiting at once: past that the hash is refused right away, the request gets a 503 with Retry-After, and the
+// remaining request threads and CPU are left to the cheap endpoints
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+  private final Duration retryAfter;
+  private final Operation encode;
+  private final Operation matches;
+  private final Counter rejected;
+
+  public BoundedPasswordEncoder(
+    PasswordEncoder delegate,
+    int poolSize,
+    int queueCapacity,
+    Duration retryAfter,
+    MeterRegistry meterRegistry
+  ) {
+    this.delegate = delegate;
+    this.retryAfter = retryAfter;
+    this.executor = new ThreadPoolExecutor(
+      poolSize,
+      poolSize,
+      0L,
+      TimeUnit.MILLISECONDS,
+      new ArrayBlockingQueue<>(queueCapacity),
+      new HashingThreadFactory(),
+      new ThreadPoolExecutor.AbortPolicy()
+    );
+    this.encode = new Operation("encode", meterRegistry);
+    this.matches = new Operation("matches", meterRegistry);
+    this.rejected = Counter.builder("user.password.hashing.rejected")
+      .description("Password hashes refused because the queue was full")
+      .register(meterRegistry);
+    Gauge.builder("user.password.hashing.queue.size", this.executor, executor -> executor.getQueue().size())
+      .register(meterRegistry);
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return this.execute(this.encode, () -> this.delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return this.execute(this.matches, () -> this.delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return this.delegate.upgradeEncoding(encodedPassword);
+  }
+
+  @Override
+  public void destroy() {
+    this.executor.shutdownNow();
+  }
+
+  private <T> T execute(Operation operation, Callable<T> hashing) {
+    long submittedAt = System.nanoTime();
+    Future<T> result;
+    try {
+      result = this.executor.submit(() -> {
+        long startedAt = System.nanoTime();
+        operation.waitTime().record(startedAt - submittedAt, TimeUnit.NANOSECONDS);
+        try {
+          return hashing.call();
+        } finally {
+          operation.hashTime().record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+      });
+    } catch(RejectedExecutionException e) {
+      this.rejected.increment();
+      throw new PasswordHashingUnavailableException(this.retryAfter);
+    }
+
+    try {
+      return result.get();
+    } catch(InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new PasswordHashingUnavailableException(this.retryAfter);
+    } catch(ExecutionException e) {
+      if(e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      ServerTiming.record(ServerTiming.HASH, System.nanoTime() - submittedAt);
+    }
+  }
+
+  private record Operation(Timer waitTime, Timer hashTime) {
+    private Operation(String name, MeterRegistry meterRegistry) {
+      this(
+        Timer.builder("user.password.hashing.wait")
+          .description("Time spent by a password hash waiting in the queue")
+          .tag("operation", name)
+          .register(meterRegistry),
+        Timer.builder("user.password.hashing.duration")
+          .description("Time spent hashing or checking a password")
+          .tag("operation", name)
+          .register(meterRegistry)
+      );
+    }
+  }
+
+  private static class HashingThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable, "password-hashing-" + this.count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+}
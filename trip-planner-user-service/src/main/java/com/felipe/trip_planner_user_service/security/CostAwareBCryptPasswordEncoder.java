@@ -0,0 +1,29 @@
+package com.felipe.trip_planner_user_service.security;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// BCryptPasswordEncoder only asks for an upgrade when the stored cost is lower than the configured one. Here any
+// other cost counts, so the cost can also be lowered (e.g. on nodes short of CPU) and the hashes follow on login
+public class CostAwareBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+  private static final Pattern BCRYPT_PATTERN = Pattern.compile("\\A\\$2(a|y|b)?\\$(\\d\\d)\\$[./0-9A-Za-z]{53}");
+
+  private final int strength;
+
+  public CostAwareBCryptPasswordEncoder(int strength) {
+    super(strength);
+    this.strength = strength;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if(encodedPassword == null) {
+      return false;
+    }
+    Matcher matcher = BCRYPT_PATTERN.matcher(encodedPassword);
+    return matcher.matches() && Integer.parseInt(matcher.group(2)) != this.strength;
+  }
+}
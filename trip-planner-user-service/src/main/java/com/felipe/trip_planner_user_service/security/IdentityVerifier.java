@@ -0,0 +1,97 @@
+package com.felipe.trip_planner_user_service.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Checks the identity headers signed by the gateway. Besides the signature, the timestamp must be within max-age
+// of the local clock (both ways, to allow for clock skew) and each nonce is only accepted once while it is valid.
+// The seen nonces are kept in memory, so a nonce is only rejected by the instance that already accepted it: within
+// max-age a captured set of headers can still be replayed against another instance or service. Keep max-age short
+// and the services reachable only through the gateway
+@Component
+public class IdentityVerifier {
+
+  private static final int SWEEP_INTERVAL = 1024;
+
+  private final IdentitySignature identitySignature;
+  private final long maxAgeMillis;
+  private final Map<String, Long> seenNonces = new ConcurrentHashMap<>();
+  private final AtomicInteger insertions = new AtomicInteger();
+
+  public IdentityVerifier(
+    @Value("${identity.signing-key}") String signingKey,
+    @Value("${identity.max-age}") Duration maxAge
+  ) {
+    if(signingKey == null || signingKey.isBlank()) {
+      throw new IllegalStateException("A chave de assinatura dos headers de identidade (identity.signing-key) não foi configurada");
+    }
+    this.identitySignature = new IdentitySignature(signingKey);
+    this.maxAgeMillis = maxAge.toMillis();
+  }
+
+  public boolean hasIdentity(HttpServletRequest request) {
+    return request.getHeader(IdentitySignature.USER_ID) != null
+      || request.getHeader(IdentitySignature.USERNAME) != null
+      || request.getHeader(IdentitySignature.USER_EMAIL) != null;
+  }
+
+  public boolean hasServiceIdentity(HttpServletRequest request) {
+    return request.getHeader(IdentitySignature.SERVICE_NAME) != null;
+  }
+
+  public void verify(HttpServletRequest request) {
+    String userId = request.getHeader(IdentitySignature.USER_ID);
+    String username = request.getHeader(IdentitySignature.USERNAME);
+    String userEmail = request.getHeader(IdentitySignature.USER_EMAIL);
+    String timestamp = request.getHeader(IdentitySignature.TIMESTAMP);
+    String nonce = request.getHeader(IdentitySignature.NONCE);
+    String signature = request.getHeader(IdentitySignature.SIGNATURE);
+
+    if(timestamp == null || nonce == null || signature == null
+      || !this.identitySignature.matches(signature, userId, username, userEmail, timestamp, nonce)) {
+      throw new BadCredentialsException("Assinatura dos headers de identidade inválida");
+    }
+    this.checkFreshness(timestamp, nonce);
+  }
+
+  // Returns the name of the service that signed the request
+  public String verifyService(HttpServletRequest request) {
+    String serviceName = request.getHeader(IdentitySignature.SERVICE_NAME);
+    String timestamp = request.getHeader(IdentitySignature.TIMESTAMP);
+    String nonce = request.getHeader(IdentitySignature.NONCE);
+    String signature = request.getHeader(IdentitySignature.SIGNATURE);
+
+    if(serviceName == null || timestamp == null || nonce == null || signature == null
+      || !this.identitySignature.matchesService(signature, serviceName, timestamp, nonce)) {
+      throw new BadCredentialsException("Assinatura dos headers de identidade inválida");
+    }
+    this.checkFreshness(timestamp, nonce);
+    return serviceName;
+  }
+
+  private void checkFreshness(String timestamp, String nonce) {
+    long now = System.currentTimeMillis();
+    long signedAt;
+    try {
+      signedAt = Long.parseLong(timestamp);
+    } catch(NumberFormatException e) {
+      throw new BadCredentialsException("Assinatura dos headers de identidade inválida");
+    }
+    if(Math.abs(now - signedAt) > this.maxAgeMillis) {
+      throw new BadCredentialsException("Headers de identidade expirados");
+    }
+    if(this.seenNonces.putIfAbsent(nonce, signedAt + this.maxAgeMillis) != null) {
+      throw new BadCredentialsException("Headers de identidade já utilizados");
+    }
+    if(this.insertions.incrementAndGet() % SWEEP_INTERVAL == 0) {
+      this.seenNonces.values().removeIf(expiresAt -> expiresAt < now);
+    }
+  }
+}
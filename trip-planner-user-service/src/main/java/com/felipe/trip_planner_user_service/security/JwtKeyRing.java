@@ -0,0 +1,101 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+// Keys used to sign and verify the tokens, loaded once at startup. The algorithm and the verifiers are thread-safe,
+// so a single instance of each is shared by every request. Tokens are signed with the active key and carry its id
+// in the "kid" header, which selects the verifier on validation
+@Component
+@EnableConfigurationProperties(JwtKeyRingProperties.class)
+public class JwtKeyRing {
+
+  private final String activeKeyId;
+  private final Algorithm signingAlgorithm;
+  private final JWTVerifier activeVerifier;
+  private final Map<String, KeyVerifier> verifiers = new HashMap<>();
+
+  public JwtKeyRing(
+    @Value("${jwt.key.id}") String activeKeyId,
+    @Value("${jwt.key.private}") RSAPrivateKey privateKey,
+    @Value("${jwt.key.public}") RSAPublicKey publicKey,
+    @Value("${jwt.issuer}") String jwtIssuer,
+    JwtKeyRingProperties properties,
+    ResourceLoader resourceLoader
+  ) {
+    if(activeKeyId == null || activeKeyId.isBlank()) {
+      throw new IllegalStateException("O id da chave ativa do JWT (jwt.key.id) não foi configurado");
+    }
+    this.activeKeyId = activeKeyId;
+    this.signingAlgorithm = Algorithm.RSA256(publicKey, privateKey);
+    this.activeVerifier = JWT.require(this.signingAlgorithm).withIssuer(jwtIssuer).build();
+
+    for(JwtKeyRingProperties.VerificationKey key : properties.verificationKeys()) {
+      if(key.id().equals(activeKeyId)) {
+        throw new IllegalStateException("A chave de verificação '" + key.id() + "' tem o mesmo id da chave ativa");
+      }
+      Algorithm algorithm = Algorithm.RSA256(this.readPublicKey(key.publicKey(), resourceLoader), null);
+      Instant validUntil = key.retiredAt() != null ? key.retiredAt().plus(properties.gracePeriod()) : null;
+      this.verifiers.put(key.id(), new KeyVerifier(JWT.require(algorithm).withIssuer(jwtIssuer).build(), validUntil));
+    }
+  }
+
+  public String getActiveKeyId() {
+    return this.activeKeyId;
+  }
+
+  public Algorithm getSigningAlgorithm() {
+    return this.signingAlgorithm;
+  }
+
+  // Tokens issued before the key ring have no "kid" and were signed with the active key. Returns null when the
+  // key is unknown or its grace window is over
+  public JWTVerifier getVerifier(String keyId) {
+    if(keyId == null || keyId.equals(this.activeKeyId)) {
+      return this.activeVerifier;
+    }
+    KeyVerifier keyVerifier = this.verifiers.get(keyId);
+    if(keyVerifier == null || (keyVerifier.validUntil() != null && Instant.now().isAfter(keyVerifier.validUntil()))) {
+      return null;
+    }
+    return keyVerifier.verifier();
+  }
+
+  private RSAPublicKey readPublicKey(String publicKey, ResourceLoader resourceLoader) {
+    try {
+      String pem = publicKey.startsWith("classpath:") || publicKey.startsWith("file:")
+        ? resourceLoader.getResource(publicKey).getContentAsString(StandardCharsets.UTF_8)
+        : publicKey;
+      String encodedKey = pem
+        .replace("-----BEGIN PUBLIC KEY-----", "")
+        .replace("-----END PUBLIC KEY-----", "")
+        .replaceAll("\\s", "");
+      X509EncodedKeySpec keySpec = new X509EncodedKeySpec(Base64.getDecoder().decode(encodedKey));
+      return (RSAPublicKey) KeyFactory.getInstance("RSA").generatePublic(keySpec);
+    } catch(IOException e) {
+      throw new UncheckedIOException(e);
+    } catch(GeneralSecurityException | IllegalArgumentException e) {
+      throw new IllegalStateException("Chave pública do JWT inválida", e);
+    }
+  }
+
+  private record KeyVerifier(JWTVerifier verifier, Instant validUntil) {}
+}
@@ -0,0 +1,21 @@
+package com.felipe.trip_planner_user_service.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// Public keys accepted besides the active one (jwt.key.*). A key without retiredAt is accepted until it is removed,
+// which allows publishing the next key before it becomes active. A retired key is accepted for gracePeriod after
+// retiredAt, long enough for the tokens it signed to expire
+@ConfigurationProperties("jwt.key-ring")
+public record JwtKeyRingProperties(Duration gracePeriod, List<VerificationKey> verificationKeys) {
+
+  public JwtKeyRingProperties {
+    gracePeriod = gracePeriod != null ? gracePeriod : Duration.ofHours(2);
+    verificationKeys = verificationKeys != null ? verificationKeys : List.of();
+  }
+
+  public record VerificationKey(String id, String publicKey, Instant retiredAt) {}
+}
@@ -2,57 +2,76 @@ package com.felipe.trip_planner_user_service.security;
 
 import com.auth0.jwt.JWT;
 import com.auth0.jwt.JWTVerifier;
-import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.security.interfaces.RSAPrivateKey;
-import java.security.interfaces.RSAPublicKey;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.UUID;
 
 @Service
 public class JwtService {
 
-  @Value("${jwt.key.private}")
-  private RSAPrivateKey privateKey;
+  private final JwtKeyRing keyRing;
+  private final TokenRevocationList tokenRevocationList;
+  private final String jwtIssuer;
 
-  @Value("${jwt.key.public}")
-  private RSAPublicKey publicKey;
-
-  @Value("${jwt.issuer}")
-  private String jwtIssuer;
+  public JwtService(JwtKeyRing keyRing, TokenRevocationList tokenRevocationList, @Value("${jwt.issuer}") String jwtIssuer) {
+    this.keyRing = keyRing;
+    this.tokenRevocationList = tokenRevocationList;
+    this.jwtIssuer = jwtIssuer;
+  }
 
   public String generateToken(UserPrincipal userPrincipal) {
     try {
-      Algorithm algorithm = Algorithm.RSA256(this.publicKey, this.privateKey);
       return JWT.create()
+        .withKeyId(this.keyRing.getActiveKeyId())
+        .withJWTId(UUID.randomUUID().toString())
         .withIssuer(this.jwtIssuer)
         .withSubject(userPrincipal.getUsername())
-        .withExpiresAt(this.generateExpirationDate())
+        .withIssuedAt(Instant.now())
+        .withExpiresAt(this.getLatestExpiration())
         .withClaim("userId", userPrincipal.getUser().getId().toString())
-        .sign(algorithm);
+        .withClaim("name", userPrincipal.getUser().getName())
+        .withClaim("tokenVersion", userPrincipal.getUser().getTokenVersion())
+        .sign(this.keyRing.getSigningAlgorithm());
     } catch(JWTCreationException | IllegalArgumentException e) {
       throw new JWTCreationException("Ocorreu um erro interno do servidor", e);
     }
   }
 
-  public String validateToken(String token) {
+  public TokenClaims validateToken(String token) {
     try {
-      Algorithm algorithm = Algorithm.RSA256(this.publicKey, this.privateKey);
-      JWTVerifier verifier = JWT.require(algorithm).withIssuer(this.jwtIssuer).build();
-      DecodedJWT decodedJWT = verifier.verify(token);
-      return decodedJWT.getSubject();
-    } catch(JWTVerificationException e) {
+      DecodedJWT decodedJWT = JWT.decode(token);
+      JWTVerifier verifier = this.keyRing.getVerifier(decodedJWT.getKeyId());
+      if(verifier == null) {
+        throw new JWTVerificationException("Chave de assinatura desconhecida ou expirada: " + decodedJWT.getKeyId());
+      }
+      verifier.verify(decodedJWT);
+      String userId = decodedJWT.getClaim("userId").asString();
+      String tokenId = decodedJWT.getId();
+      if(tokenId != null && this.tokenRevocationList.isRevoked(UUID.fromString(tokenId))) {
+        throw new JWTVerificationException("Token revogado: " + tokenId);
+      }
+      return new TokenClaims(
+        decodedJWT.getSubject(),
+        userId != null ? UUID.fromString(userId) : null,
+        decodedJWT.getClaim("name").asString(),
+        decodedJWT.getClaim("tokenVersion").asInt(),
+        tokenId != null ? UUID.fromString(tokenId) : null,
+        decodedJWT.getExpiresAtAsInstant()
+      );
+    } catch(JWTVerificationException | IllegalArgumentException e) {
       throw new JWTVerificationException("O token de acesso fornecido expirou, foi revogado ou é inválido", e);
     }
   }
 
-  private Instant generateExpirationDate() {
+  // Expiration of a token issued now, so every token issued so far expires by then
+  public Instant getLatestExpiration() {
     return LocalDateTime.now().plusHours(2).toInstant(ZoneOffset.of("-03:00"));
   }
 }
@@ -1,5 +1,7 @@
 package com.felipe.trip_planner_user_service.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -9,19 +11,24 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfiguration {
 
   private final SecurityFilter securityFilter;
+  private final int managementPort;
 
-  public SecurityConfiguration(SecurityFilter securityFilter) {
+  public SecurityConfiguration(SecurityFilter securityFilter, @Value("${management.server.port}") int managementPort) {
     this.securityFilter = securityFilter;
+    this.managementPort = managementPort;
   }
 
   @Bean
@@ -30,16 +37,35 @@ public class SecurityConfiguration {
       .csrf(AbstractHttpConfigurer::disable)
       .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
       .authorizeHttpRequests(authorize -> authorize
-        .requestMatchers("/api/auth/register", "/api/auth/login", "/api/auth/validate").permitAll()
+        .requestMatchers("/api/auth/register", "/api/auth/login").permitAll()
+        // Only called by the gateway, which signs them with its service identity
+        .requestMatchers("/api/auth/validate", "/api/auth/validate/batch").hasRole("SERVICE")
+        .requestMatchers(HttpMethod.GET, "/api/auth/revoked-tokens", "/api/auth/revoked-token-versions").hasRole("SERVICE")
+        // Only called by other services, which sign them with their service identity. Open, they would tell anyone
+        // which of a list of e-mails have an account
+        .requestMatchers("/api/users/batch").hasRole("SERVICE")
         .requestMatchers(HttpMethod.GET, "/api/users/{email}").permitAll()
+        // Actuator is only served on the management port, which is not published outside the internal network
+        .requestMatchers(request -> request.getLocalPort() == this.managementPort).permitAll()
         .anyRequest().authenticated())
       .addFilterBefore(this.securityFilter, UsernamePasswordAuthenticationFilter.class)
       .build();
   }
 
+  // New hashes are stored as "{bcrypt}<hash>" with the configured cost. Hashes stored before the prefix existed are
+  // all BCrypt, and any hash with another algorithm or cost is replaced on the next successful login
   @Bean
-  public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder(12);
+  public PasswordEncoder passwordEncoder(
+    MeterRegistry meterRegistry,
+    @Value("${auth.password-hashing.bcrypt-strength}") int strength,
+    @Value("${auth.password-hashing.pool-size}") int poolSize,
+    @Value("${auth.password-hashing.queue-capacity}") int queueCapacity,
+    @Value("${auth.password-hashing.retry-after}") Duration retryAfter
+  ) {
+    PasswordEncoder bcrypt = new CostAwareBCryptPasswordEncoder(strength);
+    DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+    delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return new BoundedPasswordEncoder(delegatingPasswordEncoder, poolSize, queueCapacity, retryAfter, meterRegistry);
   }
 
   @Bean
@@ -1,40 +1,55 @@
 package com.felipe.trip_planner_user_service.security;
 
+import com.felipe.trip_planner_user_service.models.User;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.web.servlet.HandlerExceptionResolver;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
 
+// The identity headers are signed by the gateway, so once the signature is verified the principal is built
+// straight from them, without loading the user from the database. Requests signed with a service identity, by the
+// gateway or by another service, get only the SERVICE role, which the internal endpoints require
 @Component
 public class SecurityFilter extends OncePerRequestFilter {
 
-  private final AuthService authService;
+  private static final List<SimpleGrantedAuthority> SERVICE_AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_SERVICE"));
+
+  private final IdentityVerifier identityVerifier;
   private final HandlerExceptionResolver resolver;
 
-  public SecurityFilter(AuthService authService, @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
-    this.authService = authService;
+  public SecurityFilter(IdentityVerifier identityVerifier, @Qualifier("handlerExceptionResolver") HandlerExceptionResolver resolver) {
+    this.identityVerifier = identityVerifier;
     this.resolver = resolver;
   }
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
     try {
-      String userId = request.getHeader("userId");
-      String username = request.getHeader("username");
-      String userEmail = request.getHeader("userEmail");
+      if(this.identityVerifier.hasServiceIdentity(request)) {
+        String serviceName = this.identityVerifier.verifyService(request);
+        var auth = new UsernamePasswordAuthenticationToken(serviceName, null, SERVICE_AUTHORITIES);
+        SecurityContextHolder.getContext().setAuthentication(auth);
+      } else if(this.identityVerifier.hasIdentity(request)) {
+        this.identityVerifier.verify(request);
+
+        User user = new User();
+        user.setId(UUID.fromString(request.getHeader(IdentitySignature.USER_ID)));
+        user.setName(request.getHeader(IdentitySignature.USERNAME));
+        user.setEmail(request.getHeader(IdentitySignature.USER_EMAIL));
 
-      if(userId != null && username != null && userEmail != null) {
-        UserDetails userDetails = this.authService.loadUserByUsername(userEmail);
-        var auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+        UserPrincipal userPrincipal = new UserPrincipal(user);
+        var auth = new UsernamePasswordAuthenticationToken(userPrincipal, null, userPrincipal.getAuthorities());
         SecurityContextHolder.getContext().setAuthentication(auth);
       }
 
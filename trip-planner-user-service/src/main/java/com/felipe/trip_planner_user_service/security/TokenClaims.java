@@ -0,0 +1,13 @@
+package com.felipe.trip_planner_user_service.security;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Claims of a verified access token. Tokens issued before the "tokenVersion" claim only carry the e-mail reliably,
+// so the user must be looked up to validate them. Tokens issued before the "jti" claim cannot be revoked one by one
+public record TokenClaims(String email, UUID userId, String name, Integer tokenVersion, UUID tokenId, Instant expiresAt) {
+
+  public boolean isSelfContained() {
+    return this.userId != null && this.name != null && this.tokenVersion != null;
+  }
+}
@@ -0,0 +1,96 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.models.RevokedToken;
+import com.felipe.trip_planner_user_service.repositories.RevokedTokenRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Ids (jti) of the tokens revoked before they expire. Checking a token only touches memory: the Bloom filter rules
+// out almost every token that was not revoked, and only its positives are checked against the exact set.
+// Revocations are stored in the database and the structure is rebuilt periodically, which drops the expired
+// entries and picks up the revocations made by other instances. At most "capacity" tokens are kept: past that,
+// revoke() returns false and the caller must revoke the tokens in another way
+@Component
+@EnableScheduling
+public class TokenRevocationList {
+
+  private final RevokedTokenRepository revokedTokenRepository;
+  private final int capacity;
+  private final double falsePositiveRate;
+  private final Object lock = new Object();
+  private volatile Snapshot snapshot;
+
+  public TokenRevocationList(
+    RevokedTokenRepository revokedTokenRepository,
+    @Value("${auth.revocation.capacity}") int capacity,
+    @Value("${auth.revocation.false-positive-rate}") double falsePositiveRate
+  ) {
+    this.revokedTokenRepository = revokedTokenRepository;
+    this.capacity = capacity;
+    this.falsePositiveRate = falsePositiveRate;
+    this.snapshot = new Snapshot(new BloomFilter(capacity, falsePositiveRate), new ConcurrentHashMap<>());
+  }
+
+  public boolean isRevoked(UUID tokenId) {
+    Snapshot snapshot = this.snapshot;
+    return snapshot.filter().mightContain(tokenId) && snapshot.revokedTokens().containsKey(tokenId);
+  }
+
+  // Only the in-memory update holds the lock, so concurrent revocations don't wait for each other's database write.
+  // The token is rejected by this instance even if storing it fails, since rebuild() keeps the unexpired local entries
+  public boolean revoke(UUID tokenId, Instant expiresAt) {
+    synchronized(this.lock) {
+      Snapshot snapshot = this.snapshot;
+      if(snapshot.revokedTokens().containsKey(tokenId)) {
+        return true;
+      }
+      if(snapshot.revokedTokens().size() >= this.capacity) {
+        return false;
+      }
+      snapshot.revokedTokens().put(tokenId, expiresAt);
+      snapshot.filter().add(tokenId);
+    }
+    this.revokedTokenRepository.save(new RevokedToken(tokenId, expiresAt));
+    return true;
+  }
+
+  public Map<UUID, Instant> getRevokedTokens() {
+    return Collections.unmodifiableMap(this.snapshot.revokedTokens());
+  }
+
+  @Scheduled(fixedDelayString = "${auth.revocation.rebuild-interval}")
+  public void rebuild() {
+    Instant now = Instant.now();
+    this.revokedTokenRepository.deleteAllExpiredAt(now);
+    List<RevokedToken> storedTokens = this.revokedTokenRepository.findAllByExpiresAtAfter(now);
+
+    Map<UUID, Instant> revokedTokens = new HashMap<>(storedTokens.size());
+    for(RevokedToken storedToken : storedTokens) {
+      revokedTokens.put(storedToken.getTokenId(), storedToken.getExpiresAt());
+    }
+
+    synchronized(this.lock) {
+      // Revocations made while the stored ones were loaded
+      this.snapshot.revokedTokens().forEach((tokenId, expiresAt) -> {
+        if(expiresAt.isAfter(now)) {
+          revokedTokens.putIfAbsent(tokenId, expiresAt);
+        }
+      });
+      BloomFilter filter = new BloomFilter(this.capacity, this.falsePositiveRate);
+      revokedTokens.keySet().forEach(filter::add);
+      this.snapshot = new Snapshot(filter, new ConcurrentHashMap<>(revokedTokens));
+    }
+  }
+
+  private record Snapshot(BloomFilter filter, Map<UUID, Instant> revokedTokens) {}
+}
@@ -0,0 +1,85 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.models.RevokedTokenVersion;
+import com.felipe.trip_planner_user_service.repositories.RevokedTokenVersionRepository;
+import com.felipe.trip_planner_user_service.repositories.UserRepository;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Current token version of every user, so a token can be validated without loading the user. Changing the password
+// or deleting the user increases the version and revokes the tokens already issued. The gateway validates tokens
+// without this table, so every revocation is also stored until the tokens it revokes have expired, and the gateway
+// pulls them from /api/auth/revoked-token-versions.
+// Every version change is stored as a revocation, so the table is refreshed periodically from the revocations that
+// have not expired yet, which picks up the changes made by other instances without reading every user. Versions only
+// increase, so the refresh keeps the highest of the loaded and the local version, and a local change is never undone
+// by a refresh that started before it. Users missing from the table are looked up once, and the ones that don't exist
+// are kept as deleted, so an unknown user never hits the database again. A token with a higher version than the
+// table knows was issued after a change this instance has not seen yet, so its user is looked up again
+@Component
+@EnableScheduling
+public class TokenVersionTable {
+
+  static final int DELETED = Integer.MAX_VALUE;
+
+  private final UserRepository userRepository;
+  private final RevokedTokenVersionRepository revokedTokenVersionRepository;
+  private final Object lock = new Object();
+  private final Map<UUID, Integer> versions = new ConcurrentHashMap<>();
+
+  public TokenVersionTable(UserRepository userRepository, RevokedTokenVersionRepository revokedTokenVersionRepository) {
+    this.userRepository = userRepository;
+    this.revokedTokenVersionRepository = revokedTokenVersionRepository;
+  }
+
+  public boolean isCurrent(UUID userId, int tokenVersion) {
+    Integer version = this.versions.get(userId);
+    if(version == null || version < tokenVersion) {
+      Optional<Integer> storedVersion = this.userRepository.findTokenVersionById(userId);
+      version = this.versions.merge(userId, storedVersion.orElse(DELETED), Math::max);
+    }
+    return version != DELETED && version == tokenVersion;
+  }
+
+  public void update(UUID userId, int tokenVersion) {
+    synchronized(this.lock) {
+      this.versions.merge(userId, tokenVersion, Math::max);
+    }
+  }
+
+  // Revokes the tokens of the user with a lower version. expiresAt must not be earlier than the expiration of any token
+  // issued so far, since the stored revocation is dropped after it
+  public void revoke(UUID userId, int tokenVersion, Instant expiresAt) {
+    this.update(userId, tokenVersion);
+    this.revokedTokenVersionRepository.save(new RevokedTokenVersion(userId, tokenVersion, expiresAt));
+  }
+
+  public void markDeleted(UUID userId, Instant expiresAt) {
+    this.revoke(userId, DELETED, expiresAt);
+  }
+
+  public List<RevokedTokenVersion> getRevokedVersions() {
+    return this.revokedTokenVersionRepository.findAllByExpiresAtAfter(Instant.now());
+  }
+
+  @Scheduled(fixedDelayString = "${auth.token-versions.refresh-interval}")
+  public void refresh() {
+    Instant now = Instant.now();
+    this.revokedTokenVersionRepository.deleteAllExpiredAt(now);
+    List<RevokedTokenVersion> revokedVersions = this.revokedTokenVersionRepository.findAllByExpiresAtAfter(now);
+
+    synchronized(this.lock) {
+      for(RevokedTokenVersion revokedVersion : revokedVersions) {
+        this.versions.merge(revokedVersion.getUserId(), revokedVersion.getTokenVersion(), Math::max);
+      }
+    }
+  }
+}
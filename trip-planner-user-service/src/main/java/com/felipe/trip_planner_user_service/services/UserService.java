@@ -1,9 +1,14 @@
 package com.felipe.trip_planner_user_service.services;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.felipe.trip_planner_user_service.dtos.RevokedTokenDTO;
+import com.felipe.trip_planner_user_service.dtos.RevokedTokenVersionDTO;
+import com.felipe.trip_planner_user_service.dtos.TokenValidationResultDTO;
+import com.felipe.trip_planner_user_service.dtos.UserBatchResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserLoginDTO;
 import com.felipe.trip_planner_user_service.dtos.UserResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserUpdateDTO;
+import com.felipe.trip_planner_user_service.exceptions.PasswordHashingUnavailableException;
 import com.felipe.trip_planner_user_service.exceptions.RecordNotFoundException;
 import com.felipe.trip_planner_user_service.exceptions.UserAlreadyExistsException;
 import com.felipe.trip_planner_user_service.dtos.UserRegisterDTO;
@@ -11,6 +16,9 @@ import com.felipe.trip_planner_user_service.models.User;
 import com.felipe.trip_planner_user_service.repositories.UserRepository;
 import com.felipe.trip_planner_user_service.security.AuthService;
 import com.felipe.trip_planner_user_service.security.JwtService;
+import com.felipe.trip_planner_user_service.security.TokenClaims;
+import com.felipe.trip_planner_user_service.security.TokenRevocationList;
+import com.felipe.trip_planner_user_service.security.TokenVersionTable;
 import com.felipe.trip_planner_user_service.security.UserPrincipal;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -20,8 +28,13 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -33,19 +46,25 @@ public class UserService {
   private final AuthenticationManager authenticationManager;
   private final JwtService jwtService;
   private final AuthService authService;
+  private final TokenVersionTable tokenVersionTable;
+  private final TokenRevocationList tokenRevocationList;
 
   public UserService(
     UserRepository userRepository,
     PasswordEncoder passwordEncoder,
     AuthenticationManager authenticationManager,
     JwtService jwtService,
-    AuthService authService
+    AuthService authService,
+    TokenVersionTable tokenVersionTable,
+    TokenRevocationList tokenRevocationList
   ) {
     this.userRepository = userRepository;
     this.passwordEncoder = passwordEncoder;
     this.authenticationManager = authenticationManager;
     this.jwtService = jwtService;
     this.authService = authService;
+    this.tokenVersionTable = tokenVersionTable;
+    this.tokenRevocationList = tokenRevocationList;
   }
 
   public User register(UserRegisterDTO userRegisterDTO) {
@@ -68,6 +87,7 @@ public class UserService {
       var auth = new UsernamePasswordAuthenticationToken(loginDTO.email(), loginDTO.password());
       Authentication authentication = this.authenticationManager.authenticate(auth);
       UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+      this.upgradePasswordHash(userPrincipal.getUser(), loginDTO.password());
       String token = this.jwtService.generateToken(userPrincipal);
 
       Map<String, Object> loginResponse = new HashMap<>(2);
@@ -80,17 +100,110 @@ public class UserService {
     }
   }
 
+  // Revokes the given token of the authenticated user. When the token cannot be revoked by its id (issued without
+  // "jti", or the revocation list is full) every token of the user is revoked by increasing its token version, which
+  // the gateway picks up from the revoked token versions like the revoked token ids
+  public void logout(String token) {
+    TokenClaims claims = this.jwtService.validateToken(token);
+    Authentication authentication = this.authService.getAuthentication();
+    UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
+    UUID userId = userPrincipal.getUser().getId();
+
+    if(!claims.email().equals(userPrincipal.getUser().getEmail())) {
+      throw new AccessDeniedException("Acesso negado: O token informado não pertence ao usuário autenticado");
+    }
+    if(claims.tokenId() != null && this.tokenRevocationList.revoke(claims.tokenId(), claims.expiresAt())) {
+      return;
+    }
+
+    User user = this.userRepository.findById(userId)
+      .orElseThrow(() -> new RecordNotFoundException("Usuário de id: '" + userId + "' não encontrado"));
+    user.setTokenVersion(user.getTokenVersion() + 1);
+    User updatedUser = this.userRepository.save(user);
+    this.tokenVersionTable.revoke(updatedUser.getId(), updatedUser.getTokenVersion(), this.jwtService.getLatestExpiration());
+    this.authService.evict(updatedUser.getEmail());
+  }
+
   public UserResponseDTO validateToken(String token) {
-    String email = this.jwtService.validateToken(token);
-    return this.userRepository.findByEmail(email)
-      .map(UserResponseDTO::new)
+    TokenClaims claims = this.jwtService.validateToken(token);
+    if(claims.isSelfContained()) {
+      return this.resolveSelfContained(claims)
+        .orElseThrow(() -> new JWTVerificationException("O token de acesso fornecido expirou, foi revogado ou é inválido"));
+    }
+    return this.authService.findPrincipal(claims.email())
+      .map(userPrincipal -> new UserResponseDTO(userPrincipal.getUser()))
       .orElseThrow(() -> new JWTVerificationException("Token inválido"));
   }
 
+  // Every token is verified individually. Tokens carrying the user claims are validated against the token version
+  // table, and the subjects of the older tokens missing from the principal cache are resolved with a single query.
+  // The results are returned in the same order as the given tokens
+  public List<TokenValidationResultDTO> validateTokens(List<String> tokens) {
+    List<TokenClaims> claimsList = new ArrayList<>(tokens.size());
+    Set<String> emails = new HashSet<>(tokens.size());
+
+    for(String token : tokens) {
+      try {
+        TokenClaims claims = this.jwtService.validateToken(token);
+        claimsList.add(claims);
+        if(!claims.isSelfContained()) {
+          emails.add(claims.email());
+        }
+      } catch(JWTVerificationException e) {
+        claimsList.add(null);
+      }
+    }
+
+    Map<String, UserPrincipal> principalsByEmail = emails.isEmpty() ? Map.of() : this.authService.findPrincipals(emails);
+
+    List<TokenValidationResultDTO> results = new ArrayList<>(tokens.size());
+    for(TokenClaims claims : claimsList) {
+      if(claims == null) {
+        results.add(TokenValidationResultDTO.invalid("O token de acesso fornecido expirou, foi revogado ou é inválido"));
+        continue;
+      }
+      if(claims.isSelfContained()) {
+        results.add(this.resolveSelfContained(claims)
+          .map(TokenValidationResultDTO::valid)
+          .orElseGet(() -> TokenValidationResultDTO.invalid("O token de acesso fornecido expirou, foi revogado ou é inválido")));
+        continue;
+      }
+      UserPrincipal userPrincipal = principalsByEmail.get(claims.email());
+      results.add(userPrincipal != null
+        ? TokenValidationResultDTO.valid(new UserResponseDTO(userPrincipal.getUser()))
+        : TokenValidationResultDTO.invalid("Token inválido"));
+    }
+    return results;
+  }
+
+  public List<RevokedTokenDTO> getRevokedTokens() {
+    return this.tokenRevocationList.getRevokedTokens()
+      .entrySet()
+      .stream()
+      .map(revokedToken -> new RevokedTokenDTO(revokedToken.getKey().toString(), revokedToken.getValue()))
+      .toList();
+  }
+
+  public List<RevokedTokenVersionDTO> getRevokedTokenVersions() {
+    return this.tokenVersionTable.getRevokedVersions()
+      .stream()
+      .map(revokedVersion -> new RevokedTokenVersionDTO(
+        revokedVersion.getUserId().toString(),
+        revokedVersion.getTokenVersion(),
+        revokedVersion.getExpiresAt()
+      ))
+      .toList();
+  }
+
+  // The principal is built from the identity headers and only carries the id, name and e-mail,
+  // so the full user comes from the principal cache
   public User getAuthenticatedUserProfile() {
     Authentication authentication = this.authService.getAuthentication();
     UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-    return userPrincipal.getUser();
+    String email = userPrincipal.getUser().getEmail();
+    return this.authService.findPrincipal(email)
+      .map(UserPrincipal::getUser)
+      .orElseThrow(() -> new RecordNotFoundException("Usuário de email: '" + email + "' não encontrado"));
   }
 
   public User getProfile(String email) {
@@ -98,6 +211,30 @@ public class UserService {
       .orElseThrow(() -> new RecordNotFoundException("Usuário de email: '" + email + "' não encontrado"));
   }
 
+  // All the users are loaded with a single query on the unique e-mail index. The users found follow the order of the
+  // given e-mails, repeated e-mails are only looked up once and the e-mails without a user are returned in notFound.
+  // E-mails are matched exactly as stored, like getProfile() and the login, so an e-mail with a different case is
+  // reported in notFound instead of finding a user the other lookups would not find
+  public UserBatchResponseDTO getProfiles(List<String> emails) {
+    Set<String> distinctEmails = new LinkedHashSet<>(emails);
+    Map<String, User> usersByEmail = new HashMap<>(distinctEmails.size());
+    for(User user : this.userRepository.findAllByEmailIn(distinctEmails)) {
+      usersByEmail.put(user.getEmail(), user);
+    }
+
+    List<UserResponseDTO> users = new ArrayList<>(usersByEmail.size());
+    List<String> notFound = new ArrayList<>();
+    for(String email : distinctEmails) {
+      User user = usersByEmail.get(email);
+      if(user != null) {
+        users.add(new UserResponseDTO(user));
+      } else {
+        notFound.add(email);
+      }
+    }
+    return new UserBatchResponseDTO(users, notFound);
+  }
+
   public User update(UUID userId, UserUpdateDTO updateDTO) {
     Authentication authentication = this.authService.getAuthentication();
     UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
@@ -114,8 +251,14 @@ public class UserService {
         }
         if(updateDTO.password() != null) {
           foundUser.setPassword(this.passwordEncoder.encode(updateDTO.password()));
+          foundUser.setTokenVersion(foundUser.getTokenVersion() + 1);
+        }
+        User updatedUser = this.userRepository.save(foundUser);
+        if(updateDTO.password() != null) {
+          this.tokenVersionTable.revoke(updatedUser.getId(), updatedUser.getTokenVersion(), this.jwtService.getLatestExpiration());
         }
-        return this.userRepository.save(foundUser);
+        this.authService.evict(updatedUser.getEmail());
+        return updatedUser;
       })
       .orElseThrow(() -> new RecordNotFoundException("Usuário de id: '" + userId + "' não encontrado"));
   }
@@ -123,8 +266,35 @@ public class UserService {
   public User deleteAuthenticatedUserProfile() {
     Authentication authentication = this.authService.getAuthentication();
     UserPrincipal userPrincipal = (UserPrincipal) authentication.getPrincipal();
-    User authenticatedUser = userPrincipal.getUser();
-    this.userRepository.deleteById(authenticatedUser.getId());
+    UUID userId = userPrincipal.getUser().getId();
+    User authenticatedUser = this.userRepository.findById(userId)
+      .orElseThrow(() -> new RecordNotFoundException("Usuário de id: '" + userId + "' não encontrado"));
+    this.userRepository.delete(authenticatedUser);
+    this.tokenVersionTable.markDeleted(userId, this.jwtService.getLatestExpiration());
+    this.authService.evict(authenticatedUser.getEmail());
     return authenticatedUser;
   }
+
+  // The raw password is only known on login, so that is when a hash with another algorithm or cost than the
+  // configured one is replaced. Under load the rehash is skipped instead of failing the login, and tried again next time
+  private void upgradePasswordHash(User user, String rawPassword) {
+    if(!this.passwordEncoder.upgradeEncoding(user.getPassword())) {
+      return;
+    }
+    try {
+      String encodedPassword = this.passwordEncoder.encode(rawPassword);
+      if(this.userRepository.updatePassword(user.getId(), user.getPassword(), encodedPassword) > 0) {
+        this.authService.evict(user.getEmail());
+      }
+    } catch(PasswordHashingUnavailableException ignored) {
+    }
+  }
+
+  // The token already carries everything returned, so it is only checked that it has not been revoked
+  private Optional<UserResponseDTO> resolveSelfContained(TokenClaims claims) {
+    if(!this.tokenVersionTable.isCurrent(claims.userId(), claims.tokenVersion())) {
+      return Optional.empty();
+    }
+    return Optional.of(new UserResponseDTO(claims.userId().toString(), claims.name(), claims.email(), null, null));
+  }
 }
@@ -0,0 +1,64 @@
+package com.felipe.trip_planner_user_service.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Accumulates, for the request being handled by the current thread, how long was spent on each kind of work.
+// Recording is a no-op outside of a request, so it can be called from anywhere (e.g. from the tests)
+public final class ServerTiming {
+
+  public static final String HEADER_NAME = "Server-Timing";
+  public static final String DB = "user-db";
+  public static final String JSON = "user-json";
+  public static final String HASH = "user-hash";
+
+  private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+
+  private final Map<String, Long> durations = new LinkedHashMap<>(4);
+  private boolean headerWritten;
+
+  private ServerTiming() {}
+
+  public static ServerTiming start() {
+    ServerTiming serverTiming = new ServerTiming();
+    CURRENT.set(serverTiming);
+    return serverTiming;
+  }
+
+  public static ServerTiming current() {
+    return CURRENT.get();
+  }
+
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  public static void record(String name, long durationNanos) {
+    ServerTiming serverTiming = CURRENT.get();
+    if(serverTiming != null) {
+      serverTiming.durations.merge(name, durationNanos, Long::sum);
+    }
+  }
+
+  public boolean isHeaderWritten() {
+    return this.headerWritten;
+  }
+
+  // Durations are written in milliseconds with one decimal place, e.g. "user-db;dur=12.3, user-json;dur=0.4"
+  public String toHeaderValue() {
+    this.headerWritten = true;
+    StringBuilder headerValue = new StringBuilder(this.durations.size() * 24);
+    for(Map.Entry<String, Long> entry : this.durations.entrySet()) {
+      if(!headerValue.isEmpty()) {
+        headerValue.append(", ");
+      }
+      long tenthsOfMillis = entry.getValue() / 100_000;
+      headerValue.append(entry.getKey())
+        .append(";dur=")
+        .append(tenthsOfMillis / 10)
+        .append('.')
+        .append(tenthsOfMillis % 10);
+    }
+    return headerValue.toString();
+  }
+}
@@ -0,0 +1,6 @@
+CREATE TABLE revoked_tokens (
+    token_id   UUID                     PRIMARY KEY NOT NULL,
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_revoked_tokens_expires_at ON revoked_tokens (expires_at);
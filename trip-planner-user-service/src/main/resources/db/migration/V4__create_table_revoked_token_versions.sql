@@ -0,0 +1,7 @@
+CREATE TABLE revoked_token_versions (
+    user_id       UUID                     PRIMARY KEY NOT NULL,
+    token_version INTEGER                  NOT NULL,
+    expires_at    TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX idx_revoked_token_versions_expires_at ON revoked_token_versions (expires_at);
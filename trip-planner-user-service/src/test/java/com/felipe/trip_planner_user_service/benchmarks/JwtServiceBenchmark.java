@@ -0,0 +1,123 @@
+package com.felipe.trip_planner_user_service.benchmarks;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.felipe.trip_planner_user_service.models.User;
+import com.felipe.trip_planner_user_service.repositories.RevokedTokenRepository;
+import com.felipe.trip_planner_user_service.security.JwtKeyRing;
+import com.felipe.trip_planner_user_service.security.JwtKeyRingProperties;
+import com.felipe.trip_planner_user_service.security.JwtService;
+import com.felipe.trip_planner_user_service.security.TokenRevocationList;
+import com.felipe.trip_planner_user_service.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+// Compares signing and verifying with the key ring, which builds the algorithm and the verifiers once, with the
+// previous JwtService, which built a new Algorithm.RSA256 and JWTVerifier on every call. The key ring path also
+// checks the revocation list.
+// Run with: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//   -Dexec.args="-cp %classpath org.openjdk.jmh.Main JwtServiceBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class JwtServiceBenchmark {
+
+  private static final String ISSUER = "trip-planner-user-service";
+
+  private RSAPublicKey publicKey;
+  private RSAPrivateKey privateKey;
+  private JwtService jwtService;
+  private UserPrincipal userPrincipal;
+  private String token;
+
+  @Setup
+  public void setUp() throws NoSuchAlgorithmException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    KeyPair keyPair = generator.generateKeyPair();
+    this.publicKey = (RSAPublicKey) keyPair.getPublic();
+    this.privateKey = (RSAPrivateKey) keyPair.getPrivate();
+
+    JwtKeyRing keyRing = new JwtKeyRing(
+      "key-1",
+      this.privateKey,
+      this.publicKey,
+      ISSUER,
+      new JwtKeyRingProperties(Duration.ofHours(2), List.of()),
+      new DefaultResourceLoader()
+    );
+    TokenRevocationList tokenRevocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), 100_000, 0.01);
+    this.jwtService = new JwtService(keyRing, tokenRevocationList, ISSUER);
+
+    User user = new User();
+    user.setId(UUID.fromString("62dac895-a1f0-4140-b52b-4c12cb82c6ff"));
+    user.setName("User 1");
+    user.setEmail("user1@email.com");
+    this.userPrincipal = new UserPrincipal(user);
+    this.token = this.jwtService.generateToken(this.userPrincipal);
+  }
+
+  @Benchmark
+  public String signPerCallAlgorithm() {
+    Algorithm algorithm = Algorithm.RSA256(this.publicKey, this.privateKey);
+    return JWT.create()
+      .withIssuer(ISSUER)
+      .withSubject(this.userPrincipal.getUsername())
+      .withExpiresAt(Instant.now().plus(Duration.ofHours(2)))
+      .withClaim("userId", this.userPrincipal.getUser().getId().toString())
+      .withClaim("name", this.userPrincipal.getUser().getName())
+      .sign(algorithm);
+  }
+
+  @Benchmark
+  public String signKeyRing() {
+    return this.jwtService.generateToken(this.userPrincipal);
+  }
+
+  @Benchmark
+  public String verifyPerCallVerifier() {
+    Algorithm algorithm = Algorithm.RSA256(this.publicKey, this.privateKey);
+    JWTVerifier verifier = JWT.require(algorithm).withIssuer(ISSUER).build();
+    return verifier.verify(this.token).getSubject();
+  }
+
+  @Benchmark
+  public String verifyKeyRing() {
+    return this.jwtService.validateToken(this.token).email();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+  }
+}
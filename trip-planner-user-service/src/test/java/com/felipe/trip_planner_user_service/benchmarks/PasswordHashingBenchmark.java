@@ -0,0 +1,68 @@
+package com.felipe.trip_planner_user_service.benchmarks;
+
+import com.felipe.trip_planner_user_service.security.CostAwareBCryptPasswordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Latency of the password check done on every login (matches) and of the hash done on register, password change and
+// rehash (encode) for each BCrypt strength, using the same encoders as SecurityConfiguration. The rest of the login
+// (principal lookup and token signing) takes well under a millisecond, so this is the number to pick
+// auth.password-hashing.bcrypt-strength from. Each thread of the hashing pool keeps one core busy for this long.
+// Run with: mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+//   -Dexec.args="-cp %classpath org.openjdk.jmh.Main PasswordHashingBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 3)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+  private static final String PASSWORD = "password-123456";
+
+  @Param({"10", "11", "12", "13"})
+  private int strength;
+
+  private PasswordEncoder passwordEncoder;
+  private String encodedPassword;
+
+  @Setup
+  public void setUp() {
+    PasswordEncoder bcrypt = new CostAwareBCryptPasswordEncoder(this.strength);
+    DelegatingPasswordEncoder delegatingPasswordEncoder = new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+    delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    this.passwordEncoder = delegatingPasswordEncoder;
+    this.encodedPassword = this.passwordEncoder.encode(PASSWORD);
+  }
+
+  @Benchmark
+  public boolean login() {
+    return this.passwordEncoder.matches(PASSWORD, this.encodedPassword);
+  }
+
+  @Benchmark
+  public String rehash() {
+    return this.passwordEncoder.encode(PASSWORD);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PasswordHashingBenchmark.class.getSimpleName()).build()).run();
+  }
+}
@@ -2,9 +2,14 @@ package com.felipe.trip_planner_user_service.controllers;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipe.trip_planner_user_service.dtos.RevokedTokenDTO;
+import com.felipe.trip_planner_user_service.dtos.RevokedTokenVersionDTO;
+import com.felipe.trip_planner_user_service.dtos.TokenBatchValidationDTO;
+import com.felipe.trip_planner_user_service.dtos.TokenValidationResultDTO;
 import com.felipe.trip_planner_user_service.dtos.UserLoginDTO;
 import com.felipe.trip_planner_user_service.dtos.UserRegisterDTO;
 import com.felipe.trip_planner_user_service.dtos.UserResponseDTO;
+import com.felipe.trip_planner_user_service.exceptions.PasswordHashingUnavailableException;
 import com.felipe.trip_planner_user_service.exceptions.UserAlreadyExistsException;
 import com.felipe.trip_planner_user_service.models.User;
 import com.felipe.trip_planner_user_service.services.UserService;
@@ -18,22 +23,29 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -168,6 +180,89 @@ public class AuthControllerTest {
     verify(this.userService, times(1)).login(loginDTO);
   }
 
+  @Test
+  @DisplayName("login - Should return an error response with service unavailable status code and Retry-After header")
+  void loginFailsByPasswordHashingUnavailable() throws Exception {
+    UserLoginDTO loginDTO = new UserLoginDTO("user1@email.com", "123456");
+    String jsonBody = this.objectMapper.writeValueAsString(loginDTO);
+
+    when(this.userService.login(loginDTO))
+      .thenThrow(new PasswordHashingUnavailableException(Duration.ofSeconds(2)));
+
+    this.mockMvc.perform(post(BASE_URL + "/login")
+      .contentType(MediaType.APPLICATION_JSON).content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isServiceUnavailable())
+      .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
+      .andExpect(jsonPath("$.code").value(HttpStatus.SERVICE_UNAVAILABLE.value()))
+      .andExpect(jsonPath("$.message").value("Serviço temporariamente sobrecarregado. Tente novamente em instantes"))
+      .andExpect(jsonPath("$.data").doesNotExist());
+
+    verify(this.userService, times(1)).login(loginDTO);
+  }
+
+  @Test
+  @DisplayName("logout - Should return a success response with ok status code after revoking the token")
+  void logoutSuccess() throws Exception {
+    String token = "Access Token";
+
+    doNothing().when(this.userService).logout(token);
+
+    this.mockMvc.perform(post(BASE_URL + "/logout")
+      .accept(MediaType.APPLICATION_JSON)
+      .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.SUCCESS.getValue()))
+      .andExpect(jsonPath("$.code").value(HttpStatus.OK.value()))
+      .andExpect(jsonPath("$.message").value("Logout realizado com sucesso"))
+      .andExpect(jsonPath("$.data").doesNotExist());
+
+    verify(this.userService, times(1)).logout(token);
+  }
+
+  @Test
+  @DisplayName("getRevokedTokens - Should return the id and expiration of every revoked token")
+  void getRevokedTokensSuccess() throws Exception {
+    RevokedTokenDTO revokedToken = new RevokedTokenDTO(
+      "0b5a3c4e-8f7e-4a3b-9d2a-1c6f0e9b7a21",
+      Instant.parse("2024-01-01T14:00:00Z")
+    );
+
+    when(this.userService.getRevokedTokens()).thenReturn(List.of(revokedToken));
+
+    this.mockMvc.perform(get(BASE_URL + "/revoked-tokens")
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1))
+      .andExpect(jsonPath("$[0].tokenId").value(revokedToken.tokenId()))
+      .andExpect(jsonPath("$[0].expiresAt").value("2024-01-01T14:00:00Z"));
+
+    verify(this.userService, times(1)).getRevokedTokens();
+  }
+
+  @Test
+  @DisplayName("getRevokedTokenVersions - Should return the user id and revoked token version of every revocation")
+  void getRevokedTokenVersionsSuccess() throws Exception {
+    RevokedTokenVersionDTO revokedVersion = new RevokedTokenVersionDTO(
+      this.user.getId().toString(),
+      1,
+      Instant.parse("2024-01-01T14:00:00Z")
+    );
+
+    when(this.userService.getRevokedTokenVersions()).thenReturn(List.of(revokedVersion));
+
+    this.mockMvc.perform(get(BASE_URL + "/revoked-token-versions")
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(1))
+      .andExpect(jsonPath("$[0].userId").value(revokedVersion.userId()))
+      .andExpect(jsonPath("$[0].tokenVersion").value(1))
+      .andExpect(jsonPath("$[0].expiresAt").value("2024-01-01T14:00:00Z"));
+
+    verify(this.userService, times(1)).getRevokedTokenVersions();
+  }
+
   @Test
   @DisplayName("validateToken - Should return a success response with ok status code and the validated user")
   void validateTokenSuccess() throws Exception {
@@ -208,4 +303,49 @@ public class AuthControllerTest {
 
     verify(this.userService, times(1)).validateToken(token);
   }
+
+  @Test
+  @DisplayName("validateTokens - Should return a success response with ok status code and the result of each token")
+  void validateTokensSuccess() throws Exception {
+    List<String> tokens = List.of("Access Token 1", "Access Token 2");
+    TokenBatchValidationDTO batchValidationDTO = new TokenBatchValidationDTO(tokens);
+    String jsonBody = this.objectMapper.writeValueAsString(batchValidationDTO);
+    List<TokenValidationResultDTO> results = List.of(
+      TokenValidationResultDTO.valid(new UserResponseDTO(this.user)),
+      TokenValidationResultDTO.invalid("Token inválido")
+    );
+
+    when(this.userService.validateTokens(tokens)).thenReturn(results);
+
+    this.mockMvc.perform(post(BASE_URL + "/validate/batch")
+      .contentType(MediaType.APPLICATION_JSON).content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.length()").value(2))
+      .andExpect(jsonPath("$[0].valid").value(true))
+      .andExpect(jsonPath("$[0].user.id").value(this.user.getId().toString()))
+      .andExpect(jsonPath("$[0].user.email").value(this.user.getEmail()))
+      .andExpect(jsonPath("$[0].message").doesNotExist())
+      .andExpect(jsonPath("$[1].valid").value(false))
+      .andExpect(jsonPath("$[1].user").doesNotExist())
+      .andExpect(jsonPath("$[1].message").value("Token inválido"));
+
+    verify(this.userService, times(1)).validateTokens(tokens);
+  }
+
+  @Test
+  @DisplayName("validateTokens - Should return an error response with unprocessable entity status code if no token is given")
+  void validateTokensFailsByEmptyTokenList() throws Exception {
+    String jsonBody = this.objectMapper.writeValueAsString(new TokenBatchValidationDTO(List.of()));
+
+    this.mockMvc.perform(post(BASE_URL + "/validate/batch")
+      .contentType(MediaType.APPLICATION_JSON).content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
+      .andExpect(jsonPath("$.code").value(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+      .andExpect(jsonPath("$.message").value("Erros de validação"));
+
+    verify(this.userService, never()).validateTokens(List.of());
+  }
 }
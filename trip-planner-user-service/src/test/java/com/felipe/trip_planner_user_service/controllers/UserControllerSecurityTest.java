@@ -0,0 +1,75 @@
+package com.felipe.trip_planner_user_service.controllers;
+
+import com.felipe.trip_planner_user_service.dtos.UserBatchResponseDTO;
+import com.felipe.trip_planner_user_service.security.IdentitySignature;
+import com.felipe.trip_planner_user_service.services.UserService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Runs with the security filters, which UserControllerTest leaves out
+@SpringBootTest
+@ActiveProfiles(value = "test")
+@AutoConfigureMockMvc
+public class UserControllerSecurityTest {
+
+  private static final String BATCH_URL = "/api/users/batch";
+  private static final String SIGNING_KEY = "test-identity-signing-key";
+
+  @Autowired
+  MockMvc mockMvc;
+
+  @MockBean
+  UserService userService;
+
+  @Test
+  @DisplayName("getProfiles - Should reject an anonymous call")
+  void getProfilesFailsByAnonymousCaller() throws Exception {
+    this.mockMvc.perform(post(BATCH_URL)
+      .contentType(MediaType.APPLICATION_JSON).content("{\"emails\": [\"user1@email.com\"]}")
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isForbidden());
+    this.mockMvc.perform(get(BATCH_URL).param("emails", "user1@email.com").accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isForbidden());
+
+    verify(this.userService, never()).getProfiles(anyList());
+  }
+
+  @Test
+  @DisplayName("getProfiles - Should accept a call signed with a service identity")
+  void getProfilesSuccessWithServiceIdentity() throws Exception {
+    String timestamp = Long.toString(System.currentTimeMillis());
+    String nonce = "user-controller-security-test";
+    String signature = new IdentitySignature(SIGNING_KEY).signService("trip-planner-trip-service", timestamp, nonce);
+
+    when(this.userService.getProfiles(List.of("user1@email.com"))).thenReturn(new UserBatchResponseDTO(List.of(), List.of("user1@email.com")));
+
+    this.mockMvc.perform(get(BATCH_URL)
+      .param("emails", "user1@email.com")
+      .header(IdentitySignature.SERVICE_NAME, "trip-planner-trip-service")
+      .header(IdentitySignature.TIMESTAMP, timestamp)
+      .header(IdentitySignature.NONCE, nonce)
+      .header(IdentitySignature.SIGNATURE, signature)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk());
+
+    verify(this.userService, times(1)).getProfiles(List.of("user1@email.com"));
+  }
+}
@@ -1,6 +1,9 @@
 package com.felipe.trip_planner_user_service.controllers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.felipe.trip_planner_user_service.dtos.UserBatchLookupDTO;
+import com.felipe.trip_planner_user_service.dtos.UserBatchResponseDTO;
+import com.felipe.trip_planner_user_service.dtos.UserResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserUpdateDTO;
 import com.felipe.trip_planner_user_service.exceptions.RecordNotFoundException;
 import com.felipe.trip_planner_user_service.models.User;
@@ -22,12 +25,16 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -215,4 +222,94 @@ public class UserControllerTest {
 
     verify(this.userService, times(1)).getProfile(email);
   }
+
+  @Test
+  @DisplayName("getProfiles - Should return the users found and the e-mails without a user for the e-mails in the query")
+  void getProfilesByQuerySuccess() throws Exception {
+    List<String> emails = List.of("user1@email.com", "user2@email.com");
+    UserBatchResponseDTO batchResponse = new UserBatchResponseDTO(List.of(new UserResponseDTO(this.user)), List.of("user2@email.com"));
+
+    when(this.userService.getProfiles(emails)).thenReturn(batchResponse);
+
+    this.mockMvc.perform(get(BASE_URL + "/batch")
+      .param("emails", "user1@email.com,user2@email.com")
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.users.length()").value(1))
+      .andExpect(jsonPath("$.users[0].id").value(this.user.getId().toString()))
+      .andExpect(jsonPath("$.users[0].email").value(this.user.getEmail()))
+      .andExpect(jsonPath("$.users[0].password").doesNotExist())
+      .andExpect(jsonPath("$.notFound[0]").value("user2@email.com"));
+
+    verify(this.userService, times(1)).getProfiles(emails);
+  }
+
+  @Test
+  @DisplayName("getProfiles - Should return the users found and the e-mails without a user for the e-mails in the body")
+  void getProfilesByBodySuccess() throws Exception {
+    UserBatchLookupDTO batchLookupDTO = new UserBatchLookupDTO(List.of("user1@email.com"));
+    UserBatchResponseDTO batchResponse = new UserBatchResponseDTO(List.of(new UserResponseDTO(this.user)), List.of());
+    String jsonBody = this.objectMapper.writeValueAsString(batchLookupDTO);
+
+    when(this.userService.getProfiles(batchLookupDTO.emails())).thenReturn(batchResponse);
+
+    this.mockMvc.perform(post(BASE_URL + "/batch")
+      .contentType(MediaType.APPLICATION_JSON).content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isOk())
+      .andExpect(jsonPath("$.users[0].id").value(this.user.getId().toString()))
+      .andExpect(jsonPath("$.notFound").isEmpty());
+
+    verify(this.userService, times(1)).getProfiles(batchLookupDTO.emails());
+  }
+
+  @Test
+  @DisplayName("getProfiles - Should return an error response with unprocessable entity status code if there are too many e-mails")
+  void getProfilesFailsByBatchSizeExceeded() throws Exception {
+    UserBatchLookupDTO batchLookupDTO = new UserBatchLookupDTO(List.of("1@email.com", "2@email.com", "3@email.com", "4@email.com"));
+    String jsonBody = this.objectMapper.writeValueAsString(batchLookupDTO);
+
+    this.mockMvc.perform(post(BASE_URL + "/batch")
+      .contentType(MediaType.APPLICATION_JSON).content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
+      .andExpect(jsonPath("$.code").value(HttpStatus.UNPROCESSABLE_ENTITY.value()))
+      .andExpect(jsonPath("$.message").value("A lista de e-mails deve ter no máximo 3 e-mails"))
+      .andExpect(jsonPath("$.data").doesNotExist());
+
+    verify(this.userService, never()).getProfiles(anyList());
+  }
+
+  @Test
+  @DisplayName("getProfiles - Should return an error response with unprocessable entity status code if an e-mail in the body is blank")
+  void getProfilesFailsByBlankEmailInBody() throws Exception {
+    String jsonBody = "{\"emails\": [\"user1@email.com\", null, \" \"]}";
+
+    this.mockMvc.perform(post(BASE_URL + "/batch")
+      .contentType(MediaType.APPLICATION_JSON).content(jsonBody)
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
+      .andExpect(jsonPath("$.message").value("Erros de validação"))
+      .andExpect(jsonPath("$.data[?(@.field == 'emails[1]')]").exists())
+      .andExpect(jsonPath("$.data[?(@.field == 'emails[2]')]").exists());
+
+    verify(this.userService, never()).getProfiles(anyList());
+  }
+
+  @Test
+  @DisplayName("getProfiles - Should return an error response with unprocessable entity status code if an e-mail in the query is invalid")
+  void getProfilesFailsByInvalidEmailInQuery() throws Exception {
+    this.mockMvc.perform(get(BASE_URL + "/batch")
+      .param("emails", "user1@email.com,not-an-email")
+      .accept(MediaType.APPLICATION_JSON))
+      .andExpect(status().isUnprocessableEntity())
+      .andExpect(jsonPath("$.status").value(ResponseConditionStatus.ERROR.getValue()))
+      .andExpect(jsonPath("$.message").value("Erros de validação"))
+      .andExpect(jsonPath("$.data.length()").value(1))
+      .andExpect(jsonPath("$.data[0].message").value("O e-mail deve ser válido"));
+
+    verify(this.userService, never()).getProfiles(anyList());
+  }
 }
@@ -0,0 +1,68 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.models.User;
+import com.felipe.trip_planner_user_service.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthServiceTest {
+
+  private static final String EMAIL = "user1@email.com";
+
+  @Mock
+  UserRepository userRepository;
+
+  private AuthService authService;
+  private User user;
+
+  @BeforeEach
+  void setUp() {
+    this.authService = new AuthService(this.userRepository, new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+    this.user = new User();
+    this.user.setEmail(EMAIL);
+    this.user.setPassword("Encoded password");
+  }
+
+  @Test
+  @DisplayName("loadUserByUsername - Should load the user from the database even when its principal is cached")
+  void loadUserByUsernameSkipsCache() {
+    User changedUser = new User();
+    changedUser.setEmail(EMAIL);
+    changedUser.setPassword("Changed encoded password");
+
+    when(this.userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(this.user), Optional.of(changedUser));
+
+    this.authService.findPrincipal(EMAIL);
+    UserDetails userDetails = this.authService.loadUserByUsername(EMAIL);
+
+    assertThat(userDetails.getPassword()).isEqualTo("Changed encoded password");
+    verify(this.userRepository, times(2)).findByEmail(EMAIL);
+  }
+
+  @Test
+  @DisplayName("findPrincipal - Should load a user only once while its principal is cached")
+  void findPrincipalUsesCache() {
+    when(this.userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(this.user));
+
+    this.authService.findPrincipal(EMAIL);
+    Optional<UserPrincipal> principal = this.authService.findPrincipal(EMAIL);
+
+    assertThat(principal).map(UserPrincipal::getUser).contains(this.user);
+    verify(this.userRepository, times(1)).findByEmail(EMAIL);
+  }
+}
@@ -0,0 +1,89 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.exceptions.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BoundedPasswordEncoderTest {
+
+  private final CountDownLatch started = new CountDownLatch(1);
+  private final CountDownLatch release = new CountDownLatch(1);
+  private SimpleMeterRegistry meterRegistry;
+  private BoundedPasswordEncoder passwordEncoder;
+
+  @BeforeEach
+  void setUp() {
+    this.meterRegistry = new SimpleMeterRegistry();
+    this.passwordEncoder = new BoundedPasswordEncoder(new BlockingPasswordEncoder(), 1, 1, Duration.ofSeconds(1), this.meterRegistry);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.release.countDown();
+    this.passwordEncoder.destroy();
+  }
+
+  @Test
+  @DisplayName("encode - Should hash the password on the hashing pool and record the wait and hash times")
+  void encodeSuccess() {
+    this.release.countDown();
+
+    String encodedPassword = this.passwordEncoder.encode("password");
+
+    assertThat(encodedPassword).isEqualTo("encoded:password");
+    assertThat(this.passwordEncoder.matches("password", encodedPassword)).isTrue();
+    assertThat(this.meterRegistry.get("user.password.hashing.duration").tag("operation", "encode").timer().count()).isEqualTo(1);
+    assertThat(this.meterRegistry.get("user.password.hashing.wait").tag("operation", "matches").timer().count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("encode - Should refuse the hash right away when the pool is busy and the queue is full")
+  void encodeFailsByQueueFull() throws Exception {
+    CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> this.passwordEncoder.encode("first"));
+    assertThat(this.started.await(5, TimeUnit.SECONDS)).isTrue();
+    CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> this.passwordEncoder.encode("second"));
+    while(this.meterRegistry.get("user.password.hashing.queue.size").gauge().value() < 1) {
+      Thread.onSpinWait();
+    }
+
+    assertThatThrownBy(() -> this.passwordEncoder.encode("third"))
+      .isInstanceOf(PasswordHashingUnavailableException.class)
+      .hasMessage("Serviço temporariamente sobrecarregado. Tente novamente em instantes");
+    assertThat(this.meterRegistry.get("user.password.hashing.rejected").counter().count()).isEqualTo(1);
+
+    this.release.countDown();
+    assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:first");
+    assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("encoded:second");
+  }
+
+  private class BlockingPasswordEncoder implements PasswordEncoder {
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+      started.countDown();
+      try {
+        release.await();
+      } catch(InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return "encoded:" + rawPassword;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+      return encodedPassword.equals("encoded:" + rawPassword);
+    }
+  }
+}
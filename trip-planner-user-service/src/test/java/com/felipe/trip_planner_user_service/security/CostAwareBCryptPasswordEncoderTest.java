@@ -0,0 +1,33 @@
+package com.felipe.trip_planner_user_service.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CostAwareBCryptPasswordEncoderTest {
+
+  private final CostAwareBCryptPasswordEncoder passwordEncoder = new CostAwareBCryptPasswordEncoder(5);
+
+  @Test
+  @DisplayName("upgradeEncoding - Should ask for an upgrade when the stored cost is lower or higher than the configured one")
+  void upgradeEncodingByDifferentCost() {
+    String lowerCost = new BCryptPasswordEncoder(4).encode("password");
+    String higherCost = new BCryptPasswordEncoder(6).encode("password");
+
+    assertThat(this.passwordEncoder.upgradeEncoding(lowerCost)).isTrue();
+    assertThat(this.passwordEncoder.upgradeEncoding(higherCost)).isTrue();
+    assertThat(this.passwordEncoder.matches("password", higherCost)).isTrue();
+  }
+
+  @Test
+  @DisplayName("upgradeEncoding - Should not ask for an upgrade when the stored cost is the configured one or the hash is not BCrypt")
+  void upgradeEncodingBySameCost() {
+    String sameCost = this.passwordEncoder.encode("password");
+
+    assertThat(this.passwordEncoder.upgradeEncoding(sameCost)).isFalse();
+    assertThat(this.passwordEncoder.upgradeEncoding("not a bcrypt hash")).isFalse();
+    assertThat(this.passwordEncoder.upgradeEncoding(null)).isFalse();
+  }
+}
@@ -0,0 +1,156 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.felipe.trip_planner_user_service.models.User;
+import com.felipe.trip_planner_user_service.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+public class JwtServiceTest {
+
+  private static final String ISSUER = "trip-planner-user-service";
+
+  private static KeyPair activeKeyPair;
+  private static KeyPair previousKeyPair;
+  private static KeyPair expiredKeyPair;
+
+  private TokenRevocationList tokenRevocationList;
+  private JwtService jwtService;
+  private UserPrincipal userPrincipal;
+
+  @BeforeAll
+  static void generateKeyPairs() throws NoSuchAlgorithmException {
+    KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+    generator.initialize(2048);
+    activeKeyPair = generator.generateKeyPair();
+    previousKeyPair = generator.generateKeyPair();
+    expiredKeyPair = generator.generateKeyPair();
+  }
+
+  @BeforeEach
+  void setUp() {
+    JwtKeyRingProperties properties = new JwtKeyRingProperties(Duration.ofHours(2), List.of(
+      new JwtKeyRingProperties.VerificationKey("key-1", pem(previousKeyPair), Instant.now().minus(Duration.ofHours(1))),
+      new JwtKeyRingProperties.VerificationKey("key-0", pem(expiredKeyPair), Instant.now().minus(Duration.ofHours(3)))
+    ));
+    JwtKeyRing keyRing = new JwtKeyRing(
+      "key-2",
+      (RSAPrivateKey) activeKeyPair.getPrivate(),
+      (RSAPublicKey) activeKeyPair.getPublic(),
+      ISSUER,
+      properties,
+      new DefaultResourceLoader()
+    );
+    this.tokenRevocationList = new TokenRevocationList(mock(RevokedTokenRepository.class), 100, 0.01);
+    this.jwtService = new JwtService(keyRing, this.tokenRevocationList, ISSUER);
+
+    User user = new User();
+    user.setId(UUID.fromString("62dac895-a1f0-4140-b52b-4c12cb82c6ff"));
+    user.setName("User 1");
+    user.setEmail("user1@email.com");
+    user.setTokenVersion(3);
+    this.userPrincipal = new UserPrincipal(user);
+  }
+
+  @Test
+  @DisplayName("generateToken - Should sign the token with the active key, set its id in the kid header and carry the user claims")
+  void generateTokenSuccess() {
+    String token = this.jwtService.generateToken(this.userPrincipal);
+
+    assertThat(JWT.decode(token).getKeyId()).isEqualTo("key-2");
+
+    TokenClaims claims = this.jwtService.validateToken(token);
+
+    assertThat(claims.isSelfContained()).isTrue();
+    assertThat(claims.email()).isEqualTo("user1@email.com");
+    assertThat(claims.userId()).isEqualTo(this.userPrincipal.getUser().getId());
+    assertThat(claims.name()).isEqualTo("User 1");
+    assertThat(claims.tokenVersion()).isEqualTo(3);
+    assertThat(claims.tokenId()).isNotNull();
+    assertThat(claims.expiresAt()).isNotNull();
+  }
+
+  @Test
+  @DisplayName("validateToken - Should accept a token signed with a retired key within the grace period")
+  void validateTokenSignedWithRetiredKey() {
+    String token = this.signWith(previousKeyPair, "key-1");
+
+    assertThat(this.jwtService.validateToken(token).email()).isEqualTo("user1@email.com");
+  }
+
+  @Test
+  @DisplayName("validateToken - Should accept a token issued without kid with the active key")
+  void validateTokenWithoutKeyId() {
+    String token = this.signWith(activeKeyPair, null);
+
+    assertThat(this.jwtService.validateToken(token).email()).isEqualTo("user1@email.com");
+  }
+
+  @Test
+  @DisplayName("validateToken - Should reject a token signed with a key whose grace period is over")
+  void validateTokenFailsByExpiredKey() {
+    String token = this.signWith(expiredKeyPair, "key-0");
+
+    assertThatThrownBy(() -> this.jwtService.validateToken(token))
+      .isExactlyInstanceOf(JWTVerificationException.class)
+      .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido");
+  }
+
+  @Test
+  @DisplayName("validateToken - Should reject a token whose kid does not match the key that signed it")
+  void validateTokenFailsByWrongKey() {
+    String token = this.signWith(previousKeyPair, "key-2");
+
+    assertThatThrownBy(() -> this.jwtService.validateToken(token))
+      .isExactlyInstanceOf(JWTVerificationException.class)
+      .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido");
+  }
+
+  @Test
+  @DisplayName("validateToken - Should reject a revoked token")
+  void validateTokenFailsByRevokedToken() {
+    String token = this.jwtService.generateToken(this.userPrincipal);
+    TokenClaims claims = this.jwtService.validateToken(token);
+
+    this.tokenRevocationList.revoke(claims.tokenId(), claims.expiresAt());
+
+    assertThatThrownBy(() -> this.jwtService.validateToken(token))
+      .isExactlyInstanceOf(JWTVerificationException.class)
+      .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido");
+  }
+
+  private String signWith(KeyPair keyPair, String keyId) {
+    Algorithm algorithm = Algorithm.RSA256((RSAPublicKey) keyPair.getPublic(), (RSAPrivateKey) keyPair.getPrivate());
+    return JWT.create()
+      .withKeyId(keyId)
+      .withIssuer(ISSUER)
+      .withSubject("user1@email.com")
+      .withExpiresAt(Instant.now().plus(Duration.ofHours(1)))
+      .sign(algorithm);
+  }
+
+  private static String pem(KeyPair keyPair) {
+    String encodedKey = Base64.getMimeEncoder().encodeToString(keyPair.getPublic().getEncoded());
+    return "-----BEGIN PUBLIC KEY-----\n" + encodedKey + "\n-----END PUBLIC KEY-----";
+  }
+}
@@ -0,0 +1,93 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.models.RevokedToken;
+import com.felipe.trip_planner_user_service.repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationListTest {
+
+  @Mock
+  RevokedTokenRepository revokedTokenRepository;
+
+  private TokenRevocationList tokenRevocationList;
+
+  @BeforeEach
+  void setUp() {
+    this.tokenRevocationList = new TokenRevocationList(this.revokedTokenRepository, 2, 0.01);
+  }
+
+  @Test
+  @DisplayName("revoke - Should store the revoked token and reject it from then on")
+  void revokeSuccess() {
+    UUID tokenId = UUID.randomUUID();
+
+    boolean revoked = this.tokenRevocationList.revoke(tokenId, Instant.now().plus(Duration.ofHours(1)));
+
+    assertThat(revoked).isTrue();
+    assertThat(this.tokenRevocationList.isRevoked(tokenId)).isTrue();
+    assertThat(this.tokenRevocationList.isRevoked(UUID.randomUUID())).isFalse();
+    verify(this.revokedTokenRepository, times(1)).save(any(RevokedToken.class));
+  }
+
+  @Test
+  @DisplayName("revoke - Should keep the token revoked in memory when storing it fails")
+  void revokeKeepsTokenWhenStoringFails() {
+    UUID tokenId = UUID.randomUUID();
+    when(this.revokedTokenRepository.save(any(RevokedToken.class))).thenThrow(new IllegalStateException("indisponível"));
+
+    assertThatThrownBy(() -> this.tokenRevocationList.revoke(tokenId, Instant.now().plus(Duration.ofHours(1))))
+      .isInstanceOf(IllegalStateException.class);
+
+    assertThat(this.tokenRevocationList.isRevoked(tokenId)).isTrue();
+  }
+
+  @Test
+  @DisplayName("revoke - Should refuse to revoke more tokens than the capacity")
+  void revokeFailsByCapacityReached() {
+    Instant expiresAt = Instant.now().plus(Duration.ofHours(1));
+    this.tokenRevocationList.revoke(UUID.randomUUID(), expiresAt);
+    this.tokenRevocationList.revoke(UUID.randomUUID(), expiresAt);
+    UUID tokenId = UUID.randomUUID();
+
+    boolean revoked = this.tokenRevocationList.revoke(tokenId, expiresAt);
+
+    assertThat(revoked).isFalse();
+    assertThat(this.tokenRevocationList.isRevoked(tokenId)).isFalse();
+    verify(this.revokedTokenRepository, times(2)).save(any(RevokedToken.class));
+  }
+
+  @Test
+  @DisplayName("rebuild - Should drop the expired tokens and load the ones revoked by other instances")
+  void rebuildSuccess() {
+    UUID expiredTokenId = UUID.randomUUID();
+    UUID storedTokenId = UUID.randomUUID();
+    this.tokenRevocationList.revoke(expiredTokenId, Instant.now().minus(Duration.ofMinutes(1)));
+    when(this.revokedTokenRepository.findAllByExpiresAtAfter(any(Instant.class)))
+      .thenReturn(List.of(new RevokedToken(storedTokenId, Instant.now().plus(Duration.ofHours(1)))));
+
+    this.tokenRevocationList.rebuild();
+
+    assertThat(this.tokenRevocationList.isRevoked(expiredTokenId)).isFalse();
+    assertThat(this.tokenRevocationList.isRevoked(storedTokenId)).isTrue();
+    assertThat(this.tokenRevocationList.getRevokedTokens()).containsOnlyKeys(storedTokenId);
+    verify(this.revokedTokenRepository, times(1)).deleteAllExpiredAt(any(Instant.class));
+  }
+}
@@ -0,0 +1,167 @@
+package com.felipe.trip_planner_user_service.security;
+
+import com.felipe.trip_planner_user_service.models.RevokedTokenVersion;
+import com.felipe.trip_planner_user_service.repositories.RevokedTokenVersionRepository;
+import com.felipe.trip_planner_user_service.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenVersionTableTest {
+
+  private static final UUID USER_ID = UUID.fromString("62dac895-a1f0-4140-b52b-4c12cb82c6ff");
+
+  @Mock
+  UserRepository userRepository;
+
+  @Mock
+  RevokedTokenVersionRepository revokedTokenVersionRepository;
+
+  private TokenVersionTable tokenVersionTable;
+
+  @BeforeEach
+  void setUp() {
+    this.tokenVersionTable = new TokenVersionTable(this.userRepository, this.revokedTokenVersionRepository);
+  }
+
+  @Test
+  @DisplayName("isCurrent - Should look up a missing user only once")
+  void isCurrentLoadsMissingUserOnce() {
+    when(this.userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.of(2));
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 2)).isTrue();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 1)).isFalse();
+
+    verify(this.userRepository, times(1)).findTokenVersionById(USER_ID);
+  }
+
+  @Test
+  @DisplayName("isCurrent - Should reject every version of a user that does not exist")
+  void isCurrentFailsByUserNotFound() {
+    when(this.userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.empty());
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+
+    verify(this.userRepository, times(1)).findTokenVersionById(USER_ID);
+  }
+
+  @Test
+  @DisplayName("update - Should revoke the tokens of the previous version")
+  void updateRevokesPreviousVersion() {
+    this.tokenVersionTable.update(USER_ID, 0);
+    this.tokenVersionTable.update(USER_ID, 1);
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 1)).isTrue();
+
+    verify(this.userRepository, never()).findTokenVersionById(USER_ID);
+  }
+
+  @Test
+  @DisplayName("revoke - Should revoke the previous versions and store the revocation for the gateway")
+  void revokeStoresRevocation() {
+    Instant expiresAt = Instant.parse("2024-01-01T14:00:00Z");
+
+    this.tokenVersionTable.revoke(USER_ID, 1, expiresAt);
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 1)).isTrue();
+    verify(this.revokedTokenVersionRepository, times(1)).save(argThat(revokedVersion ->
+      revokedVersion.getUserId().equals(USER_ID)
+        && revokedVersion.getTokenVersion() == 1
+        && revokedVersion.getExpiresAt().equals(expiresAt)
+    ));
+  }
+
+  @Test
+  @DisplayName("markDeleted - Should revoke every version of the user and store the revocation for the gateway")
+  void markDeletedStoresRevocation() {
+    this.tokenVersionTable.markDeleted(USER_ID, Instant.now());
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+    verify(this.revokedTokenVersionRepository, times(1)).save(argThat(revokedVersion ->
+      revokedVersion.getTokenVersion() == TokenVersionTable.DELETED
+    ));
+    verify(this.userRepository, never()).findTokenVersionById(USER_ID);
+  }
+
+  @Test
+  @DisplayName("isCurrent - Should look up the user again when the token has a newer version than the table")
+  void isCurrentReloadsNewerTokenVersion() {
+    when(this.userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.of(3));
+
+    this.tokenVersionTable.update(USER_ID, 2);
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 3)).isTrue();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 2)).isFalse();
+    verify(this.userRepository, times(1)).findTokenVersionById(USER_ID);
+  }
+
+  @Test
+  @DisplayName("refresh - Should drop the stored revocations whose tokens have all expired")
+  void refreshDeletesExpiredRevocations() {
+    when(this.revokedTokenVersionRepository.findAllByExpiresAtAfter(any(Instant.class))).thenReturn(List.of());
+
+    this.tokenVersionTable.refresh();
+
+    verify(this.revokedTokenVersionRepository, times(1)).deleteAllExpiredAt(any(Instant.class));
+    verify(this.userRepository, never()).findTokenVersionById(any(UUID.class));
+  }
+
+  @Test
+  @DisplayName("refresh - Should keep a local version newer than the reloaded one")
+  void refreshKeepsNewerLocalVersion() {
+    when(this.revokedTokenVersionRepository.findAllByExpiresAtAfter(any(Instant.class)))
+      .thenReturn(List.of(new RevokedTokenVersion(USER_ID, 1, Instant.now())));
+
+    this.tokenVersionTable.markDeleted(USER_ID, Instant.now());
+    this.tokenVersionTable.refresh();
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 1)).isFalse();
+    verify(this.userRepository, never()).findTokenVersionById(USER_ID);
+  }
+
+  @Test
+  @DisplayName("refresh - Should pick up a version changed by another instance")
+  void refreshLoadsNewerStoredVersion() {
+    when(this.revokedTokenVersionRepository.findAllByExpiresAtAfter(any(Instant.class)))
+      .thenReturn(List.of(new RevokedTokenVersion(USER_ID, 3, Instant.now())));
+
+    this.tokenVersionTable.update(USER_ID, 2);
+    this.tokenVersionTable.refresh();
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 2)).isFalse();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 3)).isTrue();
+  }
+
+  @Test
+  @DisplayName("refresh - Should keep the users found missing without looking them up again")
+  void refreshKeepsMissingUsers() {
+    when(this.userRepository.findTokenVersionById(USER_ID)).thenReturn(Optional.empty());
+    when(this.revokedTokenVersionRepository.findAllByExpiresAtAfter(any(Instant.class))).thenReturn(List.of());
+
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+    this.tokenVersionTable.refresh();
+    assertThat(this.tokenVersionTable.isCurrent(USER_ID, 0)).isFalse();
+
+    verify(this.userRepository, times(1)).findTokenVersionById(USER_ID);
+  }
+}
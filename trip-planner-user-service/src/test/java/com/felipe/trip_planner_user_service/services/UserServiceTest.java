@@ -1,16 +1,22 @@
 package com.felipe.trip_planner_user_service.services;
 
 import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.felipe.trip_planner_user_service.dtos.TokenValidationResultDTO;
+import com.felipe.trip_planner_user_service.dtos.UserBatchResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserLoginDTO;
 import com.felipe.trip_planner_user_service.dtos.UserRegisterDTO;
 import com.felipe.trip_planner_user_service.dtos.UserResponseDTO;
 import com.felipe.trip_planner_user_service.dtos.UserUpdateDTO;
+import com.felipe.trip_planner_user_service.exceptions.PasswordHashingUnavailableException;
 import com.felipe.trip_planner_user_service.exceptions.RecordNotFoundException;
 import com.felipe.trip_planner_user_service.exceptions.UserAlreadyExistsException;
 import com.felipe.trip_planner_user_service.models.User;
 import com.felipe.trip_planner_user_service.repositories.UserRepository;
 import com.felipe.trip_planner_user_service.security.AuthService;
 import com.felipe.trip_planner_user_service.security.JwtService;
+import com.felipe.trip_planner_user_service.security.TokenClaims;
+import com.felipe.trip_planner_user_service.security.TokenRevocationList;
+import com.felipe.trip_planner_user_service.security.TokenVersionTable;
 import com.felipe.trip_planner_user_service.security.UserPrincipal;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -26,11 +32,16 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.never;
@@ -65,6 +76,12 @@ public class UserServiceTest {
   @Mock
   AuthService authService;
 
+  @Mock
+  TokenVersionTable tokenVersionTable;
+
+  @Mock
+  TokenRevocationList tokenRevocationList;
+
   private User user;
 
   @BeforeEach
@@ -121,6 +138,7 @@ public class UserServiceTest {
     verify(this.userRepository, times(1)).findByEmail(userRegisterDTO.email());
     verify(this.passwordEncoder, never()).encode(anyString());
     verify(this.userRepository, never()).save(any(User.class));
+    verify(this.authService, never()).evict(anyString());
   }
 
   @Test
@@ -155,6 +173,51 @@ public class UserServiceTest {
     verify(this.jwtService, times(1)).generateToken(userPrincipal);
   }
 
+  @Test
+  @DisplayName("login - Should replace the stored hash when its algorithm or cost differs from the configured one")
+  void loginSuccessRehashesPassword() {
+    UserLoginDTO loginDTO = new UserLoginDTO("user1@email.com", "123456");
+    var auth = new UsernamePasswordAuthenticationToken(loginDTO.email(), loginDTO.password());
+    UserPrincipal userPrincipal = new UserPrincipal(this.user);
+
+    when(this.authenticationManager.authenticate(auth)).thenReturn(this.authentication);
+    when(this.authentication.getPrincipal()).thenReturn(userPrincipal);
+    when(this.passwordEncoder.upgradeEncoding(this.user.getPassword())).thenReturn(true);
+    when(this.passwordEncoder.encode(loginDTO.password())).thenReturn("Rehashed password");
+    when(this.userRepository.updatePassword(this.user.getId(), this.user.getPassword(), "Rehashed password")).thenReturn(1);
+    when(this.jwtService.generateToken(userPrincipal)).thenReturn("Access Token");
+
+    Map<String, Object> loginResponse = this.userService.login(loginDTO);
+
+    assertThat(loginResponse.get("token")).isEqualTo("Access Token");
+
+    verify(this.passwordEncoder, times(1)).encode(loginDTO.password());
+    verify(this.userRepository, times(1)).updatePassword(this.user.getId(), this.user.getPassword(), "Rehashed password");
+    verify(this.authService, times(1)).evict(this.user.getEmail());
+  }
+
+  @Test
+  @DisplayName("login - Should log the user in without replacing the hash when password hashing is overloaded")
+  void loginSuccessSkipsRehashUnderLoad() {
+    UserLoginDTO loginDTO = new UserLoginDTO("user1@email.com", "123456");
+    var auth = new UsernamePasswordAuthenticationToken(loginDTO.email(), loginDTO.password());
+    UserPrincipal userPrincipal = new UserPrincipal(this.user);
+
+    when(this.authenticationManager.authenticate(auth)).thenReturn(this.authentication);
+    when(this.authentication.getPrincipal()).thenReturn(userPrincipal);
+    when(this.passwordEncoder.upgradeEncoding(this.user.getPassword())).thenReturn(true);
+    when(this.passwordEncoder.encode(loginDTO.password()))
+      .thenThrow(new PasswordHashingUnavailableException(Duration.ofSeconds(1)));
+    when(this.jwtService.generateToken(userPrincipal)).thenReturn("Access Token");
+
+    Map<String, Object> loginResponse = this.userService.login(loginDTO);
+
+    assertThat(loginResponse.get("token")).isEqualTo("Access Token");
+
+    verify(this.userRepository, never()).updatePassword(any(UUID.class), anyString(), anyString());
+    verify(this.authService, never()).evict(anyString());
+  }
+
   @Test
   @DisplayName("login - Should throw a BadCredentialsException if credentials are invalid")
   void loginFailsByBadCredentials() {
@@ -175,13 +238,117 @@ public class UserServiceTest {
   }
 
   @Test
-  @DisplayName("validateToken - Should successfully validate the token, and find the user by the returned e-mail")
+  @DisplayName("logout - Should revoke the token of the authenticated user by its id")
+  void logoutSuccess() {
+    String token = "Access Token";
+    UUID tokenId = UUID.randomUUID();
+    Instant expiresAt = Instant.parse("2024-01-01T14:00:00Z");
+    TokenClaims claims = new TokenClaims(this.user.getEmail(), this.user.getId(), this.user.getName(), 0, tokenId, expiresAt);
+
+    when(this.jwtService.validateToken(token)).thenReturn(claims);
+    when(this.authService.getAuthentication()).thenReturn(this.authentication);
+    when(this.authentication.getPrincipal()).thenReturn(new UserPrincipal(this.user));
+    when(this.tokenRevocationList.revoke(tokenId, expiresAt)).thenReturn(true);
+
+    this.userService.logout(token);
+
+    verify(this.tokenRevocationList, times(1)).revoke(tokenId, expiresAt);
+    verify(this.userRepository, never()).save(any(User.class));
+    verify(this.tokenVersionTable, never()).revoke(any(UUID.class), anyInt(), any(Instant.class));
+  }
+
+  @Test
+  @DisplayName("logout - Should revoke every token of the user if the token cannot be revoked by its id")
+  void logoutRevokesEveryTokenWhenRevocationListIsFull() {
+    String token = "Access Token";
+    UUID tokenId = UUID.randomUUID();
+    Instant expiresAt = Instant.parse("2024-01-01T14:00:00Z");
+    TokenClaims claims = new TokenClaims(this.user.getEmail(), this.user.getId(), this.user.getName(), 0, tokenId, expiresAt);
+
+    when(this.jwtService.validateToken(token)).thenReturn(claims);
+    when(this.authService.getAuthentication()).thenReturn(this.authentication);
+    when(this.authentication.getPrincipal()).thenReturn(new UserPrincipal(this.user));
+    when(this.tokenRevocationList.revoke(tokenId, expiresAt)).thenReturn(false);
+    when(this.userRepository.findById(this.user.getId())).thenReturn(Optional.of(this.user));
+    when(this.userRepository.save(this.user)).thenReturn(this.user);
+    when(this.jwtService.getLatestExpiration()).thenReturn(Instant.parse("2024-01-01T16:00:00Z"));
+
+    this.userService.logout(token);
+
+    assertThat(this.user.getTokenVersion()).isEqualTo(1);
+    verify(this.userRepository, times(1)).save(this.user);
+    verify(this.tokenVersionTable, times(1)).revoke(this.user.getId(), 1, Instant.parse("2024-01-01T16:00:00Z"));
+    verify(this.authService, times(1)).evict(this.user.getEmail());
+  }
+
+  @Test
+  @DisplayName("logout - Should throw an AccessDeniedException if the token belongs to another user")
+  void logoutFailsByAccessDenied() {
+    String token = "Access Token";
+    TokenClaims claims = new TokenClaims("user2@email.com", UUID.randomUUID(), "User 2", 0, UUID.randomUUID(), null);
+
+    when(this.jwtService.validateToken(token)).thenReturn(claims);
+    when(this.authService.getAuthentication()).thenReturn(this.authentication);
+    when(this.authentication.getPrincipal()).thenReturn(new UserPrincipal(this.user));
+
+    Exception thrown = catchException(() -> this.userService.logout(token));
+
+    assertThat(thrown)
+      .isExactlyInstanceOf(AccessDeniedException.class)
+      .hasMessage("Acesso negado: O token informado não pertence ao usuário autenticado");
+
+    verify(this.tokenRevocationList, never()).revoke(any(UUID.class), any());
+    verify(this.userRepository, never()).save(any(User.class));
+  }
+
+  @Test
+  @DisplayName("validateToken - Should successfully validate the token, and check its version without loading the user")
   void validateTokenSuccess() {
+    String token = "Access Token";
+    TokenClaims claims = new TokenClaims(this.user.getEmail(), this.user.getId(), this.user.getName(), 2, UUID.randomUUID(), null);
+
+    when(this.jwtService.validateToken(token)).thenReturn(claims);
+    when(this.tokenVersionTable.isCurrent(this.user.getId(), 2)).thenReturn(true);
+
+    UserResponseDTO validatedUser = this.userService.validateToken(token);
+
+    assertThat(validatedUser.id()).isEqualTo(this.user.getId().toString());
+    assertThat(validatedUser.name()).isEqualTo(this.user.getName());
+    assertThat(validatedUser.email()).isEqualTo(this.user.getEmail());
+
+    verify(this.jwtService, times(1)).validateToken(token);
+    verify(this.tokenVersionTable, times(1)).isCurrent(this.user.getId(), 2);
+    verify(this.authService, never()).findPrincipal(anyString());
+    verify(this.userRepository, never()).findByEmail(anyString());
+  }
+
+  @Test
+  @DisplayName("validateToken - Should throw a JWTVerificationException if the token version has been revoked")
+  void validateTokenFailsByRevokedVersion() {
+    String token = "Access Token";
+    TokenClaims claims = new TokenClaims(this.user.getEmail(), this.user.getId(), this.user.getName(), 1, UUID.randomUUID(), null);
+
+    when(this.jwtService.validateToken(token)).thenReturn(claims);
+    when(this.tokenVersionTable.isCurrent(this.user.getId(), 1)).thenReturn(false);
+
+    Exception thrown = catchException(() -> this.userService.validateToken(token));
+
+    assertThat(thrown)
+      .isExactlyInstanceOf(JWTVerificationException.class)
+      .hasMessage("O token de acesso fornecido expirou, foi revogado ou é inválido");
+
+    verify(this.jwtService, times(1)).validateToken(token);
+    verify(this.tokenVersionTable, times(1)).isCurrent(this.user.getId(), 1);
+  }
+
+  @Test
+  @DisplayName("validateToken - Should validate a token without the user claims by finding the user by its e-mail")
+  void validateTokenWithoutUserClaimsSuccess() {
     String token = "Access Token";
     String email = "user1@email.com";
 
-    when(this.jwtService.validateToken(token)).thenReturn(email);
-    when(this.userRepository.findByEmail(email)).thenReturn(Optional.of(this.user));
+    when(this.jwtService.validateToken(token)).thenReturn(new TokenClaims(email, null, null, null, null, null));
+    when(this.authService.findPrincipal(email)).thenReturn(Optional.of(new UserPrincipal(this.user)));
 
     UserResponseDTO validatedUser = this.userService.validateToken(token);
 
@@ -192,7 +359,7 @@ public class UserServiceTest {
     assertThat(validatedUser.updatedAt()).isEqualTo(this.user.getUpdatedAt());
 
     verify(this.jwtService, times(1)).validateToken(token);
-    verify(this.userRepository, times(1)).findByEmail(email);
+    verify(this.authService, times(1)).findPrincipal(email);
   }
 
   @Test
@@ -201,8 +368,8 @@ public class UserServiceTest {
     String token = "Access Token";
     String email = "user1@email.com";
 
-    when(this.jwtService.validateToken(token)).thenReturn(email);
-    when(this.userRepository.findByEmail(email)).thenReturn(Optional.empty());
+    when(this.jwtService.validateToken(token)).thenReturn(new TokenClaims(email, null, null, null, null, null));
+    when(this.authService.findPrincipal(email)).thenReturn(Optional.empty());
 
     Exception thrown = catchException(() -> this.userService.validateToken(token));
 
@@ -211,7 +378,40 @@ public class UserServiceTest {
       .hasMessage("Token inválido");
 
     verify(this.jwtService, times(1)).validateToken(token);
-    verify(this.userRepository, times(1)).findByEmail(email);
+    verify(this.authService, times(1)).findPrincipal(email);
+  }
+
+  @Test
+  @DisplayName("validateTokens - Should validate every token and resolve all the users with a single lookup")
+  void validateTokensSuccess() {
+    String email = "user1@email.com";
+
+    when(this.jwtService.validateToken("Token 1")).thenReturn(new TokenClaims(email, null, null, null, null, null));
+    when(this.jwtService.validateToken("Token 2")).thenThrow(new JWTVerificationException("Token expirado"));
+    when(this.jwtService.validateToken("Token 3")).thenReturn(new TokenClaims("user2@email.com", null, null, null, null, null));
+    when(this.jwtService.validateToken("Token 4"))
+      .thenReturn(new TokenClaims(email, this.user.getId(), this.user.getName(), 0, UUID.randomUUID(), null));
+    when(this.tokenVersionTable.isCurrent(this.user.getId(), 0)).thenReturn(true);
+    when(this.authService.findPrincipals(Set.of(email, "user2@email.com")))
+      .thenReturn(Map.of(email, new UserPrincipal(this.user)));
+
+    List<TokenValidationResultDTO> results = this.userService.validateTokens(List.of("Token 1", "Token 2", "Token 3", "Token 4"));
+
+    assertThat(results).hasSize(4);
+    assertThat(results.get(0).valid()).isTrue();
+    assertThat(results.get(0).user().id()).isEqualTo(this.user.getId().toString());
+    assertThat(results.get(0).user().email()).isEqualTo(this.user.getEmail());
+    assertThat(results.get(1).valid()).isFalse();
+    assertThat(results.get(1).user()).isNull();
+    assertThat(results.get(1).message()).isEqualTo("O token de acesso fornecido expirou, foi revogado ou é inválido");
+    assertThat(results.get(2).valid()).isFalse();
+    assertThat(results.get(2).message()).isEqualTo("Token inválido");
+    assertThat(results.get(3).valid()).isTrue();
+    assertThat(results.get(3).user().id()).isEqualTo(this.user.getId().toString());
+
+    verify(this.jwtService, times(4)).validateToken(anyString());
+    verify(this.authService, times(1)).findPrincipals(Set.of(email, "user2@email.com"));
+    verify(this.authService, never()).findPrincipal(anyString());
   }
 
   @Test
@@ -221,6 +421,7 @@ public class UserServiceTest {
 
     when(this.authService.getAuthentication()).thenReturn(this.authentication);
     when(this.authentication.getPrincipal()).thenReturn(userPrincipal);
+    when(this.authService.findPrincipal(this.user.getEmail())).thenReturn(Optional.of(userPrincipal));
 
     User authenticatedUser = this.userService.getAuthenticatedUserProfile();
 
@@ -232,6 +433,7 @@ public class UserServiceTest {
 
     verify(this.authService, times(1)).getAuthentication();
     verify(this.authentication, times(1)).getPrincipal();
+    verify(this.authService, times(1)).findPrincipal(this.user.getEmail());
   }
 
   @Test
@@ -269,6 +471,36 @@ public class UserServiceTest {
     verify(this.userRepository, times(1)).findByEmail(email);
   }
 
+  @Test
+  @DisplayName("getProfiles - Should find the users with a single query and return the e-mails without a user")
+  void getProfilesSuccess() {
+    String email = this.user.getEmail();
+    List<String> emails = List.of("user2@email.com", email, email);
+
+    when(this.userRepository.findAllByEmailIn(Set.of("user2@email.com", email))).thenReturn(List.of(this.user));
+
+    UserBatchResponseDTO batchResponse = this.userService.getProfiles(emails);
+
+    assertThat(batchResponse.users()).containsExactly(new UserResponseDTO(this.user));
+    assertThat(batchResponse.notFound()).containsExactly("user2@email.com");
+
+    verify(this.userRepository, times(1)).findAllByEmailIn(Set.of("user2@email.com", email));
+    verify(this.userRepository, never()).findByEmail(anyString());
+  }
+
+  @Test
+  @DisplayName("getProfiles - Should match the e-mails exactly as stored, like getProfile")
+  void getProfilesMatchesStoredEmail() {
+    String email = this.user.getEmail().toUpperCase();
+
+    when(this.userRepository.findAllByEmailIn(Set.of(email))).thenReturn(List.of());
+
+    UserBatchResponseDTO batchResponse = this.userService.getProfiles(List.of(email));
+
+    assertThat(batchResponse.users()).isEmpty();
+    assertThat(batchResponse.notFound()).containsExactly(email);
+  }
+
   @Test
   @DisplayName("update - Should successfully update a user and return it")
   void updateSuccess() {
@@ -281,12 +513,14 @@ public class UserServiceTest {
     when(this.userRepository.findById(userId)).thenReturn(Optional.of(this.user));
     when(this.passwordEncoder.encode(updateDTO.password())).thenReturn("Updated encoded password");
     when(this.userRepository.save(this.user)).thenReturn(this.user);
+    when(this.jwtService.getLatestExpiration()).thenReturn(Instant.parse("2024-01-01T14:00:00Z"));
 
     User updatedUser = this.userService.update(userId, updateDTO);
 
     assertThat(updatedUser.getId()).isEqualTo(this.user.getId());
     assertThat(updatedUser.getName()).isEqualTo(updateDTO.name());
     assertThat(updatedUser.getPassword()).isEqualTo("Updated encoded password");
+    assertThat(updatedUser.getTokenVersion()).isEqualTo(1);
     assertThat(updatedUser.getCreatedAt()).isEqualTo(this.user.getCreatedAt());
     assertThat(updatedUser.getUpdatedAt()).isEqualTo(this.user.getUpdatedAt());
 
@@ -295,6 +529,8 @@ public class UserServiceTest {
     verify(this.userRepository, times(1)).findById(userId);
     verify(this.passwordEncoder, times(1)).encode(updateDTO.password());
     verify(this.userRepository, times(1)).save(this.user);
+    verify(this.tokenVersionTable, times(1)).revoke(userId, 1, Instant.parse("2024-01-01T14:00:00Z"));
+    verify(this.authService, times(1)).evict(this.user.getEmail());
   }
 
   @Test
@@ -318,6 +554,7 @@ public class UserServiceTest {
     verify(this.userRepository, never()).findById(any(UUID.class));
     verify(this.passwordEncoder, never()).encode(anyString());
     verify(this.userRepository, never()).save(any(User.class));
+    verify(this.authService, never()).evict(anyString());
   }
 
   @Test
@@ -342,6 +579,7 @@ public class UserServiceTest {
     verify(this.userRepository, times(1)).findById(userId);
     verify(this.passwordEncoder, never()).encode(anyString());
     verify(this.userRepository, never()).save(any(User.class));
+    verify(this.authService, never()).evict(anyString());
   }
 
   @Test
@@ -351,7 +589,9 @@ public class UserServiceTest {
 
     when(this.authService.getAuthentication()).thenReturn(this.authentication);
     when(this.authentication.getPrincipal()).thenReturn(userPrincipal);
-    doNothing().when(this.userRepository).deleteById(this.user.getId());
+    when(this.userRepository.findById(this.user.getId())).thenReturn(Optional.of(this.user));
+    doNothing().when(this.userRepository).delete(this.user);
+    when(this.jwtService.getLatestExpiration()).thenReturn(Instant.parse("2024-01-01T14:00:00Z"));
 
     User deletedUser = this.userService.deleteAuthenticatedUserProfile();
 
@@ -364,6 +604,9 @@ public class UserServiceTest {
 
     verify(this.authService, times(1)).getAuthentication();
     verify(this.authentication, times(1)).getPrincipal();
-    verify(this.userRepository, times(1)).deleteById(this.user.getId());
+    verify(this.userRepository, times(1)).findById(this.user.getId());
+    verify(this.userRepository, times(1)).delete(this.user);
+    verify(this.tokenVersionTable, times(1)).markDeleted(this.user.getId(), Instant.parse("2024-01-01T14:00:00Z"));
+    verify(this.authService, times(1)).evict(this.user.getEmail());
   }
 }